@@ -33,4 +33,14 @@ public @interface One {
 
   FetchType fetchType() default FetchType.DEFAULT;
 
+  /**
+   * Statement loading the values for many rows at once, from the list of their keys (@since 3.4.5)
+   */
+  String batchSelect() default "";
+
+  /**
+   * Property of the objects returned by batchSelect holding the key they are matched by (@since 3.4.5)
+   */
+  String batchKey() default "";
+
 }
@@ -63,4 +63,11 @@ public @interface Options {
   String keyColumn() default "";
   
   String resultSets() default "";
+
+  /**
+   * Derives a count statement for the select so that it can be queried with {@code SqlSession.selectPage}.
+   * Selects whose mapper method returns a {@code Page} are pageable regardless of this option.
+   * @since 3.4.5
+   */
+  boolean pageable() default false;
 }
@@ -21,6 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.apache.ibatis.executor.keygen.SequenceKeyGenerator;
 import org.apache.ibatis.mapping.StatementType;
 
 /**
@@ -41,4 +42,16 @@ public @interface SelectKey {
   Class<?> resultType();
 
   StatementType statementType() default StatementType.PREPARED;
+
+  /**
+   * When positive, the statement reserves blocks of this many keys which are handed out from memory.
+   * @since 3.4.5
+   */
+  int allocationSize() default 0;
+
+  /**
+   * How the value of the statement is turned into a block of keys, when allocationSize is positive.
+   * @since 3.4.5
+   */
+  SequenceKeyGenerator.Optimizer optimizer() default SequenceKeyGenerator.Optimizer.POOLED;
 }
@@ -18,12 +18,15 @@ package org.apache.ibatis.binding;
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.result.PrimitiveArrayResultHandler;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ParamNameResolver;
 import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.KeysetBounds;
+import org.apache.ibatis.session.Page;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
@@ -71,12 +74,16 @@ public class MapperMethod {
         if (method.returnsVoid() && method.hasResultHandler()) {
           executeWithResultHandler(sqlSession, args);
           result = null;
+        } else if (method.returnsPrimitiveArray()) {
+          result = executeForPrimitiveArray(sqlSession, args);
         } else if (method.returnsMany()) {
           result = executeForMany(sqlSession, args);
         } else if (method.returnsMap()) {
           result = executeForMap(sqlSession, args);
         } else if (method.returnsCursor()) {
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsPage()) {
+          result = executeForPage(sqlSession, args);
         } else {
           Object param = method.convertArgsToSqlCommandParam(args);
           result = sqlSession.selectOne(command.getName(), param);
@@ -147,18 +154,40 @@ public class MapperMethod {
     return result;
   }
 
+  @SuppressWarnings("unchecked")
   private <T> Cursor<T> executeForCursor(SqlSession sqlSession, Object[] args) {
     Cursor<T> result;
     Object param = method.convertArgsToSqlCommandParam(args);
     if (method.hasRowBounds()) {
       RowBounds rowBounds = method.extractRowBounds(args);
-      result = sqlSession.<T>selectCursor(command.getName(), param, rowBounds);
+      if (rowBounds instanceof KeysetBounds) {
+        result = (Cursor<T>) sqlSession.selectKeysetPages(command.getName(), param, (KeysetBounds) rowBounds);
+      } else {
+        result = sqlSession.<T>selectCursor(command.getName(), param, rowBounds);
+      }
     } else {
       result = sqlSession.<T>selectCursor(command.getName(), param);
     }
     return result;
   }
 
+  private Object executeForPrimitiveArray(SqlSession sqlSession, Object[] args) {
+    MappedStatement ms = sqlSession.getConfiguration().getMappedStatement(command.getName());
+    if (sqlSession.getConfiguration().isCacheEnabled() && ms.getCache() != null && ms.isUseCache()) {
+      // the second level cache holds lists and is bypassed for statements run with a result handler
+      return executeForMany(sqlSession, args);
+    }
+    Object param = method.convertArgsToSqlCommandParam(args);
+    RowBounds rowBounds = method.hasRowBounds() ? method.extractRowBounds(args) : RowBounds.DEFAULT;
+    return sqlSession.selectPrimitiveArray(command.getName(), param, rowBounds, method.getReturnType());
+  }
+
+  private <E> Page<E> executeForPage(SqlSession sqlSession, Object[] args) {
+    Object param = method.convertArgsToSqlCommandParam(args);
+    RowBounds rowBounds = method.hasRowBounds() ? method.extractRowBounds(args) : RowBounds.DEFAULT;
+    return sqlSession.<E>selectPage(command.getName(), param, rowBounds);
+  }
+
   private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
     Object collection = config.getObjectFactory().create(method.getReturnType());
     MetaObject metaObject = config.newMetaObject(collection);
@@ -268,6 +297,8 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsPage;
+    private final boolean returnsPrimitiveArray;
     private final Class<?> returnType;
     private final String mapKey;
     private final Integer resultHandlerIndex;
@@ -286,6 +317,8 @@ public class MapperMethod {
       this.returnsVoid = void.class.equals(this.returnType);
       this.returnsMany = (configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray());
       this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsPage = Page.class.equals(this.returnType);
+      this.returnsPrimitiveArray = PrimitiveArrayResultHandler.isSupported(this.returnType);
       this.mapKey = getMapKey(method);
       this.returnsMap = (this.mapKey != null);
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
@@ -337,6 +370,14 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    public boolean returnsPage() {
+      return returnsPage;
+    }
+
+    public boolean returnsPrimitiveArray() {
+      return returnsPrimitiveArray;
+    }
+
     private Integer getUniqueParamIndex(Method method, Class<?> paramType) {
       Integer index = null;
       final Class<?>[] argTypes = method.getParameterTypes();
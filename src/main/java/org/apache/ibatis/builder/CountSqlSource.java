@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.SqlClauses;
+
+/**
+ * Derives the count statement of a pageable select from the select's own SqlSource.
+ * The select is wrapped as a subquery of a COUNT(*) after dropping its trailing ORDER BY.
+ *
+ * @since 3.4.5
+ */
+public class CountSqlSource implements SqlSource {
+
+  public static final String COUNT_SUFFIX = "!count";
+
+  private final SqlSource sqlSource;
+
+  public CountSqlSource(SqlSource sqlSource) {
+    this.sqlSource = sqlSource;
+  }
+
+  public SqlSource getSqlSource() {
+    return sqlSource;
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
+    return boundSql.withSql(getCountSql(boundSql.getSql()));
+  }
+
+  public static String getCountSql(String sql) {
+    return "SELECT COUNT(*) FROM (" + SqlClauses.removeOrderBy(sql) + ") COUNT_";
+  }
+
+}
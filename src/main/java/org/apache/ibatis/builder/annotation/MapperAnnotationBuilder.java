@@ -61,6 +61,7 @@ import org.apache.ibatis.annotations.UpdateProvider;
 import org.apache.ibatis.binding.BindingException;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.CountSqlSource;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
@@ -69,6 +70,7 @@ import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.executor.keygen.SequenceKeyGenerator;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.FetchType;
@@ -83,6 +85,7 @@ import org.apache.ibatis.parsing.PropertyParser;
 import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.Page;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.JdbcType;
@@ -373,6 +376,12 @@ public class MapperAnnotationBuilder {
           languageDriver,
           // ResultSets
           options != null ? nullOrEmpty(options.resultSets()) : null);
+
+      if (isSelect && (Page.class.equals(method.getReturnType()) || (options != null && options.pageable()))) {
+        assistant.addMappedStatement(mappedStatementId + CountSqlSource.COUNT_SUFFIX, new CountSqlSource(sqlSource),
+            statementType, sqlCommandType, null, timeout, null, parameterTypeClass, null, Long.class,
+            ResultSetType.FORWARD_ONLY, false, useCache, false, NoKeyGenerator.INSTANCE, null, null, null, languageDriver, null);
+      }
     }
   }
   
@@ -419,7 +428,7 @@ public class MapperAnnotationBuilder {
     } else if (resolvedReturnType instanceof ParameterizedType) {
       ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
       Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType) || Page.class.equals(rawType)) {
         Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
           Type returnTypeParameter = actualTypeArguments[0];
@@ -427,7 +436,14 @@ public class MapperAnnotationBuilder {
             returnType = (Class<?>) returnTypeParameter;
           } else if (returnTypeParameter instanceof ParameterizedType) {
             // (gcode issue #443) actual type can be a also a parameterized type
-            returnType = (Class<?>) ((ParameterizedType) returnTypeParameter).getRawType();
+            ParameterizedType parameterizedReturnType = (ParameterizedType) returnTypeParameter;
+            returnType = (Class<?>) parameterizedReturnType.getRawType();
+            // a cursor of keyset pages, e.g. Cursor<List<E>>, maps the elements of the pages
+            Type pageElementType = parameterizedReturnType.getActualTypeArguments()[0];
+            if (Cursor.class.isAssignableFrom(rawType) && Collection.class.isAssignableFrom(returnType)
+                && pageElementType instanceof Class<?>) {
+              returnType = (Class<?>) pageElementType;
+            }
           } else if (returnTypeParameter instanceof GenericArrayType) {
             Class<?> componentType = (Class<?>) ((GenericArrayType) returnTypeParameter).getGenericComponentType();
             // (gcode issue #525) support List<byte[]>
@@ -547,7 +563,9 @@ public class MapperAnnotationBuilder {
           flags,
           null,
           null,
-          isLazy(result));
+          isLazy(result),
+          batchSelectId(result),
+          batchKey(result));
       resultMappings.add(resultMapping);
     }
   }
@@ -563,6 +581,28 @@ public class MapperAnnotationBuilder {
     return nestedSelect;
   }
 
+  private String batchSelectId(Result result) {
+    String batchSelect = result.one().batchSelect();
+    if (batchSelect.length() < 1) {
+      batchSelect = result.many().batchSelect();
+    }
+    if (batchSelect.length() < 1) {
+      return null;
+    }
+    if (!batchSelect.contains(".")) {
+      batchSelect = type.getName() + "." + batchSelect;
+    }
+    return batchSelect;
+  }
+
+  private String batchKey(Result result) {
+    String batchKey = result.one().batchKey();
+    if (batchKey.length() < 1) {
+      batchKey = result.many().batchKey();
+    }
+    return nullOrEmpty(batchKey);
+  }
+
   private boolean isLazy(Result result) {
     boolean isLazy = configuration.isLazyLoadingEnabled();
     if (result.one().select().length() > 0 && FetchType.DEFAULT != result.one().fetchType()) {
@@ -649,7 +689,15 @@ public class MapperAnnotationBuilder {
     id = assistant.applyCurrentNamespace(id, false);
 
     MappedStatement keyStatement = configuration.getMappedStatement(id, false);
-    SelectKeyGenerator answer = new SelectKeyGenerator(keyStatement, executeBefore);
+    KeyGenerator answer;
+    if (selectKeyAnnotation.allocationSize() > 0) {
+      if (!executeBefore) {
+        throw new BuilderException("The @SelectKey of '" + id + "' sets an allocationSize, before must be true.");
+      }
+      answer = new SequenceKeyGenerator(keyStatement, selectKeyAnnotation.allocationSize(), selectKeyAnnotation.optimizer());
+    } else {
+      answer = new SelectKeyGenerator(keyStatement, executeBefore);
+    }
     configuration.addKeyGenerator(id, answer);
     return answer;
   }
@@ -19,11 +19,14 @@ import java.util.List;
 import java.util.Locale;
 
 import org.apache.ibatis.builder.BaseBuilder;
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.CountSqlSource;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.executor.keygen.SequenceKeyGenerator;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.SqlCommandType;
@@ -110,6 +113,13 @@ public class XMLStatementBuilder extends BaseBuilder {
         fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass,
         resultSetTypeEnum, flushCache, useCache, resultOrdered, 
         keyGenerator, keyProperty, keyColumn, databaseId, langDriver, resultSets);
+
+    if (isSelect && context.getBooleanAttribute("pageable", false)) {
+      builderAssistant.addMappedStatement(id + CountSqlSource.COUNT_SUFFIX, new CountSqlSource(sqlSource), statementType, sqlCommandType,
+          null, timeout, parameterMap, parameterTypeClass, null, Long.class,
+          ResultSetType.FORWARD_ONLY, false, useCache, false,
+          NoKeyGenerator.INSTANCE, null, null, databaseId, langDriver, null);
+    }
   }
 
   private void processSelectKeyNodes(String id, Class<?> parameterTypeClass, LanguageDriver langDriver) {
@@ -138,6 +148,8 @@ public class XMLStatementBuilder extends BaseBuilder {
     String keyProperty = nodeToHandle.getStringAttribute("keyProperty");
     String keyColumn = nodeToHandle.getStringAttribute("keyColumn");
     boolean executeBefore = "BEFORE".equals(nodeToHandle.getStringAttribute("order", "AFTER"));
+    Integer allocationSize = nodeToHandle.getIntAttribute("allocationSize");
+    SequenceKeyGenerator.Optimizer optimizer = SequenceKeyGenerator.Optimizer.valueOf(nodeToHandle.getStringAttribute("optimizer", SequenceKeyGenerator.Optimizer.POOLED.toString()));
 
     //defaults
     boolean useCache = false;
@@ -161,7 +173,14 @@ public class XMLStatementBuilder extends BaseBuilder {
     id = builderAssistant.applyCurrentNamespace(id, false);
 
     MappedStatement keyStatement = configuration.getMappedStatement(id, false);
-    configuration.addKeyGenerator(id, new SelectKeyGenerator(keyStatement, executeBefore));
+    if (allocationSize != null) {
+      if (!executeBefore) {
+        throw new BuilderException("The selectKey of '" + id + "' sets an allocationSize, its order must be BEFORE.");
+      }
+      configuration.addKeyGenerator(id, new SequenceKeyGenerator(keyStatement, allocationSize, optimizer));
+    } else {
+      configuration.addKeyGenerator(id, new SelectKeyGenerator(keyStatement, executeBefore));
+    }
   }
 
   private void removeSelectKeyNodes(List<XNode> selectKeyNodes) {
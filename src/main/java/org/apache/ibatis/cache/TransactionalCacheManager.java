@@ -51,6 +51,20 @@ public class TransactionalCacheManager {
     }
   }
 
+  public Map<Cache, TransactionalCache.Snapshot> snapshot() {
+    Map<Cache, TransactionalCache.Snapshot> snapshot = new HashMap<Cache, TransactionalCache.Snapshot>();
+    for (Map.Entry<Cache, TransactionalCache> entry : transactionalCaches.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return snapshot;
+  }
+
+  public void restore(Map<Cache, TransactionalCache.Snapshot> snapshot) {
+    for (Map.Entry<Cache, TransactionalCache> entry : transactionalCaches.entrySet()) {
+      entry.getValue().restore(snapshot.get(entry.getKey()));
+    }
+  }
+
   private TransactionalCache getTransactionalCache(Cache cache) {
     TransactionalCache txCache = transactionalCaches.get(cache);
     if (txCache == null) {
@@ -111,6 +111,29 @@ public class TransactionalCache implements Cache {
     reset();
   }
 
+  /*
+   * Captures the pending changes, so that they can be restored when the session rolls back to a savepoint
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(clearOnCommit, entriesToAddOnCommit);
+  }
+
+  /*
+   * Restores the pending changes captured by snapshot(). The missed entries are kept so that their
+   * locks are still released on commit or rollback.
+   *
+   * @param snapshot the pending changes or null to discard them all
+   */
+  public void restore(Snapshot snapshot) {
+    if (snapshot == null) {
+      clearOnCommit = false;
+      entriesToAddOnCommit.clear();
+    } else {
+      clearOnCommit = snapshot.clearOnCommit;
+      entriesToAddOnCommit = new HashMap<Object, Object>(snapshot.entriesToAddOnCommit);
+    }
+  }
+
   private void reset() {
     clearOnCommit = false;
     entriesToAddOnCommit.clear();
@@ -139,4 +162,15 @@ public class TransactionalCache implements Cache {
     }
   }
 
+  public static final class Snapshot {
+
+    private final boolean clearOnCommit;
+    private final Map<Object, Object> entriesToAddOnCommit;
+
+    private Snapshot(boolean clearOnCommit, Map<Object, Object> entriesToAddOnCommit) {
+      this.clearOnCommit = clearOnCommit;
+      this.entriesToAddOnCommit = new HashMap<Object, Object>(entriesToAddOnCommit);
+    }
+  }
+
 }
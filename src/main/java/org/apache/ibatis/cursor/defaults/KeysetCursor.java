@@ -0,0 +1,280 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.result.DefaultResultHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.SqlClauses;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.KeysetBounds;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * A cursor over the pages of a select, each page being queried with a keyset (seek) predicate
+ * on the key of the last row of the previous page.
+ *
+ * @since 3.4.5
+ */
+public class KeysetCursor<E> implements Cursor<List<E>> {
+
+  private static final String KEY_PARAMETER_PREFIX = "_keyset_";
+
+  private final Configuration configuration;
+  private final Executor executor;
+  private final MappedStatement ms;
+  private final MappedStatement pageMs;
+  private final Object parameter;
+  private final String[] keyColumns;
+  private final String[] keyProperties;
+  private final int pageSize;
+  private final Dialect dialect;
+
+  private final PageIterator pageIterator = new PageIterator();
+  private boolean iteratorRetrieved;
+
+  private CursorStatus status = CursorStatus.CREATED;
+  private Object[] lastKey;
+
+  private enum CursorStatus {
+    CREATED, OPEN, CLOSED, CONSUMED
+  }
+
+  public KeysetCursor(Configuration configuration, Executor executor, MappedStatement ms, Object parameter, KeysetBounds keysetBounds) {
+    if (ms.hasNestedResultMaps() || ms.getResultSets() != null) {
+      throw new ExecutorException("Mapped statement '" + ms.getId() + "' cannot be paged by keyset, "
+          + "its rows do not map one to one to results.");
+    }
+    // without a LIMIT each page would read all the remaining rows of the select on the database
+    this.dialect = configuration.getPagingDialect();
+    if (dialect == null) {
+      throw new ExecutorException("Mapped statement '" + ms.getId() + "' cannot be paged by keyset, "
+          + "no dialect is set or registered for the databaseId '" + configuration.getDatabaseId() + "'.");
+    }
+    this.configuration = configuration;
+    this.executor = executor;
+    this.ms = ms;
+    this.parameter = parameter;
+    this.keyColumns = keysetBounds.getKeyColumns();
+    this.keyProperties = keysetBounds.getKeyProperties();
+    this.pageSize = keysetBounds.getPageSize();
+    this.pageMs = createPageStatement();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return status == CursorStatus.OPEN;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return status == CursorStatus.CONSUMED;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return pageIterator.iteratorIndex;
+  }
+
+  @Override
+  public Iterator<List<E>> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    iteratorRetrieved = true;
+    return pageIterator;
+  }
+
+  @Override
+  public void close() {
+    if (status != CursorStatus.CONSUMED) {
+      status = CursorStatus.CLOSED;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  protected List<E> fetchNextPage() {
+    if (status == CursorStatus.CLOSED || status == CursorStatus.CONSUMED) {
+      return null;
+    }
+    status = CursorStatus.OPEN;
+    try {
+      // a result handler keeps the pages out of the caches, which would keep one entry per page
+      // of a scan that can be arbitrarily long
+      DefaultResultHandler resultHandler = new DefaultResultHandler(configuration.getObjectFactory());
+      executor.query(pageMs, parameter, RowBounds.DEFAULT, resultHandler);
+      List<E> page = (List<E>) resultHandler.getResultList();
+      if (page.size() < pageSize) {
+        status = CursorStatus.CONSUMED;
+      }
+      if (page.isEmpty()) {
+        return null;
+      }
+      lastKey = getKey(page.get(page.size() - 1));
+      return page;
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  /*
+   * The statement of the pages, which builds the SQL of the next page when the executor gets its BoundSql,
+   * so that the plugins of the executor see each page as a query of the statement.
+   */
+  private MappedStatement createPageStatement() {
+    SqlSource pageSqlSource = new SqlSource() {
+      @Override
+      public BoundSql getBoundSql(Object parameterObject) {
+        return getPageBoundSql(ms.getBoundSql(parameterObject));
+      }
+    };
+    MappedStatement.Builder builder = new MappedStatement.Builder(configuration, ms.getId(), pageSqlSource, ms.getSqlCommandType())
+        .resource(ms.getResource())
+        .fetchSize(ms.getFetchSize())
+        .timeout(ms.getTimeout())
+        .statementType(ms.getStatementType())
+        .resultSetType(ms.getResultSetType())
+        .parameterMap(ms.getParameterMap())
+        .resultMaps(ms.getResultMaps())
+        .cache(ms.getCache())
+        .flushCacheRequired(ms.isFlushCacheRequired())
+        .useCache(ms.isUseCache())
+        .resultOrdered(ms.isResultOrdered())
+        .databaseId(ms.getDatabaseId())
+        .lang(ms.getLang());
+    return builder.build();
+  }
+
+  /*
+   * Wraps the select, seeks past the last key, orders by the key and limits the rows to the page size
+   * with the dialect, whatever the serverSidePaging setting. A composite key is compared as
+   * k1 >= ? AND (k1 > ? OR k1 = ? AND k2 > ?), which databases without row value comparisons support
+   * and whose leading term can still seek an index on k1.
+   */
+  private BoundSql getPageBoundSql(BoundSql boundSql) {
+    StringBuilder sql = new StringBuilder("SELECT * FROM (");
+    sql.append(SqlClauses.removeOrderBy(boundSql.getSql())).append(") KEYSET_");
+    List<ParameterMapping> parameterMappings = new ArrayList<ParameterMapping>(boundSql.getParameterMappings());
+    if (lastKey != null) {
+      for (int i = 0; i < lastKey.length; i++) {
+        boundSql.setAdditionalParameter(KEY_PARAMETER_PREFIX + i, lastKey[i]);
+      }
+      sql.append(" WHERE ");
+      if (keyColumns.length > 1) {
+        sql.append(keyColumns[0]).append(" >= ? AND (");
+        parameterMappings.add(getKeyParameterMapping(0));
+      }
+      for (int i = 0; i < keyColumns.length; i++) {
+        if (i > 0) {
+          sql.append(" OR ");
+        }
+        for (int j = 0; j < i; j++) {
+          sql.append(keyColumns[j]).append(" = ? AND ");
+          parameterMappings.add(getKeyParameterMapping(j));
+        }
+        sql.append(keyColumns[i]).append(" > ?");
+        parameterMappings.add(getKeyParameterMapping(i));
+      }
+      if (keyColumns.length > 1) {
+        sql.append(")");
+      }
+    }
+    sql.append(" ORDER BY ");
+    for (int i = 0; i < keyColumns.length; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(keyColumns[i]);
+    }
+    String pagedSql = dialect.getPagedSql(sql.toString(), RowBounds.NO_ROW_OFFSET, pageSize);
+    if (pagedSql == null) {
+      // the pages would not be limited and the first one would read all the rows of the select
+      throw new ExecutorException("Mapped statement '" + ms.getId() + "' cannot be paged by keyset, "
+          + "the dialect cannot limit its pages to " + pageSize + " rows.");
+    }
+    return boundSql.withSql(pagedSql, parameterMappings);
+  }
+
+  private ParameterMapping getKeyParameterMapping(int index) {
+    return new ParameterMapping.Builder(configuration, KEY_PARAMETER_PREFIX + index, lastKey[index].getClass()).build();
+  }
+
+  private Object[] getKey(Object result) {
+    MetaObject metaObject = configuration.newMetaObject(result);
+    Object[] key = new Object[keyProperties.length];
+    for (int i = 0; i < keyProperties.length; i++) {
+      key[i] = metaObject.getValue(keyProperties[i]);
+      if (key[i] == null) {
+        throw new ExecutorException("Mapped statement '" + ms.getId() + "' cannot be paged by keyset, "
+            + "the key property '" + keyProperties[i] + "' of a result is null.");
+      }
+    }
+    return key;
+  }
+
+  private class PageIterator implements Iterator<List<E>> {
+
+    List<E> page;
+
+    int iteratorIndex = -1;
+
+    @Override
+    public boolean hasNext() {
+      if (page == null) {
+        page = fetchNextPage();
+      }
+      return page != null;
+    }
+
+    @Override
+    public List<E> next() {
+      List<E> next = page;
+
+      if (next == null) {
+        next = fetchNextPage();
+      }
+
+      if (next != null) {
+        page = null;
+        iteratorIndex++;
+        return next;
+      }
+      throw new NoSuchElementException();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+  }
+
+}
@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * The last known auto-commit, isolation, read-only, catalog and schema settings of a real connection.
+ * <p>
+ * The pooled connection skips the driver calls that would not change anything and answers the getters
+ * from here, saving a round trip with most drivers. A null value means the setting is not known yet.
+ * Settings changed with SQL statements (e.g. <code>SET TRANSACTION</code>) are not seen, so they should
+ * be changed through the JDBC API instead.
+ */
+final class ConnectionState {
+
+  Boolean autoCommit;
+  Integer transactionIsolation;
+  Boolean readOnly;
+  boolean catalogKnown;
+  String catalog;
+  boolean schemaKnown;
+  String schema;
+
+}
@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * A fixed size histogram of non negative long values.
+ * <p>
+ * Values are counted in logarithmic buckets, each power of two being split into 8 linear sub-buckets,
+ * so recorded values are reported with a relative error below 12.5% while the histogram never grows.
+ */
+public class PoolHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+  private final long[] counts = new long[(64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT];
+  private long count;
+  private long sum;
+  private long max;
+
+  public synchronized void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts[indexOf(value)]++;
+    count++;
+    sum += value;
+    if (value > max) {
+      max = value;
+    }
+  }
+
+  public synchronized long getCount() {
+    return count;
+  }
+
+  public synchronized long getMean() {
+    return count == 0 ? 0 : sum / count;
+  }
+
+  public synchronized long getMax() {
+    return max;
+  }
+
+  /*
+   * Returns the smallest recorded bucket bound that is greater or equal to the given
+   * percentage of all recorded values.
+   *
+   * @param percentile - a value between 0 and 100
+   * @return the value at the percentile or 0 if nothing was recorded
+   */
+  public synchronized long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long threshold = (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+    if (threshold < 1) {
+      threshold = 1;
+    }
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= threshold) {
+        return Math.min(upperBoundOf(i), max);
+      }
+    }
+    return max;
+  }
+
+  public synchronized void reset() {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = 0;
+    }
+    count = 0;
+    sum = 0;
+    max = 0;
+  }
+
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & SUB_BUCKET_MASK;
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  private static long upperBoundOf(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long lowerBound = ((long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT)) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "count=" + count + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(50)
+        + ", p99=" + getValueAtPercentile(99) + ", max=" + max;
+  }
+
+}
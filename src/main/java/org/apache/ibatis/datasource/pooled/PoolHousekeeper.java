@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Runs the periodic maintenance of a {@link PooledDataSource} on a daemon thread,
+ * so that idle connections are validated out of band instead of during checkout.
+ * <p>
+ * The data source is only weakly referenced: once it has been garbage collected
+ * the housekeeper stops by itself.
+ */
+class PoolHousekeeper {
+
+  private static final Log log = LogFactory.getLog(PoolHousekeeper.class);
+
+  private static final AtomicInteger threadNumber = new AtomicInteger();
+
+  private final ScheduledExecutorService executor;
+
+  public PoolHousekeeper(PooledDataSource dataSource, long interval) {
+    final WeakReference<PooledDataSource> dataSourceRef = new WeakReference<PooledDataSource>(dataSource);
+    this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "mybatis-pool-housekeeper-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.executor.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        PooledDataSource ds = dataSourceRef.get();
+        if (ds == null) {
+          executor.shutdown();
+          return;
+        }
+        try {
+          ds.housekeep();
+        } catch (Throwable t) {
+          // an exception would cancel all subsequent runs
+          log.warn("Pool housekeeping failed: " + t.getMessage());
+        }
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+}
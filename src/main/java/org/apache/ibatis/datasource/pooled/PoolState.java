@@ -21,7 +21,7 @@ import java.util.List;
 /**
  * @author Clinton Begin
  */
-public class PoolState {
+public class PoolState implements PoolStateMXBean {
 
   protected PooledDataSource dataSource;
 
@@ -35,11 +35,20 @@ public class PoolState {
   protected long accumulatedWaitTime = 0;
   protected long hadToWaitCount = 0;
   protected long badConnectionCount = 0;
+  protected long waitTimeoutCount = 0;
+  protected long leakedConnectionCount = 0;
+  protected long timedOutRequestCount = 0;
+  protected long rejectedRequestCount = 0;
+  protected int pendingRequestCount = 0;
+  protected int validatingConnectionCount = 0;
+  protected final PoolHistogram requestTimeHistogram = new PoolHistogram();
+  protected final PoolHistogram checkoutTimeHistogram = new PoolHistogram();
 
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
   }
 
+  @Override
   public synchronized long getRequestCount() {
     return requestCount;
   }
@@ -53,14 +62,106 @@ public class PoolState {
 
   }
 
+  @Override
   public synchronized long getHadToWaitCount() {
     return hadToWaitCount;
   }
 
+  @Override
+  public synchronized long getWaitTimeoutCount() {
+    return waitTimeoutCount;
+  }
+
+  @Override
+  public synchronized long getTimedOutRequestCount() {
+    return timedOutRequestCount;
+  }
+
+  @Override
+  public synchronized long getRejectedRequestCount() {
+    return rejectedRequestCount;
+  }
+
+  @Override
+  public synchronized long getLeakedConnectionCount() {
+    return leakedConnectionCount;
+  }
+
+  @Override
+  public synchronized int getPendingRequestCount() {
+    return pendingRequestCount;
+  }
+
+  /*
+   * Distribution of the time spent obtaining a connection, in microseconds
+   */
+  public PoolHistogram getRequestTimeHistogram() {
+    return requestTimeHistogram;
+  }
+
+  /*
+   * Distribution of the time connections were checked out, in milliseconds
+   */
+  public PoolHistogram getCheckoutTimeHistogram() {
+    return checkoutTimeHistogram;
+  }
+
+  @Override
+  public long getRequestTimeMeanMicros() {
+    return requestTimeHistogram.getMean();
+  }
+
+  @Override
+  public long getRequestTimeP50Micros() {
+    return requestTimeHistogram.getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getRequestTimeP95Micros() {
+    return requestTimeHistogram.getValueAtPercentile(95);
+  }
+
+  @Override
+  public long getRequestTimeP99Micros() {
+    return requestTimeHistogram.getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getRequestTimeMaxMicros() {
+    return requestTimeHistogram.getMax();
+  }
+
+  @Override
+  public long getCheckoutTimeMeanMillis() {
+    return checkoutTimeHistogram.getMean();
+  }
+
+  @Override
+  public long getCheckoutTimeP50Millis() {
+    return checkoutTimeHistogram.getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getCheckoutTimeP95Millis() {
+    return checkoutTimeHistogram.getValueAtPercentile(95);
+  }
+
+  @Override
+  public long getCheckoutTimeP99Millis() {
+    return checkoutTimeHistogram.getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getCheckoutTimeMaxMillis() {
+    return checkoutTimeHistogram.getMax();
+  }
+
+  @Override
   public synchronized long getBadConnectionCount() {
     return badConnectionCount;
   }
 
+  @Override
   public synchronized long getClaimedOverdueConnectionCount() {
     return claimedOverdueConnectionCount;
   }
@@ -73,11 +174,12 @@ public class PoolState {
     return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
   }
 
-
+  @Override
   public synchronized int getIdleConnectionCount() {
     return idleConnections.size();
   }
 
+  @Override
   public synchronized int getActiveConnectionCount() {
     return activeConnections.size();
   }
@@ -92,11 +194,19 @@ public class PoolState {
     builder.append("\n jdbcPassword                   ").append((dataSource.getPassword() == null ? "NULL" : "************"));
     builder.append("\n poolMaxActiveConnections       ").append(dataSource.poolMaximumActiveConnections);
     builder.append("\n poolMaxIdleConnections         ").append(dataSource.poolMaximumIdleConnections);
+    builder.append("\n poolMinIdleConnections         ").append(dataSource.poolMinimumIdleConnections);
     builder.append("\n poolMaxCheckoutTime            ").append(dataSource.poolMaximumCheckoutTime);
     builder.append("\n poolTimeToWait                 ").append(dataSource.poolTimeToWait);
+    builder.append("\n poolConnectionTimeout          ").append(dataSource.poolConnectionTimeout);
+    builder.append("\n poolMaxPendingRequests         ").append(dataSource.poolMaximumPendingRequests);
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolHousekeepingInterval       ").append(dataSource.poolHousekeepingInterval);
+    builder.append("\n poolMaximumLifetime            ").append(dataSource.poolMaximumLifetime);
+    builder.append("\n poolIdleTimeout                ").append(dataSource.poolIdleTimeout);
+    builder.append("\n poolLeakDetectionThreshold     ").append(dataSource.poolLeakDetectionThreshold);
+    builder.append("\n poolPreparedStatementCacheSize ").append(dataSource.poolPreparedStatementCacheSize);
     builder.append("\n ---STATUS-----------------------------------------------------");
     builder.append("\n activeConnections              ").append(getActiveConnectionCount());
     builder.append("\n idleConnections                ").append(getIdleConnectionCount());
@@ -108,6 +218,13 @@ public class PoolState {
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n pendingRequests                ").append(getPendingRequestCount());
+    builder.append("\n waitTimeouts                   ").append(getWaitTimeoutCount());
+    builder.append("\n timedOutRequests               ").append(getTimedOutRequestCount());
+    builder.append("\n rejectedRequests               ").append(getRejectedRequestCount());
+    builder.append("\n leakedConnections              ").append(getLeakedConnectionCount());
+    builder.append("\n requestTimeMicros              ").append(requestTimeHistogram);
+    builder.append("\n checkoutTimeMillis             ").append(checkoutTimeHistogram);
     builder.append("\n===============================================================");
     return builder.toString();
   }
@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * JMX view of the {@link PoolState} of a {@link PooledDataSource}.
+ * <p>
+ * Request times (the time spent obtaining a connection) are in microseconds,
+ * checkout times (the time a connection was held by the application) are in milliseconds.
+ *
+ * @see PooledDataSource#setPoolJmxName(String)
+ */
+public interface PoolStateMXBean {
+
+  int getActiveConnectionCount();
+
+  int getIdleConnectionCount();
+
+  int getPendingRequestCount();
+
+  long getRequestCount();
+
+  long getHadToWaitCount();
+
+  long getWaitTimeoutCount();
+
+  long getTimedOutRequestCount();
+
+  long getRejectedRequestCount();
+
+  long getBadConnectionCount();
+
+  long getLeakedConnectionCount();
+
+  long getClaimedOverdueConnectionCount();
+
+  long getRequestTimeMeanMicros();
+
+  long getRequestTimeP50Micros();
+
+  long getRequestTimeP95Micros();
+
+  long getRequestTimeP99Micros();
+
+  long getRequestTimeMaxMicros();
+
+  long getCheckoutTimeMeanMillis();
+
+  long getCheckoutTimeP50Millis();
+
+  long getCheckoutTimeP95Millis();
+
+  long getCheckoutTimeP99Millis();
+
+  long getCheckoutTimeMaxMillis();
+
+}
@@ -15,21 +15,13 @@
  */
 package org.apache.ibatis.datasource.pooled;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 
-import org.apache.ibatis.reflection.ExceptionUtil;
-
 /**
  * @author Clinton Begin
  */
-class PooledConnection implements InvocationHandler {
-
-  private static final String CLOSE = "close";
-  private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
+class PooledConnection {
 
   private int hashCode = 0;
   private PooledDataSource dataSource;
@@ -38,8 +30,13 @@ class PooledConnection implements InvocationHandler {
   private long checkoutTimestamp;
   private long createdTimestamp;
   private long lastUsedTimestamp;
+  private long lastValidatedTimestamp;
   private int connectionTypeCode;
   private boolean valid;
+  private Throwable checkoutTrace;
+  private boolean leakReported;
+  private PreparedStatementCache statementCache;
+  private ConnectionState state = new ConnectionState();
 
   /*
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in
@@ -54,7 +51,7 @@ class PooledConnection implements InvocationHandler {
     this.createdTimestamp = System.currentTimeMillis();
     this.lastUsedTimestamp = System.currentTimeMillis();
     this.valid = true;
-    this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
+    this.proxyConnection = new PooledConnectionProxy(this, connection);
   }
 
   /*
@@ -73,6 +70,15 @@ class PooledConnection implements InvocationHandler {
     return valid && realConnection != null && dataSource.pingConnection(this);
   }
 
+  /*
+   * Method to see if the connection has not been invalidated, without checking the real connection
+   *
+   * @return True if the connection was not invalidated
+   */
+  public boolean isValidReference() {
+    return valid;
+  }
+
   /*
    * Getter for the *real* connection that this wraps
    *
@@ -154,6 +160,33 @@ class PooledConnection implements InvocationHandler {
     this.lastUsedTimestamp = lastUsedTimestamp;
   }
 
+  /*
+   * Getter for the time that the connection was last validated in the background
+   *
+   * @return - the timestamp
+   */
+  public long getLastValidatedTimestamp() {
+    return lastValidatedTimestamp;
+  }
+
+  /*
+   * Setter for the time that the connection was last validated in the background
+   *
+   * @param lastValidatedTimestamp - the timestamp
+   */
+  public void setLastValidatedTimestamp(long lastValidatedTimestamp) {
+    this.lastValidatedTimestamp = lastValidatedTimestamp;
+  }
+
+  /*
+   * Getter for the time since this connection was last used or validated
+   *
+   * @return - the time since the last activity
+   */
+  public long getTimeElapsedSinceLastActivity() {
+    return System.currentTimeMillis() - Math.max(lastUsedTimestamp, lastValidatedTimestamp);
+  }
+
   /*
    * Getter for the time since this connection was last used
    *
@@ -199,6 +232,93 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - checkoutTimestamp;
   }
 
+  /*
+   * Getter for the stack trace recorded when the connection was checked out
+   *
+   * @return the stack trace or null if it was not sampled
+   */
+  public Throwable getCheckoutTrace() {
+    return checkoutTrace;
+  }
+
+  /*
+   * Setter for the stack trace recorded when the connection was checked out
+   *
+   * @param checkoutTrace the stack trace
+   */
+  public void setCheckoutTrace(Throwable checkoutTrace) {
+    this.checkoutTrace = checkoutTrace;
+  }
+
+  /*
+   * Getter for the flag telling that this checkout was already reported as a leak
+   *
+   * @return True if the leak was reported
+   */
+  public boolean isLeakReported() {
+    return leakReported;
+  }
+
+  /*
+   * Setter for the flag telling that this checkout was already reported as a leak
+   *
+   * @param leakReported - True if the leak was reported
+   */
+  public void setLeakReported(boolean leakReported) {
+    this.leakReported = leakReported;
+  }
+
+  /*
+   * Getter for the prepared statement cache of the real connection, created on first use
+   *
+   * @return the cache or null if statements are not cached
+   */
+  public PreparedStatementCache getStatementCache() {
+    if (statementCache == null && dataSource.poolPreparedStatementCacheSize > 0) {
+      statementCache = new PreparedStatementCache(dataSource.poolPreparedStatementCacheSize);
+    }
+    return statementCache;
+  }
+
+  /*
+   * Setter for the prepared statement cache, shared by all the PooledConnections of a real connection
+   *
+   * @param statementCache the cache
+   */
+  public void setStatementCache(PreparedStatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
+  /*
+   * Getter for the known settings of the real connection
+   *
+   * @return the settings
+   */
+  public ConnectionState getState() {
+    return state;
+  }
+
+  /*
+   * Setter for the known settings, shared by all the PooledConnections of a real connection
+   *
+   * @param state the settings
+   */
+  public void setState(ConnectionState state) {
+    this.state = state;
+  }
+
+  /*
+   * Gets the auto-commit mode of the real connection, asking the driver only if it is not known
+   *
+   * @return True if the real connection is in auto-commit mode
+   */
+  public boolean isAutoCommit() throws SQLException {
+    if (state.autoCommit == null) {
+      state.autoCommit = realConnection.getAutoCommit();
+    }
+    return state.autoCommit;
+  }
+
   @Override
   public int hashCode() {
     return hashCode;
@@ -222,37 +342,10 @@ class PooledConnection implements InvocationHandler {
   }
 
   /*
-   * Required for InvocationHandler implementation.
-   *
-   * @param proxy  - not used
-   * @param method - the method to be executed
-   * @param args   - the parameters to be passed to the method
-   * @see java.lang.reflect.InvocationHandler#invoke(Object, java.lang.reflect.Method, Object[])
+   * Returns the connection to the pool, called when the application closes the proxy
    */
-  @Override
-  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-    String methodName = method.getName();
-    if (CLOSE.hashCode() == methodName.hashCode() && CLOSE.equals(methodName)) {
-      dataSource.pushConnection(this);
-      return null;
-    } else {
-      try {
-        if (!Object.class.equals(method.getDeclaringClass())) {
-          // issue #579 toString() should never fail
-          // throw an SQLException instead of a Runtime
-          checkConnection();
-        }
-        return method.invoke(realConnection, args);
-      } catch (Throwable t) {
-        throw ExceptionUtil.unwrapThrowable(t);
-      }
-    }
-  }
-
-  private void checkConnection() throws SQLException {
-    if (!valid) {
-      throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
-    }
+  public void close() throws SQLException {
+    dataSource.pushConnection(this);
   }
 
 }
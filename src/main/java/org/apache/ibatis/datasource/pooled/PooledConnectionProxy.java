@@ -0,0 +1,484 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.Method;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * The connection handed out by the pool. Every call is delegated to the real connection,
+ * except close() which returns the connection to the pool.
+ * <p>
+ * This replaces a java.lang.reflect.Proxy so that JDBC calls are not dispatched reflectively.
+ * Only the methods added in JDBC 4.1 are invoked by reflection, as this class must compile on Java 6.
+ * <p>
+ * When the pool caches prepared statements, prepareStatement returns them from the cache of the real connection.
+ * <p>
+ * The auto-commit, isolation, read-only, catalog and schema settings are remembered in the {@link ConnectionState}
+ * of the real connection, so setting them to their current value does not reach the driver.
+ */
+final class PooledConnectionProxy implements Connection {
+
+  private static final int NO_GENERATED_KEYS = -1;
+
+  private final PooledConnection pooledConnection;
+  private final Connection realConnection;
+
+  public PooledConnectionProxy(PooledConnection pooledConnection, Connection realConnection) {
+    this.pooledConnection = pooledConnection;
+    this.realConnection = realConnection;
+  }
+
+  public PooledConnection getPooledConnection() {
+    return pooledConnection;
+  }
+
+  private Connection checkConnection() throws SQLException {
+    if (!pooledConnection.isValidReference()) {
+      throw new SQLException("Error accessing PooledConnection. Connection is invalid.");
+    }
+    return realConnection;
+  }
+
+  @Override
+  public void close() throws SQLException {
+    pooledConnection.close();
+  }
+
+  @Override
+  public Statement createStatement() throws SQLException {
+    return checkConnection().createStatement();
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql) throws SQLException {
+    PreparedStatementCache cache = pooledConnection.getStatementCache();
+    if (cache == null) {
+      return checkConnection().prepareStatement(sql);
+    }
+    return prepareCachedStatement(cache, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, 0, NO_GENERATED_KEYS);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql) throws SQLException {
+    return checkConnection().prepareCall(sql);
+  }
+
+  @Override
+  public String nativeSQL(String sql) throws SQLException {
+    return checkConnection().nativeSQL(sql);
+  }
+
+  @Override
+  public void setAutoCommit(boolean autoCommit) throws SQLException {
+    Connection connection = checkConnection();
+    ConnectionState state = pooledConnection.getState();
+    if (state.autoCommit == null || state.autoCommit != autoCommit) {
+      state.autoCommit = null;
+      connection.setAutoCommit(autoCommit);
+      state.autoCommit = autoCommit;
+    }
+  }
+
+  @Override
+  public boolean getAutoCommit() throws SQLException {
+    checkConnection();
+    return pooledConnection.isAutoCommit();
+  }
+
+  @Override
+  public void commit() throws SQLException {
+    checkConnection().commit();
+  }
+
+  @Override
+  public void rollback() throws SQLException {
+    checkConnection().rollback();
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return checkConnection().isClosed();
+  }
+
+  @Override
+  public DatabaseMetaData getMetaData() throws SQLException {
+    return checkConnection().getMetaData();
+  }
+
+  @Override
+  public void setReadOnly(boolean readOnly) throws SQLException {
+    Connection connection = checkConnection();
+    ConnectionState state = pooledConnection.getState();
+    if (state.readOnly == null || state.readOnly != readOnly) {
+      state.readOnly = null;
+      connection.setReadOnly(readOnly);
+      state.readOnly = readOnly;
+    }
+  }
+
+  @Override
+  public boolean isReadOnly() throws SQLException {
+    Connection connection = checkConnection();
+    ConnectionState state = pooledConnection.getState();
+    if (state.readOnly == null) {
+      state.readOnly = connection.isReadOnly();
+    }
+    return state.readOnly;
+  }
+
+  @Override
+  public void setCatalog(String catalog) throws SQLException {
+    Connection connection = checkConnection();
+    ConnectionState state = pooledConnection.getState();
+    if (!state.catalogKnown || !isSame(state.catalog, catalog)) {
+      state.catalogKnown = false;
+      connection.setCatalog(catalog);
+      state.catalog = catalog;
+      state.catalogKnown = true;
+    }
+  }
+
+  @Override
+  public String getCatalog() throws SQLException {
+    Connection connection = checkConnection();
+    ConnectionState state = pooledConnection.getState();
+    if (!state.catalogKnown) {
+      state.catalog = connection.getCatalog();
+      state.catalogKnown = true;
+    }
+    return state.catalog;
+  }
+
+  @Override
+  public void setTransactionIsolation(int level) throws SQLException {
+    Connection connection = checkConnection();
+    ConnectionState state = pooledConnection.getState();
+    if (state.transactionIsolation == null || state.transactionIsolation != level) {
+      state.transactionIsolation = null;
+      connection.setTransactionIsolation(level);
+      state.transactionIsolation = level;
+    }
+  }
+
+  @Override
+  public int getTransactionIsolation() throws SQLException {
+    Connection connection = checkConnection();
+    ConnectionState state = pooledConnection.getState();
+    if (state.transactionIsolation == null) {
+      state.transactionIsolation = connection.getTransactionIsolation();
+    }
+    return state.transactionIsolation;
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    return checkConnection().getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    checkConnection().clearWarnings();
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+    return checkConnection().createStatement(resultSetType, resultSetConcurrency);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    PreparedStatementCache cache = pooledConnection.getStatementCache();
+    if (cache == null) {
+      return checkConnection().prepareStatement(sql, resultSetType, resultSetConcurrency);
+    }
+    return prepareCachedStatement(cache, sql, resultSetType, resultSetConcurrency, 0, NO_GENERATED_KEYS);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    return checkConnection().prepareCall(sql, resultSetType, resultSetConcurrency);
+  }
+
+  @Override
+  public Map<String, Class<?>> getTypeMap() throws SQLException {
+    return checkConnection().getTypeMap();
+  }
+
+  @Override
+  public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+    checkConnection().setTypeMap(map);
+  }
+
+  @Override
+  public void setHoldability(int holdability) throws SQLException {
+    checkConnection().setHoldability(holdability);
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    return checkConnection().getHoldability();
+  }
+
+  @Override
+  public Savepoint setSavepoint() throws SQLException {
+    return checkConnection().setSavepoint();
+  }
+
+  @Override
+  public Savepoint setSavepoint(String name) throws SQLException {
+    return checkConnection().setSavepoint(name);
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) throws SQLException {
+    checkConnection().rollback(savepoint);
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+    checkConnection().releaseSavepoint(savepoint);
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    return checkConnection().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    PreparedStatementCache cache = pooledConnection.getStatementCache();
+    if (cache == null) {
+      return checkConnection().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+    return prepareCachedStatement(cache, sql, resultSetType, resultSetConcurrency, resultSetHoldability, NO_GENERATED_KEYS);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    return checkConnection().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+    PreparedStatementCache cache = pooledConnection.getStatementCache();
+    if (cache == null) {
+      return checkConnection().prepareStatement(sql, autoGeneratedKeys);
+    }
+    return prepareCachedStatement(cache, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, 0, autoGeneratedKeys);
+  }
+
+  private PreparedStatement prepareCachedStatement(PreparedStatementCache cache, String sql, int resultSetType,
+      int resultSetConcurrency, int resultSetHoldability, int autoGeneratedKeys) throws SQLException {
+    Connection connection = checkConnection();
+    PreparedStatementCache.Key key = new PreparedStatementCache.Key(sql, resultSetType, resultSetConcurrency,
+        resultSetHoldability, autoGeneratedKeys);
+    PreparedStatement statement = cache.take(key);
+    if (statement != null && statement.isClosed()) {
+      statement = null;
+    }
+    if (statement == null) {
+      if (autoGeneratedKeys != NO_GENERATED_KEYS) {
+        statement = connection.prepareStatement(sql, autoGeneratedKeys);
+      } else if (resultSetHoldability != 0) {
+        statement = connection.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+      } else {
+        statement = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+      }
+    }
+    return new PooledPreparedStatement(pooledConnection, cache, key, statement);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+    return checkConnection().prepareStatement(sql, columnIndexes);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+    return checkConnection().prepareStatement(sql, columnNames);
+  }
+
+  @Override
+  public Clob createClob() throws SQLException {
+    return checkConnection().createClob();
+  }
+
+  @Override
+  public Blob createBlob() throws SQLException {
+    return checkConnection().createBlob();
+  }
+
+  @Override
+  public NClob createNClob() throws SQLException {
+    return checkConnection().createNClob();
+  }
+
+  @Override
+  public SQLXML createSQLXML() throws SQLException {
+    return checkConnection().createSQLXML();
+  }
+
+  @Override
+  public boolean isValid(int timeout) throws SQLException {
+    return checkConnection().isValid(timeout);
+  }
+
+  @Override
+  public void setClientInfo(String name, String value) throws SQLClientInfoException {
+    if (!pooledConnection.isValidReference()) {
+      throw new SQLClientInfoException("Error accessing PooledConnection. Connection is invalid.", null);
+    }
+    realConnection.setClientInfo(name, value);
+  }
+
+  @Override
+  public void setClientInfo(Properties properties) throws SQLClientInfoException {
+    if (!pooledConnection.isValidReference()) {
+      throw new SQLClientInfoException("Error accessing PooledConnection. Connection is invalid.", null);
+    }
+    realConnection.setClientInfo(properties);
+  }
+
+  @Override
+  public String getClientInfo(String name) throws SQLException {
+    return checkConnection().getClientInfo(name);
+  }
+
+  @Override
+  public Properties getClientInfo() throws SQLException {
+    return checkConnection().getClientInfo();
+  }
+
+  @Override
+  public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+    return checkConnection().createArrayOf(typeName, elements);
+  }
+
+  @Override
+  public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+    return checkConnection().createStruct(typeName, attributes);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    return checkConnection().unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return checkConnection().isWrapperFor(iface);
+  }
+
+  // JDBC 4.1 (Java 7), cannot be annotated with @Override nor called directly on Java 6
+
+  public void setSchema(String schema) throws SQLException {
+    ConnectionState state = pooledConnection.getState();
+    if (!state.schemaKnown || !isSame(state.schema, schema)) {
+      state.schemaKnown = false;
+      invokeJdbc41("setSchema", new Class<?>[] { String.class }, schema);
+      state.schema = schema;
+      state.schemaKnown = true;
+    }
+  }
+
+  public String getSchema() throws SQLException {
+    ConnectionState state = pooledConnection.getState();
+    if (!state.schemaKnown) {
+      state.schema = (String) invokeJdbc41("getSchema", new Class<?>[0]);
+      state.schemaKnown = true;
+    }
+    return state.schema;
+  }
+
+  public void abort(Executor executor) throws SQLException {
+    invokeJdbc41("abort", new Class<?>[] { Executor.class }, executor);
+  }
+
+  public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+    invokeJdbc41("setNetworkTimeout", new Class<?>[] { Executor.class, int.class }, executor, milliseconds);
+  }
+
+  public int getNetworkTimeout() throws SQLException {
+    return (Integer) invokeJdbc41("getNetworkTimeout", new Class<?>[0]);
+  }
+
+  private Object invokeJdbc41(String methodName, Class<?>[] parameterTypes, Object... args) throws SQLException {
+    Connection connection = checkConnection();
+    Method method;
+    try {
+      method = Connection.class.getMethod(methodName, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new SQLFeatureNotSupportedException("Connection." + methodName + " requires JDBC 4.1.");
+    }
+    try {
+      return method.invoke(connection, args);
+    } catch (Exception e) {
+      Throwable cause = ExceptionUtil.unwrapThrowable(e);
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SQLException("Error invoking Connection." + methodName + ".  Cause: " + cause, cause);
+    }
+  }
+
+  private static boolean isSame(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  // issue #579 toString() should never fail, Object methods are not checked
+
+  @Override
+  public int hashCode() {
+    return realConnection.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return realConnection.equals(obj);
+  }
+
+  @Override
+  public String toString() {
+    return realConnection.toString();
+  }
+
+}
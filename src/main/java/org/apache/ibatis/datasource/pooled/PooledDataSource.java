@@ -16,16 +16,22 @@
 package org.apache.ibatis.datasource.pooled;
 
 import java.io.PrintWriter;
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
@@ -48,14 +54,31 @@ public class PooledDataSource implements DataSource {
   // OPTIONAL CONFIGURATION FIELDS
   protected int poolMaximumActiveConnections = 10;
   protected int poolMaximumIdleConnections = 5;
+  protected int poolMinimumIdleConnections;
   protected int poolMaximumCheckoutTime = 20000;
   protected int poolTimeToWait = 20000;
+  protected int poolConnectionTimeout;
+  protected int poolMaximumPendingRequests;
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected int poolHousekeepingInterval;
+  protected int poolMaximumLifetime;
+  protected int poolIdleTimeout;
+  protected int poolLeakDetectionThreshold;
+  protected int poolLeakDetectionSampleRate = 1;
+  protected int poolPreparedStatementCacheSize;
+  protected String poolJmxName;
 
   private int expectedConnectionTypeCode;
 
+  private PoolHousekeeper housekeeper;
+
+  // incremented by forceCloseAll, so that a housekeeping run started before does not put connections back
+  private int poolGeneration;
+
+  private ObjectName registeredObjectName;
+
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
   }
@@ -169,6 +192,16 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /*
+   * The number of idle connections the housekeeper keeps open
+   *
+   * @param poolMinimumIdleConnections The minimum number of idle connections
+   */
+  public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+    this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+    forceCloseAll();
+  }
+
   /*
    * The maximum time a connection can be used before it *may* be
    * given away again.
@@ -190,6 +223,28 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /*
+   * The maximum total time to wait for a connection before failing with a
+   * SQLTransientConnectionException
+   *
+   * @param milliseconds the maximum time, 0 means waiting until a connection is available
+   */
+  public void setPoolConnectionTimeout(int milliseconds) {
+    this.poolConnectionTimeout = milliseconds;
+    forceCloseAll();
+  }
+
+  /*
+   * The maximum number of requests waiting for a connection, further requests fail
+   * immediately with a SQLTransientConnectionException
+   *
+   * @param poolMaximumPendingRequests the maximum number of waiting requests, 0 means no limit
+   */
+  public void setPoolMaximumPendingRequests(int poolMaximumPendingRequests) {
+    this.poolMaximumPendingRequests = poolMaximumPendingRequests;
+    forceCloseAll();
+  }
+
   /*
    * The query to be used to check a connection
    *
@@ -221,6 +276,90 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /*
+   * If greater than zero, idle connections are validated every this many milliseconds
+   * by a background thread instead of during checkout. Broken connections are evicted and
+   * the others are kept alive. The ping query is used when enabled, Connection.isValid otherwise.
+   *
+   * @param milliseconds the number of milliseconds between two housekeeping runs
+   */
+  public void setPoolHousekeepingInterval(int milliseconds) {
+    this.poolHousekeepingInterval = milliseconds;
+    forceCloseAll();
+  }
+
+  /*
+   * The maximum age of a connection. Older connections are closed when they are returned to
+   * the pool or found idle, each one up to 2.5% earlier so that they are not all retired at once.
+   *
+   * @param milliseconds the maximum lifetime, 0 means connections are never retired
+   */
+  public void setPoolMaximumLifetime(int milliseconds) {
+    this.poolMaximumLifetime = milliseconds;
+    forceCloseAll();
+  }
+
+  /*
+   * Connections idle for longer than this are closed by the housekeeper,
+   * as long as more than poolMinimumIdleConnections are idle.
+   *
+   * @param milliseconds the idle timeout, 0 means idle connections are never closed
+   */
+  public void setPoolIdleTimeout(int milliseconds) {
+    this.poolIdleTimeout = milliseconds;
+    forceCloseAll();
+  }
+
+  /*
+   * Connections checked out for longer than this are reported as leaks by the housekeeper,
+   * or when they are claimed as overdue, along with the stack trace of their checkout.
+   *
+   * @param milliseconds the checkout time after which a connection is reported, 0 disables leak detection
+   */
+  public void setPoolLeakDetectionThreshold(int milliseconds) {
+    this.poolLeakDetectionThreshold = milliseconds;
+    forceCloseAll();
+  }
+
+  /*
+   * Records the checkout stack trace of one out of this many checkouts when leak detection is enabled,
+   * the other leaks are reported without it.
+   *
+   * @param poolLeakDetectionSampleRate 1 to record every checkout
+   */
+  public void setPoolLeakDetectionSampleRate(int poolLeakDetectionSampleRate) {
+    this.poolLeakDetectionSampleRate = poolLeakDetectionSampleRate;
+    forceCloseAll();
+  }
+
+  /*
+   * The number of prepared statements kept open per connection, so that they are reused across
+   * checkouts when the same SQL is prepared again. Statements closed by the application are reset
+   * and cached, the least recently used ones are closed.
+   *
+   * @param poolPreparedStatementCacheSize the maximum number of cached statements per connection, 0 disables the cache
+   */
+  public void setPoolPreparedStatementCacheSize(int poolPreparedStatementCacheSize) {
+    this.poolPreparedStatementCacheSize = poolPreparedStatementCacheSize;
+    forceCloseAll();
+  }
+
+  /*
+   * Registers the pool state in the platform MBean server under
+   * org.apache.ibatis.datasource.pooled:type=PooledDataSource,name=<name>.
+   * A previous registration is removed, a null name only unregisters. As the MBean server
+   * holds a reference to the pool, it should be unregistered, or the pool closed, when the pool is discarded.
+   *
+   * @param poolJmxName the name of the pool
+   */
+  public void setPoolJmxName(String poolJmxName) {
+    this.poolJmxName = poolJmxName;
+    unregisterMBean();
+    if (poolJmxName != null) {
+      registerMBean();
+    }
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -257,6 +396,10 @@ public class PooledDataSource implements DataSource {
     return poolMaximumIdleConnections;
   }
 
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
   public int getPoolMaximumCheckoutTime() {
     return poolMaximumCheckoutTime;
   }
@@ -265,6 +408,14 @@ public class PooledDataSource implements DataSource {
     return poolTimeToWait;
   }
 
+  public int getPoolConnectionTimeout() {
+    return poolConnectionTimeout;
+  }
+
+  public int getPoolMaximumPendingRequests() {
+    return poolMaximumPendingRequests;
+  }
+
   public String getPoolPingQuery() {
     return poolPingQuery;
   }
@@ -277,11 +428,42 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolHousekeepingInterval() {
+    return poolHousekeepingInterval;
+  }
+
+  public int getPoolMaximumLifetime() {
+    return poolMaximumLifetime;
+  }
+
+  public int getPoolIdleTimeout() {
+    return poolIdleTimeout;
+  }
+
+  public int getPoolLeakDetectionThreshold() {
+    return poolLeakDetectionThreshold;
+  }
+
+  public int getPoolLeakDetectionSampleRate() {
+    return poolLeakDetectionSampleRate;
+  }
+
+  public int getPoolPreparedStatementCacheSize() {
+    return poolPreparedStatementCacheSize;
+  }
+
+  public String getPoolJmxName() {
+    return poolJmxName;
+  }
+
   /*
-   * Closes all active and idle connections in the pool
+   * Closes all active and idle connections in the pool and stops the housekeeper,
+   * which is started again by the next checkout
    */
   public void forceCloseAll() {
     synchronized (state) {
+      stopHousekeeper();
+      poolGeneration++;
       expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
       for (int i = state.activeConnections.size(); i > 0; i--) {
         try {
@@ -317,6 +499,32 @@ public class PooledDataSource implements DataSource {
     }
   }
 
+  /*
+   * Closes all connections, stops the housekeeper and unregisters the pool state from JMX,
+   * so that nothing keeps the pool alive once it is discarded.
+   *
+   * @since 3.4.5
+   */
+  public void close() {
+    unregisterMBean();
+    forceCloseAll();
+  }
+
+  /*
+   * Opens connections until poolMinimumIdleConnections are idle and starts the housekeeper
+   * when it is enabled. Failures are logged, the pool is filled later on by the housekeeper.
+   */
+  public void warmUp() {
+    synchronized (state) {
+      startHousekeeper();
+    }
+    try {
+      fillPool();
+    } catch (SQLException e) {
+      log.warn("Could not prefill the pool: " + e.getMessage());
+    }
+  }
+
   public PoolState getPoolState() {
     return state;
   }
@@ -330,15 +538,19 @@ public class PooledDataSource implements DataSource {
     synchronized (state) {
       state.activeConnections.remove(conn);
       if (conn.isValid()) {
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode
+            && !isRetired(conn)) {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
-          if (!conn.getRealConnection().getAutoCommit()) {
+          state.checkoutTimeHistogram.record(conn.getCheckoutTime());
+          if (!conn.isAutoCommit()) {
             conn.getRealConnection().rollback();
           }
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+          newConn.setStatementCache(conn.getStatementCache());
+          newConn.setState(conn.getState());
           conn.invalidate();
           if (log.isDebugEnabled()) {
             log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
@@ -346,7 +558,8 @@ public class PooledDataSource implements DataSource {
           state.notifyAll();
         } else {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
-          if (!conn.getRealConnection().getAutoCommit()) {
+          state.checkoutTimeHistogram.record(conn.getCheckoutTime());
+          if (!conn.isAutoCommit()) {
             conn.getRealConnection().rollback();
           }
           conn.getRealConnection().close();
@@ -368,10 +581,12 @@ public class PooledDataSource implements DataSource {
     boolean countedWait = false;
     PooledConnection conn = null;
     long t = System.currentTimeMillis();
+    long startNanos = System.nanoTime();
     int localBadConnectionCount = 0;
 
     while (conn == null) {
       synchronized (state) {
+        startHousekeeper();
         if (!state.idleConnections.isEmpty()) {
           // Pool has available connection
           conn = state.idleConnections.remove(0);
@@ -380,7 +595,7 @@ public class PooledDataSource implements DataSource {
           }
         } else {
           // Pool does not have available connection
-          if (state.activeConnections.size() < poolMaximumActiveConnections) {
+          if (state.activeConnections.size() + state.validatingConnectionCount < poolMaximumActiveConnections) {
             // Can create new connection
             conn = new PooledConnection(dataSource.getConnection(), this);
             if (log.isDebugEnabled()) {
@@ -388,58 +603,105 @@ public class PooledDataSource implements DataSource {
             }
           } else {
             // Cannot create new connection
-            PooledConnection oldestActiveConnection = state.activeConnections.get(0);
-            long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
-            if (longestCheckoutTime > poolMaximumCheckoutTime) {
+            PooledConnection oldestActiveConnection = state.activeConnections.isEmpty() ? null : state.activeConnections.get(0);
+            if (oldestActiveConnection != null && oldestActiveConnection.getCheckoutTime() > poolMaximumCheckoutTime) {
               // Can claim overdue connection
+              long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
               state.claimedOverdueConnectionCount++;
               state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
               state.accumulatedCheckoutTime += longestCheckoutTime;
+              state.checkoutTimeHistogram.record(longestCheckoutTime);
               state.activeConnections.remove(oldestActiveConnection);
-              if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+              if (!oldestActiveConnection.isAutoCommit()) {
                 try {
                   oldestActiveConnection.getRealConnection().rollback();
                 } catch (SQLException e) {
                   log.debug("Bad connection. Could not roll back");
                 }  
               }
+              reportLeak(oldestActiveConnection);
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+              conn.setStatementCache(oldestActiveConnection.getStatementCache());
+              conn.setState(oldestActiveConnection.getState());
               oldestActiveConnection.invalidate();
               if (log.isDebugEnabled()) {
                 log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
               }
             } else {
               // Must wait
+              long timeToWait = poolTimeToWait;
+              if (poolConnectionTimeout > 0) {
+                long remaining = poolConnectionTimeout - (System.currentTimeMillis() - t);
+                if (remaining <= 0) {
+                  state.timedOutRequestCount++;
+                  if (log.isDebugEnabled()) {
+                    log.debug("PooledDataSource: Could not get a connection within " + poolConnectionTimeout + " milliseconds.");
+                  }
+                  throw new SQLTransientConnectionException("PooledDataSource: Could not get a connection within "
+                      + poolConnectionTimeout + " milliseconds.");
+                }
+                timeToWait = timeToWait > 0 ? Math.min(timeToWait, remaining) : remaining;
+              }
               try {
                 if (!countedWait) {
+                  // the limit applies when a request starts waiting, a woken request that waits again keeps its place
+                  if (poolMaximumPendingRequests > 0 && state.pendingRequestCount >= poolMaximumPendingRequests) {
+                    state.rejectedRequestCount++;
+                    if (log.isDebugEnabled()) {
+                      log.debug("PooledDataSource: Too many requests are already waiting for a connection.");
+                    }
+                    throw new SQLTransientConnectionException("PooledDataSource: Too many requests ("
+                        + state.pendingRequestCount + ") are already waiting for a connection.");
+                  }
                   state.hadToWaitCount++;
                   countedWait = true;
                 }
                 if (log.isDebugEnabled()) {
-                  log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+                  log.debug("Waiting as long as " + timeToWait + " milliseconds for connection.");
                 }
                 long wt = System.currentTimeMillis();
-                state.wait(poolTimeToWait);
-                state.accumulatedWaitTime += System.currentTimeMillis() - wt;
+                state.pendingRequestCount++;
+                try {
+                  state.wait(timeToWait);
+                } finally {
+                  state.pendingRequestCount--;
+                }
+                long waited = System.currentTimeMillis() - wt;
+                state.accumulatedWaitTime += waited;
+                if (timeToWait > 0 && waited >= timeToWait) {
+                  state.waitTimeoutCount++;
+                }
               } catch (InterruptedException e) {
                 break;
               }
             }
           }
         }
+        if (conn != null && isRetired(conn)) {
+          if (log.isDebugEnabled()) {
+            log.debug("Retired connection " + conn.getRealHashCode() + " after " + conn.getAge() + " milliseconds.");
+          }
+          closeRealConnection(conn);
+          conn = null;
+          continue;
+        }
         if (conn != null) {
           if (conn.isValid()) {
-            if (!conn.getRealConnection().getAutoCommit()) {
+            if (!conn.isAutoCommit()) {
               conn.getRealConnection().rollback();
             }
             conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
             conn.setCheckoutTimestamp(System.currentTimeMillis());
             conn.setLastUsedTimestamp(System.currentTimeMillis());
+            conn.setLeakReported(false);
+            conn.setCheckoutTrace(poolLeakDetectionThreshold > 0 && state.requestCount % Math.max(1, poolLeakDetectionSampleRate) == 0
+                ? new Exception("Connection " + conn.getRealHashCode() + " checked out here") : null);
             state.activeConnections.add(conn);
             state.requestCount++;
             state.accumulatedRequestTime += System.currentTimeMillis() - t;
+            state.requestTimeHistogram.record((System.nanoTime() - startNanos) / 1000);
           } else {
             if (log.isDebugEnabled()) {
               log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
@@ -487,41 +749,252 @@ public class PooledDataSource implements DataSource {
       result = false;
     }
 
-    if (result) {
-      if (poolPingEnabled) {
-        if (poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
-          try {
-            if (log.isDebugEnabled()) {
-              log.debug("Testing connection " + conn.getRealHashCode() + " ...");
-            }
-            Connection realConn = conn.getRealConnection();
-            Statement statement = realConn.createStatement();
-            ResultSet rs = statement.executeQuery(poolPingQuery);
-            rs.close();
-            statement.close();
-            if (!realConn.getAutoCommit()) {
-              realConn.rollback();
-            }
-            result = true;
-            if (log.isDebugEnabled()) {
-              log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
-            }
-          } catch (Exception e) {
-            log.warn("Execution of ping query '" + poolPingQuery + "' failed: " + e.getMessage());
-            try {
-              conn.getRealConnection().close();
-            } catch (Exception e2) {
-              //ignore
-            }
-            result = false;
-            if (log.isDebugEnabled()) {
-              log.debug("Connection " + conn.getRealHashCode() + " is BAD: " + e.getMessage());
-            }
+    if (result && poolPingEnabled && poolHousekeepingInterval <= 0) {
+      if (poolPingConnectionsNotUsedFor >= 0 && conn.getTimeElapsedSinceLastUse() > poolPingConnectionsNotUsedFor) {
+        result = executePingQuery(conn);
+      }
+    }
+    return result;
+  }
+
+  private boolean executePingQuery(PooledConnection conn) {
+    try {
+      if (log.isDebugEnabled()) {
+        log.debug("Testing connection " + conn.getRealHashCode() + " ...");
+      }
+      Connection realConn = conn.getRealConnection();
+      Statement statement = realConn.createStatement();
+      ResultSet rs = statement.executeQuery(poolPingQuery);
+      rs.close();
+      statement.close();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
+      }
+      return true;
+    } catch (Exception e) {
+      log.warn("Execution of ping query '" + poolPingQuery + "' failed: " + e.getMessage());
+      try {
+        conn.getRealConnection().close();
+      } catch (Exception e2) {
+        //ignore
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is BAD: " + e.getMessage());
+      }
+      return false;
+    }
+  }
+
+  /*
+   * Validates a connection outside of the checkout path, using the ping query when
+   * it is enabled and Connection.isValid otherwise.
+   *
+   * @param conn - the connection to check
+   * @return True if the connection is still usable
+   */
+  protected boolean validateConnection(PooledConnection conn) {
+    if (poolPingEnabled) {
+      return executePingQuery(conn);
+    }
+    try {
+      int timeoutSeconds = Math.max(1, poolHousekeepingInterval / 1000);
+      boolean result = conn.getRealConnection().isValid(timeoutSeconds);
+      if (!result && log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is BAD.");
+      }
+      return result;
+    } catch (SQLException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Connection " + conn.getRealHashCode() + " is BAD: " + e.getMessage());
+      }
+      return false;
+    } catch (AbstractMethodError e) {
+      log.warn("The driver does not support Connection.isValid(), set a poolPingQuery to validate idle connections.");
+      return true;
+    }
+  }
+
+  /*
+   * One run of the background maintenance: idle connections that reached their maximum lifetime
+   * or idle timeout are closed, the ones that have not been used or validated for
+   * poolPingConnectionsNotUsedFor milliseconds, and at least for one housekeeping interval, are taken
+   * out of the pool, validated without holding the pool lock and either returned or discarded.
+   * While they are validated they still count against poolMaximumActiveConnections, so that
+   * checkouts wait for them instead of opening extra connections. Then the pool is filled up to
+   * poolMinimumIdleConnections. Active connections held for longer than the leak detection
+   * threshold are reported.
+   */
+  void housekeep() throws SQLException {
+    List<PooledConnection> retired = new ArrayList<PooledConnection>();
+    List<PooledConnection> candidates = new ArrayList<PooledConnection>();
+    long validationAge = Math.max(poolPingConnectionsNotUsedFor, poolHousekeepingInterval);
+    int generation;
+    synchronized (state) {
+      generation = poolGeneration;
+      for (PooledConnection conn : state.activeConnections) {
+        reportLeak(conn);
+      }
+      for (Iterator<PooledConnection> it = state.idleConnections.iterator(); it.hasNext();) {
+        PooledConnection conn = it.next();
+        if (isRetired(conn) || (poolIdleTimeout > 0 && conn.getTimeElapsedSinceLastUse() > poolIdleTimeout
+            && state.idleConnections.size() > poolMinimumIdleConnections)) {
+          it.remove();
+          retired.add(conn);
+        } else if (conn.getTimeElapsedSinceLastActivity() >= validationAge) {
+          it.remove();
+          candidates.add(conn);
+          state.validatingConnectionCount++;
+        }
+      }
+    }
+    for (PooledConnection conn : retired) {
+      if (log.isDebugEnabled()) {
+        log.debug("Closed idle connection " + conn.getRealHashCode() + ".");
+      }
+      closeRealConnection(conn);
+    }
+    for (PooledConnection conn : candidates) {
+      boolean good = validateConnection(conn);
+      synchronized (state) {
+        state.validatingConnectionCount--;
+        state.notifyAll();
+        if (good && conn.isValid() && generation == poolGeneration && state.idleConnections.size() < poolMaximumIdleConnections) {
+          conn.setLastValidatedTimestamp(System.currentTimeMillis());
+          state.idleConnections.add(conn);
+          continue;
+        }
+        if (!good) {
+          if (log.isDebugEnabled()) {
+            log.debug("Evicted bad idle connection " + conn.getRealHashCode() + ".");
           }
+          state.badConnectionCount++;
         }
       }
+      closeRealConnection(conn);
+    }
+    fillPool();
+  }
+
+  /*
+   * Logs a connection held for longer than the leak detection threshold, once per checkout.
+   * Must be called while holding the pool lock.
+   */
+  private void reportLeak(PooledConnection conn) {
+    if (poolLeakDetectionThreshold <= 0 || conn.isLeakReported() || conn.getCheckoutTime() <= poolLeakDetectionThreshold) {
+      return;
+    }
+    conn.setLeakReported(true);
+    state.leakedConnectionCount++;
+    StringBuilder message = new StringBuilder();
+    message.append("Connection ").append(conn.getRealHashCode()).append(" has been checked out for ")
+        .append(conn.getCheckoutTime()).append(" milliseconds, it may have leaked.");
+    Throwable trace = conn.getCheckoutTrace();
+    if (trace != null) {
+      StringWriter writer = new StringWriter();
+      trace.printStackTrace(new PrintWriter(writer));
+      message.append(' ').append(writer);
+    }
+    log.warn(message.toString());
+  }
+
+  private void fillPool() throws SQLException {
+    int generation;
+    synchronized (state) {
+      generation = poolGeneration;
+    }
+    while (true) {
+      synchronized (state) {
+        int target = Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections);
+        if (state.idleConnections.size() >= target
+            || state.idleConnections.size() + state.activeConnections.size() + state.validatingConnectionCount
+                >= poolMaximumActiveConnections) {
+          return;
+        }
+      }
+      PooledConnection conn = new PooledConnection(dataSource.getConnection(), this);
+      synchronized (state) {
+        if (generation == poolGeneration
+            && state.idleConnections.size() < Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections)) {
+          state.idleConnections.add(conn);
+          state.notifyAll();
+          if (log.isDebugEnabled()) {
+            log.debug("Created idle connection " + conn.getRealHashCode() + ".");
+          }
+          continue;
+        }
+      }
+      closeRealConnection(conn);
+      return;
+    }
+  }
+
+  /*
+   * Checks the age of a connection against the maximum lifetime, shortened by a jitter derived
+   * from the connection itself so that it stays the same each time the connection is checked.
+   */
+  private boolean isRetired(PooledConnection conn) {
+    if (poolMaximumLifetime <= 0) {
+      return false;
+    }
+    int jitter = (conn.getRealHashCode() & Integer.MAX_VALUE) % (poolMaximumLifetime / 40 + 1);
+    return conn.getAge() > poolMaximumLifetime - jitter;
+  }
+
+  private void closeRealConnection(PooledConnection conn) {
+    conn.invalidate();
+    try {
+      Connection realConn = conn.getRealConnection();
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+      realConn.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  private void startHousekeeper() {
+    if (housekeeper == null && poolHousekeepingInterval > 0) {
+      housekeeper = new PoolHousekeeper(this, poolHousekeepingInterval);
+    }
+  }
+
+  private void registerMBean() {
+    try {
+      ObjectName objectName = new ObjectName("org.apache.ibatis.datasource.pooled:type=PooledDataSource,name="
+          + ObjectName.quote(poolJmxName));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+      server.registerMBean(state, objectName);
+      registeredObjectName = objectName;
+    } catch (Exception e) {
+      log.warn("Could not register the pool state of '" + poolJmxName + "' in JMX: " + e.getMessage());
+    }
+  }
+
+  private void unregisterMBean() {
+    if (registeredObjectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredObjectName);
+      } catch (Exception e) {
+        // ignore
+      }
+      registeredObjectName = null;
+    }
+  }
+
+  private void stopHousekeeper() {
+    synchronized (state) {
+      if (housekeeper != null) {
+        housekeeper.shutdown();
+        housekeeper = null;
+      }
     }
-    return result;
   }
 
   /*
@@ -531,11 +1004,8 @@ public class PooledDataSource implements DataSource {
    * @return The 'real' connection
    */
   public static Connection unwrapConnection(Connection conn) {
-    if (Proxy.isProxyClass(conn.getClass())) {
-      InvocationHandler handler = Proxy.getInvocationHandler(conn);
-      if (handler instanceof PooledConnection) {
-        return ((PooledConnection) handler).getRealConnection();
-      }
+    if (conn instanceof PooledConnectionProxy) {
+      return ((PooledConnectionProxy) conn).getPooledConnection().getRealConnection();
     }
     return conn;
   }
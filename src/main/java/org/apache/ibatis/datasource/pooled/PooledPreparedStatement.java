@@ -0,0 +1,698 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * The PreparedStatement handed out when the pool caches prepared statements. Every call is delegated
+ * to the real statement, except close() which closes the open result sets, resets the parameters and
+ * the settings the application changed, and puts the statement back in the {@link PreparedStatementCache}
+ * of its connection.
+ * <p>
+ * Like {@link PooledConnectionProxy}, this is a delegating class rather than a java.lang.reflect.Proxy so
+ * that JDBC calls are not dispatched reflectively. Only the methods added in JDBC 4.1 are invoked by
+ * reflection, as this class must compile on Java 6.
+ */
+final class PooledPreparedStatement implements PreparedStatement {
+
+  private final PooledConnection pooledConnection;
+  private final PreparedStatementCache cache;
+  private final PreparedStatementCache.Key key;
+  private final PreparedStatement statement;
+  private boolean closed;
+  private boolean batched;
+  private ResultSet resultSet;
+  private ResultSet generatedKeys;
+  private Integer originalFetchSize;
+  private Integer originalQueryTimeout;
+  private Integer originalMaxRows;
+  private Integer originalFetchDirection;
+  private Integer originalMaxFieldSize;
+  private boolean notReusable;
+
+  public PooledPreparedStatement(PooledConnection pooledConnection, PreparedStatementCache cache,
+      PreparedStatementCache.Key key, PreparedStatement statement) {
+    this.pooledConnection = pooledConnection;
+    this.cache = cache;
+    this.key = key;
+    this.statement = statement;
+  }
+
+  private PreparedStatement checkStatement() throws SQLException {
+    if (closed) {
+      throw new SQLException("Error accessing PooledPreparedStatement. Statement is closed.");
+    }
+    return statement;
+  }
+
+  private ResultSet track(ResultSet rs) {
+    resultSet = rs;
+    return rs;
+  }
+
+  @Override
+  public void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    // a connection claimed as overdue may already be used by someone else
+    if (notReusable || !pooledConnection.isValidReference()) {
+      PreparedStatementCache.closeQuietly(statement);
+      return;
+    }
+    try {
+      if (resultSet != null) {
+        resultSet.close();
+      }
+      if (generatedKeys != null) {
+        generatedKeys.close();
+      }
+      statement.clearParameters();
+      if (batched) {
+        statement.clearBatch();
+      }
+      statement.clearWarnings();
+      if (originalFetchSize != null) {
+        statement.setFetchSize(originalFetchSize);
+      }
+      if (originalQueryTimeout != null) {
+        statement.setQueryTimeout(originalQueryTimeout);
+      }
+      if (originalMaxRows != null) {
+        statement.setMaxRows(originalMaxRows);
+      }
+      if (originalFetchDirection != null) {
+        statement.setFetchDirection(originalFetchDirection);
+      }
+      if (originalMaxFieldSize != null) {
+        statement.setMaxFieldSize(originalMaxFieldSize);
+      }
+      cache.release(key, statement);
+    } catch (SQLException e) {
+      PreparedStatementCache.closeQuietly(statement);
+    } finally {
+      resultSet = null;
+      generatedKeys = null;
+    }
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return closed || statement.isClosed();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    checkStatement();
+    return pooledConnection.getProxyConnection();
+  }
+
+  @Override
+  public ResultSet executeQuery() throws SQLException {
+    return track(checkStatement().executeQuery());
+  }
+
+  @Override
+  public int executeUpdate() throws SQLException {
+    return checkStatement().executeUpdate();
+  }
+
+  @Override
+  public boolean execute() throws SQLException {
+    return checkStatement().execute();
+  }
+
+  @Override
+  public void addBatch() throws SQLException {
+    checkStatement().addBatch();
+    batched = true;
+  }
+
+  @Override
+  public void clearParameters() throws SQLException {
+    checkStatement().clearParameters();
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    return checkStatement().getMetaData();
+  }
+
+  @Override
+  public ParameterMetaData getParameterMetaData() throws SQLException {
+    return checkStatement().getParameterMetaData();
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    checkStatement().setNull(parameterIndex, sqlType);
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    checkStatement().setNull(parameterIndex, sqlType, typeName);
+  }
+
+  @Override
+  public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    checkStatement().setBoolean(parameterIndex, x);
+  }
+
+  @Override
+  public void setByte(int parameterIndex, byte x) throws SQLException {
+    checkStatement().setByte(parameterIndex, x);
+  }
+
+  @Override
+  public void setShort(int parameterIndex, short x) throws SQLException {
+    checkStatement().setShort(parameterIndex, x);
+  }
+
+  @Override
+  public void setInt(int parameterIndex, int x) throws SQLException {
+    checkStatement().setInt(parameterIndex, x);
+  }
+
+  @Override
+  public void setLong(int parameterIndex, long x) throws SQLException {
+    checkStatement().setLong(parameterIndex, x);
+  }
+
+  @Override
+  public void setFloat(int parameterIndex, float x) throws SQLException {
+    checkStatement().setFloat(parameterIndex, x);
+  }
+
+  @Override
+  public void setDouble(int parameterIndex, double x) throws SQLException {
+    checkStatement().setDouble(parameterIndex, x);
+  }
+
+  @Override
+  public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    checkStatement().setBigDecimal(parameterIndex, x);
+  }
+
+  @Override
+  public void setString(int parameterIndex, String x) throws SQLException {
+    checkStatement().setString(parameterIndex, x);
+  }
+
+  @Override
+  public void setNString(int parameterIndex, String value) throws SQLException {
+    checkStatement().setNString(parameterIndex, value);
+  }
+
+  @Override
+  public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    checkStatement().setBytes(parameterIndex, x);
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x) throws SQLException {
+    checkStatement().setDate(parameterIndex, x);
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+    checkStatement().setDate(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x) throws SQLException {
+    checkStatement().setTime(parameterIndex, x);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+    checkStatement().setTime(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+    checkStatement().setTimestamp(parameterIndex, x);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+    checkStatement().setTimestamp(parameterIndex, x, cal);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x) throws SQLException {
+    checkStatement().setObject(parameterIndex, x);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    checkStatement().setObject(parameterIndex, x, targetSqlType);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    checkStatement().setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+    checkStatement().setAsciiStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    checkStatement().setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    checkStatement().setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Deprecated
+  @Override
+  public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    checkStatement().setUnicodeStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+    checkStatement().setBinaryStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    checkStatement().setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    checkStatement().setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+    checkStatement().setCharacterStream(parameterIndex, reader);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+    checkStatement().setCharacterStream(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+    checkStatement().setCharacterStream(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+    checkStatement().setNCharacterStream(parameterIndex, value);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+    checkStatement().setNCharacterStream(parameterIndex, value, length);
+  }
+
+  @Override
+  public void setRef(int parameterIndex, Ref x) throws SQLException {
+    checkStatement().setRef(parameterIndex, x);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, Blob x) throws SQLException {
+    checkStatement().setBlob(parameterIndex, x);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+    checkStatement().setBlob(parameterIndex, inputStream);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+    checkStatement().setBlob(parameterIndex, inputStream, length);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Clob x) throws SQLException {
+    checkStatement().setClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader) throws SQLException {
+    checkStatement().setClob(parameterIndex, reader);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    checkStatement().setClob(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, NClob value) throws SQLException {
+    checkStatement().setNClob(parameterIndex, value);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+    checkStatement().setNClob(parameterIndex, reader);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+    checkStatement().setNClob(parameterIndex, reader, length);
+  }
+
+  @Override
+  public void setArray(int parameterIndex, Array x) throws SQLException {
+    checkStatement().setArray(parameterIndex, x);
+  }
+
+  @Override
+  public void setURL(int parameterIndex, URL x) throws SQLException {
+    checkStatement().setURL(parameterIndex, x);
+  }
+
+  @Override
+  public void setRowId(int parameterIndex, RowId x) throws SQLException {
+    checkStatement().setRowId(parameterIndex, x);
+  }
+
+  @Override
+  public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+    checkStatement().setSQLXML(parameterIndex, xmlObject);
+  }
+
+  @Override
+  public ResultSet executeQuery(String sql) throws SQLException {
+    return track(checkStatement().executeQuery(sql));
+  }
+
+  @Override
+  public int executeUpdate(String sql) throws SQLException {
+    return checkStatement().executeUpdate(sql);
+  }
+
+  @Override
+  public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    return checkStatement().executeUpdate(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    return checkStatement().executeUpdate(sql, columnIndexes);
+  }
+
+  @Override
+  public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+    return checkStatement().executeUpdate(sql, columnNames);
+  }
+
+  @Override
+  public boolean execute(String sql) throws SQLException {
+    return checkStatement().execute(sql);
+  }
+
+  @Override
+  public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+    return checkStatement().execute(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+    return checkStatement().execute(sql, columnIndexes);
+  }
+
+  @Override
+  public boolean execute(String sql, String[] columnNames) throws SQLException {
+    return checkStatement().execute(sql, columnNames);
+  }
+
+  @Override
+  public void addBatch(String sql) throws SQLException {
+    checkStatement().addBatch(sql);
+    batched = true;
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    checkStatement().clearBatch();
+  }
+
+  @Override
+  public int[] executeBatch() throws SQLException {
+    return checkStatement().executeBatch();
+  }
+
+  @Override
+  public ResultSet getResultSet() throws SQLException {
+    return track(checkStatement().getResultSet());
+  }
+
+  @Override
+  public ResultSet getGeneratedKeys() throws SQLException {
+    generatedKeys = checkStatement().getGeneratedKeys();
+    return generatedKeys;
+  }
+
+  @Override
+  public int getUpdateCount() throws SQLException {
+    return checkStatement().getUpdateCount();
+  }
+
+  @Override
+  public boolean getMoreResults() throws SQLException {
+    return checkStatement().getMoreResults();
+  }
+
+  @Override
+  public boolean getMoreResults(int current) throws SQLException {
+    return checkStatement().getMoreResults(current);
+  }
+
+  @Override
+  public int getMaxFieldSize() throws SQLException {
+    return checkStatement().getMaxFieldSize();
+  }
+
+  @Override
+  public void setMaxFieldSize(int max) throws SQLException {
+    PreparedStatement st = checkStatement();
+    if (originalMaxFieldSize == null) {
+      originalMaxFieldSize = st.getMaxFieldSize();
+    }
+    st.setMaxFieldSize(max);
+  }
+
+  @Override
+  public int getMaxRows() throws SQLException {
+    return checkStatement().getMaxRows();
+  }
+
+  @Override
+  public void setMaxRows(int max) throws SQLException {
+    PreparedStatement st = checkStatement();
+    if (originalMaxRows == null) {
+      originalMaxRows = st.getMaxRows();
+    }
+    st.setMaxRows(max);
+  }
+
+  @Override
+  public int getQueryTimeout() throws SQLException {
+    return checkStatement().getQueryTimeout();
+  }
+
+  @Override
+  public void setQueryTimeout(int seconds) throws SQLException {
+    PreparedStatement st = checkStatement();
+    if (originalQueryTimeout == null) {
+      originalQueryTimeout = st.getQueryTimeout();
+    }
+    st.setQueryTimeout(seconds);
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    return checkStatement().getFetchDirection();
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    PreparedStatement st = checkStatement();
+    if (originalFetchDirection == null) {
+      originalFetchDirection = st.getFetchDirection();
+    }
+    st.setFetchDirection(direction);
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    return checkStatement().getFetchSize();
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    PreparedStatement st = checkStatement();
+    if (originalFetchSize == null) {
+      originalFetchSize = st.getFetchSize();
+    }
+    st.setFetchSize(rows);
+  }
+
+  @Override
+  public void setEscapeProcessing(boolean enable) throws SQLException {
+    checkStatement().setEscapeProcessing(enable);
+    notReusable = true;
+  }
+
+  @Override
+  public void setCursorName(String name) throws SQLException {
+    checkStatement().setCursorName(name);
+    notReusable = true;
+  }
+
+  @Override
+  public void setPoolable(boolean poolable) throws SQLException {
+    checkStatement().setPoolable(poolable);
+    notReusable = true;
+  }
+
+  @Override
+  public boolean isPoolable() throws SQLException {
+    return checkStatement().isPoolable();
+  }
+
+  @Override
+  public void cancel() throws SQLException {
+    checkStatement().cancel();
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    return checkStatement().getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    checkStatement().clearWarnings();
+  }
+
+  @Override
+  public int getResultSetConcurrency() throws SQLException {
+    return checkStatement().getResultSetConcurrency();
+  }
+
+  @Override
+  public int getResultSetType() throws SQLException {
+    return checkStatement().getResultSetType();
+  }
+
+  @Override
+  public int getResultSetHoldability() throws SQLException {
+    return checkStatement().getResultSetHoldability();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    return checkStatement().unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return checkStatement().isWrapperFor(iface);
+  }
+
+  // JDBC 4.1 (Java 7), cannot be annotated with @Override nor called directly on Java 6
+
+  public void closeOnCompletion() throws SQLException {
+    invokeJdbc41("closeOnCompletion");
+    notReusable = true;
+  }
+
+  public boolean isCloseOnCompletion() throws SQLException {
+    return (Boolean) invokeJdbc41("isCloseOnCompletion");
+  }
+
+  private Object invokeJdbc41(String methodName) throws SQLException {
+    PreparedStatement st = checkStatement();
+    Method method;
+    try {
+      method = PreparedStatement.class.getMethod(methodName);
+    } catch (NoSuchMethodException e) {
+      throw new SQLFeatureNotSupportedException("Statement." + methodName + " requires JDBC 4.1.");
+    }
+    try {
+      return method.invoke(st);
+    } catch (Exception e) {
+      Throwable cause = ExceptionUtil.unwrapThrowable(e);
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SQLException("Error invoking Statement." + methodName + ".  Cause: " + cause, cause);
+    }
+  }
+
+  // Object methods are not checked, like in PooledConnectionProxy
+
+  @Override
+  public int hashCode() {
+    return statement.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return statement.equals(obj);
+  }
+
+  @Override
+  public String toString() {
+    return statement.toString();
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of the idle prepared statements of one physical connection.
+ * <p>
+ * Statements are removed from the cache while they are in use, so the same SQL can be prepared
+ * twice at the same time, and put back when the application closes them.
+ */
+class PreparedStatementCache {
+
+  private final Map<Key, PreparedStatement> statements;
+
+  public PreparedStatementCache(final int size) {
+    this.statements = new LinkedHashMap<Key, PreparedStatement>(size, .75F, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+        if (size() > size) {
+          closeQuietly(eldest.getValue());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public synchronized PreparedStatement take(Key key) {
+    return statements.remove(key);
+  }
+
+  public synchronized void release(Key key, PreparedStatement statement) {
+    PreparedStatement replaced = statements.put(key, statement);
+    if (replaced != null && replaced != statement) {
+      closeQuietly(replaced);
+    }
+  }
+
+  public synchronized int size() {
+    return statements.size();
+  }
+
+  static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  /*
+   * Identifies a statement by its SQL and the prepareStatement arguments that change how it is prepared
+   */
+  static final class Key {
+
+    private final String sql;
+    private final int resultSetType;
+    private final int resultSetConcurrency;
+    private final int resultSetHoldability;
+    private final int autoGeneratedKeys;
+    private final int hashCode;
+
+    public Key(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability, int autoGeneratedKeys) {
+      this.sql = sql;
+      this.resultSetType = resultSetType;
+      this.resultSetConcurrency = resultSetConcurrency;
+      this.resultSetHoldability = resultSetHoldability;
+      this.autoGeneratedKeys = autoGeneratedKeys;
+      int hash = sql.hashCode();
+      hash = 31 * hash + resultSetType;
+      hash = 31 * hash + resultSetConcurrency;
+      hash = 31 * hash + resultSetHoldability;
+      hash = 31 * hash + autoGeneratedKeys;
+      this.hashCode = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return hashCode == other.hashCode
+          && resultSetType == other.resultSetType
+          && resultSetConcurrency == other.resultSetConcurrency
+          && resultSetHoldability == other.resultSetHoldability
+          && autoGeneratedKeys == other.autoGeneratedKeys
+          && sql.equals(other.sql);
+    }
+
+    @Override
+    public String toString() {
+      return sql;
+    }
+  }
+
+}
@@ -0,0 +1,279 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A DataSource that sends reads to replicas and everything else to a primary.
+ * <p>
+ * Connections are opened lazily, per statement: statements marked as reads by {@link RoutingHint}
+ * go to a replica when the connection is in auto-commit mode or read-only, all the others go to the
+ * primary. Among the healthy replicas, the one with the fewest connections in use is chosen.
+ * A replica that cannot provide a connection is ejected for replicaRetryInterval milliseconds, after
+ * which it is tried again; reads fall back to the primary when no replica is available.
+ */
+public class ReplicaRoutingDataSource implements DataSource {
+
+  private static final Log log = LogFactory.getLog(ReplicaRoutingDataSource.class);
+
+  private DataSource primary;
+  private final List<Replica> replicas = new ArrayList<Replica>();
+  private final AtomicInteger nextReplica = new AtomicInteger();
+  protected int replicaRetryInterval = 30000;
+
+  public ReplicaRoutingDataSource() {
+  }
+
+  public ReplicaRoutingDataSource(DataSource primary, DataSource... replicas) {
+    this.primary = primary;
+    for (DataSource replica : replicas) {
+      addReplica(replica);
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return new RoutingConnection(this, null, null);
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return new RoutingConnection(this, username, password);
+  }
+
+  public DataSource getPrimary() {
+    return primary;
+  }
+
+  public void setPrimary(DataSource primary) {
+    this.primary = primary;
+  }
+
+  public synchronized List<DataSource> getReplicas() {
+    List<DataSource> dataSources = new ArrayList<DataSource>();
+    for (Replica replica : replicas) {
+      dataSources.add(replica.dataSource);
+    }
+    return Collections.unmodifiableList(dataSources);
+  }
+
+  public synchronized void addReplica(DataSource replica) {
+    replicas.add(new Replica(replica));
+  }
+
+  /*
+   * The time an unhealthy replica is left out before being tried again
+   *
+   * @param milliseconds the retry interval
+   */
+  public void setReplicaRetryInterval(int milliseconds) {
+    this.replicaRetryInterval = milliseconds;
+  }
+
+  public int getReplicaRetryInterval() {
+    return replicaRetryInterval;
+  }
+
+  /*
+   * Number of replicas currently accepting connections
+   */
+  public synchronized int getHealthyReplicaCount() {
+    long now = System.currentTimeMillis();
+    int count = 0;
+    for (Replica replica : replicas) {
+      if (replica.isHealthy(now)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /*
+   * Probes every replica with Connection.isValid, ejecting the ones that fail and
+   * bringing back the ones that recovered. Can be scheduled by the application.
+   *
+   * @param timeoutSeconds the timeout passed to isValid
+   */
+  public void checkReplicas(int timeoutSeconds) {
+    List<Replica> members;
+    synchronized (this) {
+      members = new ArrayList<Replica>(replicas);
+    }
+    for (Replica replica : members) {
+      boolean healthy;
+      try {
+        Connection connection = replica.dataSource.getConnection();
+        try {
+          healthy = connection.isValid(timeoutSeconds);
+        } finally {
+          connection.close();
+        }
+      } catch (SQLException e) {
+        healthy = false;
+      }
+      if (healthy) {
+        replica.ejectedUntil = 0;
+      } else {
+        replica.ejectedUntil = System.currentTimeMillis() + replicaRetryInterval;
+        log.warn("Ejected replica " + replica.dataSource + " for " + replicaRetryInterval + " milliseconds: health check failed.");
+      }
+    }
+  }
+
+  Connection openPrimaryConnection(String username, String password) throws SQLException {
+    if (primary == null) {
+      throw new SQLException("ReplicaRoutingDataSource: No primary DataSource configured.");
+    }
+    return username == null ? primary.getConnection() : primary.getConnection(username, password);
+  }
+
+  /*
+   * Opens a connection on the least busy healthy replica, ejecting the replicas that fail.
+   *
+   * @return the replica and its connection or null if no replica is available
+   */
+  ReplicaConnection openReplicaConnection(String username, String password) {
+    List<Replica> tried = new ArrayList<Replica>();
+    while (true) {
+      Replica replica = chooseReplica(tried);
+      if (replica == null) {
+        return null;
+      }
+      replica.outstanding.incrementAndGet();
+      try {
+        Connection connection = username == null ? replica.dataSource.getConnection()
+            : replica.dataSource.getConnection(username, password);
+        replica.ejectedUntil = 0;
+        return new ReplicaConnection(replica, connection);
+      } catch (SQLException e) {
+        replica.outstanding.decrementAndGet();
+        replica.ejectedUntil = System.currentTimeMillis() + replicaRetryInterval;
+        log.warn("Ejected replica " + replica.dataSource + " for " + replicaRetryInterval + " milliseconds: " + e.getMessage());
+        tried.add(replica);
+      }
+    }
+  }
+
+  private synchronized Replica chooseReplica(List<Replica> excluded) {
+    int size = replicas.size();
+    if (size == 0) {
+      return null;
+    }
+    long now = System.currentTimeMillis();
+    int start = (nextReplica.getAndIncrement() & Integer.MAX_VALUE) % size;
+    Replica chosen = null;
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      if (!replica.isHealthy(now) || excluded.contains(replica)) {
+        continue;
+      }
+      if (chosen == null || replica.outstanding.get() < chosen.outstanding.get()) {
+        chosen = replica;
+      }
+    }
+    return chosen;
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return primary.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter logWriter) throws SQLException {
+    primary.setLogWriter(logWriter);
+  }
+
+  @Override
+  public void setLoginTimeout(int loginTimeout) throws SQLException {
+    primary.setLoginTimeout(loginTimeout);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return primary.getLoginTimeout();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    throw new SQLException(getClass().getName() + " is not a wrapper.");
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return false;
+  }
+
+  public Logger getParentLogger() {
+    return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME); // requires JDK version 1.6
+  }
+
+  static final class Replica {
+
+    private final DataSource dataSource;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile long ejectedUntil;
+
+    private Replica(DataSource dataSource) {
+      this.dataSource = dataSource;
+    }
+
+    private boolean isHealthy(long now) {
+      return ejectedUntil <= now;
+    }
+  }
+
+  /*
+   * A connection to a replica, that releases its slot in the replica's count of connections in use when closed
+   */
+  static final class ReplicaConnection {
+
+    private final Replica replica;
+    private final Connection connection;
+    private boolean released;
+
+    private ReplicaConnection(Replica replica, Connection connection) {
+      this.replica = replica;
+      this.connection = connection;
+    }
+
+    public Connection getConnection() {
+      return connection;
+    }
+
+    public void close() throws SQLException {
+      if (!released) {
+        released = true;
+        replica.outstanding.decrementAndGet();
+      }
+      connection.close();
+    }
+  }
+
+}
@@ -0,0 +1,94 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.DataSourceException;
+import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
+
+/**
+ * Builds a {@link ReplicaRoutingDataSource} over pooled DataSources.
+ * <p>
+ * The properties of the primary are prefixed with <code>primary.</code>, those of each replica with
+ * <code>replica.&lt;name&gt;.</code>, e.g. <code>replica.1.url</code>. Any property accepted by the
+ * POOLED DataSource can be used.
+ */
+public class ReplicaRoutingDataSourceFactory implements DataSourceFactory {
+
+  private static final String PRIMARY_PROPERTY_PREFIX = "primary.";
+  private static final String REPLICA_PROPERTY_PREFIX = "replica.";
+
+  private final ReplicaRoutingDataSource dataSource;
+
+  public ReplicaRoutingDataSourceFactory() {
+    this.dataSource = new ReplicaRoutingDataSource();
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    Properties primaryProperties = new Properties();
+    Map<String, Properties> replicaProperties = new TreeMap<String, Properties>();
+    for (Object key : properties.keySet()) {
+      String propertyName = (String) key;
+      String value = properties.getProperty(propertyName);
+      if (propertyName.startsWith(PRIMARY_PROPERTY_PREFIX)) {
+        primaryProperties.setProperty(propertyName.substring(PRIMARY_PROPERTY_PREFIX.length()), value);
+      } else if (propertyName.startsWith(REPLICA_PROPERTY_PREFIX)) {
+        String rest = propertyName.substring(REPLICA_PROPERTY_PREFIX.length());
+        int dot = rest.indexOf('.');
+        if (dot <= 0) {
+          throw new DataSourceException("Invalid replica property: " + propertyName + ". Expected replica.<name>.<property>.");
+        }
+        String replicaName = rest.substring(0, dot);
+        Properties props = replicaProperties.get(replicaName);
+        if (props == null) {
+          props = new Properties();
+          replicaProperties.put(replicaName, props);
+        }
+        props.setProperty(rest.substring(dot + 1), value);
+      } else if ("replicaRetryInterval".equals(propertyName)) {
+        dataSource.setReplicaRetryInterval(Integer.parseInt(value));
+      } else {
+        throw new DataSourceException("Unknown DataSource property: " + propertyName);
+      }
+    }
+    if (primaryProperties.isEmpty()) {
+      throw new DataSourceException("No primary DataSource configured. Expected primary.<property> properties.");
+    }
+    dataSource.setPrimary(createPooledDataSource(primaryProperties));
+    for (Properties props : replicaProperties.values()) {
+      dataSource.addReplica(createPooledDataSource(props));
+    }
+  }
+
+  @Override
+  public DataSource getDataSource() {
+    return dataSource;
+  }
+
+  private DataSource createPooledDataSource(Properties properties) {
+    DataSourceFactory factory = new PooledDataSourceFactory();
+    factory.setProperties(properties);
+    return factory.getDataSource();
+  }
+
+}
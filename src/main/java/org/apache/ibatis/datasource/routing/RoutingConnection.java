@@ -0,0 +1,505 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import java.lang.reflect.Method;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * Connection of a {@link ReplicaRoutingDataSource}, opening the primary and replica connections on demand.
+ * <p>
+ * Auto-commit, read-only and isolation settings are kept here and applied to the real connections
+ * when they are opened. Statements are created on a replica when they are reads and the connection is
+ * in auto-commit mode or read-only, on the primary otherwise. Transaction control applies to all
+ * the connections opened so far, any other call goes to the primary.
+ */
+class RoutingConnection implements Connection {
+
+  private final ReplicaRoutingDataSource dataSource;
+  private final String username;
+  private final String password;
+  private Connection primary;
+  private ReplicaRoutingDataSource.ReplicaConnection replica;
+  private boolean replicaUnavailable;
+  private boolean autoCommit = true;
+  private boolean readOnly;
+  private Integer transactionIsolation;
+  private boolean closed;
+
+  public RoutingConnection(ReplicaRoutingDataSource dataSource, String username, String password) {
+    this.dataSource = dataSource;
+    this.username = username;
+    this.password = password;
+  }
+
+  /*
+   * Chooses the connection for a new statement
+   */
+  private Connection target() throws SQLException {
+    if (readOnly || (autoCommit && RoutingHint.isRead())) {
+      Connection connection = replica();
+      if (connection != null) {
+        return connection;
+      }
+    }
+    return primary();
+  }
+
+  private Connection primary() throws SQLException {
+    checkOpen();
+    if (primary == null) {
+      primary = applySettings(dataSource.openPrimaryConnection(username, password));
+    }
+    return primary;
+  }
+
+  private Connection replica() throws SQLException {
+    checkOpen();
+    if (replica == null && !replicaUnavailable) {
+      replica = dataSource.openReplicaConnection(username, password);
+      if (replica == null) {
+        // stick to the primary for the rest of this connection
+        replicaUnavailable = true;
+      } else {
+        try {
+          applySettings(replica.getConnection());
+        } catch (SQLException e) {
+          replica.close();
+          replica = null;
+          replicaUnavailable = true;
+        }
+      }
+    }
+    return replica == null ? null : replica.getConnection();
+  }
+
+  private Connection applySettings(Connection connection) throws SQLException {
+    if (connection.getAutoCommit() != autoCommit) {
+      connection.setAutoCommit(autoCommit);
+    }
+    if (readOnly) {
+      connection.setReadOnly(true);
+    }
+    if (transactionIsolation != null) {
+      connection.setTransactionIsolation(transactionIsolation);
+    }
+    return connection;
+  }
+
+  private Connection anyOpen() throws SQLException {
+    if (primary == null && replica != null) {
+      return replica.getConnection();
+    }
+    return primary();
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("Error accessing RoutingConnection. Connection is closed.");
+    }
+  }
+
+  @Override
+  public Statement createStatement() throws SQLException {
+    return target().createStatement();
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql) throws SQLException {
+    return target().prepareStatement(sql);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql) throws SQLException {
+    return primary().prepareCall(sql);
+  }
+
+  @Override
+  public String nativeSQL(String sql) throws SQLException {
+    return anyOpen().nativeSQL(sql);
+  }
+
+  @Override
+  public void setAutoCommit(boolean autoCommit) throws SQLException {
+    checkOpen();
+    this.autoCommit = autoCommit;
+    if (primary != null) {
+      primary.setAutoCommit(autoCommit);
+    }
+    if (replica != null) {
+      replica.getConnection().setAutoCommit(autoCommit);
+    }
+  }
+
+  @Override
+  public boolean getAutoCommit() throws SQLException {
+    checkOpen();
+    return autoCommit;
+  }
+
+  @Override
+  public void commit() throws SQLException {
+    checkOpen();
+    if (primary != null) {
+      primary.commit();
+    }
+    if (replica != null) {
+      replica.getConnection().commit();
+    }
+  }
+
+  @Override
+  public void rollback() throws SQLException {
+    checkOpen();
+    if (primary != null) {
+      primary.rollback();
+    }
+    if (replica != null) {
+      replica.getConnection().rollback();
+    }
+  }
+
+  @Override
+  public void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (replica != null) {
+        replica.close();
+      }
+    } finally {
+      if (primary != null) {
+        primary.close();
+      }
+    }
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return closed;
+  }
+
+  @Override
+  public DatabaseMetaData getMetaData() throws SQLException {
+    return anyOpen().getMetaData();
+  }
+
+  @Override
+  public void setReadOnly(boolean readOnly) throws SQLException {
+    checkOpen();
+    this.readOnly = readOnly;
+    if (primary != null) {
+      primary.setReadOnly(readOnly);
+    }
+    if (replica != null) {
+      replica.getConnection().setReadOnly(readOnly);
+    }
+  }
+
+  @Override
+  public boolean isReadOnly() throws SQLException {
+    checkOpen();
+    return readOnly;
+  }
+
+  @Override
+  public void setCatalog(String catalog) throws SQLException {
+    primary().setCatalog(catalog);
+  }
+
+  @Override
+  public String getCatalog() throws SQLException {
+    return anyOpen().getCatalog();
+  }
+
+  @Override
+  public void setTransactionIsolation(int level) throws SQLException {
+    checkOpen();
+    this.transactionIsolation = level;
+    if (primary != null) {
+      primary.setTransactionIsolation(level);
+    }
+    if (replica != null) {
+      replica.getConnection().setTransactionIsolation(level);
+    }
+  }
+
+  @Override
+  public int getTransactionIsolation() throws SQLException {
+    checkOpen();
+    return transactionIsolation != null ? transactionIsolation : anyOpen().getTransactionIsolation();
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    return anyOpen().getWarnings();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    checkOpen();
+    if (primary != null) {
+      primary.clearWarnings();
+    }
+    if (replica != null) {
+      replica.getConnection().clearWarnings();
+    }
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+    return target().createStatement(resultSetType, resultSetConcurrency);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    return target().prepareStatement(sql, resultSetType, resultSetConcurrency);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    return primary().prepareCall(sql, resultSetType, resultSetConcurrency);
+  }
+
+  @Override
+  public Map<String, Class<?>> getTypeMap() throws SQLException {
+    return primary().getTypeMap();
+  }
+
+  @Override
+  public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+    primary().setTypeMap(map);
+  }
+
+  @Override
+  public void setHoldability(int holdability) throws SQLException {
+    primary().setHoldability(holdability);
+  }
+
+  @Override
+  public int getHoldability() throws SQLException {
+    return primary().getHoldability();
+  }
+
+  @Override
+  public Savepoint setSavepoint() throws SQLException {
+    return primary().setSavepoint();
+  }
+
+  @Override
+  public Savepoint setSavepoint(String name) throws SQLException {
+    return primary().setSavepoint(name);
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) throws SQLException {
+    primary().rollback(savepoint);
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+    primary().releaseSavepoint(savepoint);
+  }
+
+  @Override
+  public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    return target().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    return target().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+  }
+
+  @Override
+  public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+    return primary().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+    return primary().prepareStatement(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+    return primary().prepareStatement(sql, columnIndexes);
+  }
+
+  @Override
+  public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+    return primary().prepareStatement(sql, columnNames);
+  }
+
+  @Override
+  public Clob createClob() throws SQLException {
+    return primary().createClob();
+  }
+
+  @Override
+  public Blob createBlob() throws SQLException {
+    return primary().createBlob();
+  }
+
+  @Override
+  public NClob createNClob() throws SQLException {
+    return primary().createNClob();
+  }
+
+  @Override
+  public SQLXML createSQLXML() throws SQLException {
+    return primary().createSQLXML();
+  }
+
+  @Override
+  public boolean isValid(int timeout) throws SQLException {
+    if (closed) {
+      return false;
+    }
+    if (primary != null && !primary.isValid(timeout)) {
+      return false;
+    }
+    return replica == null || replica.getConnection().isValid(timeout);
+  }
+
+  @Override
+  public void setClientInfo(String name, String value) throws SQLClientInfoException {
+    try {
+      primary().setClientInfo(name, value);
+    } catch (SQLClientInfoException e) {
+      throw e;
+    } catch (SQLException e) {
+      throw new SQLClientInfoException(e.getMessage(), null, e);
+    }
+  }
+
+  @Override
+  public void setClientInfo(Properties properties) throws SQLClientInfoException {
+    try {
+      primary().setClientInfo(properties);
+    } catch (SQLClientInfoException e) {
+      throw e;
+    } catch (SQLException e) {
+      throw new SQLClientInfoException(e.getMessage(), null, e);
+    }
+  }
+
+  @Override
+  public String getClientInfo(String name) throws SQLException {
+    return primary().getClientInfo(name);
+  }
+
+  @Override
+  public Properties getClientInfo() throws SQLException {
+    return primary().getClientInfo();
+  }
+
+  @Override
+  public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+    return primary().createArrayOf(typeName, elements);
+  }
+
+  @Override
+  public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+    return primary().createStruct(typeName, attributes);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    return primary().unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || primary().isWrapperFor(iface);
+  }
+
+  // JDBC 4.1 (Java 7), cannot be annotated with @Override nor called directly on Java 6
+
+  public void setSchema(String schema) throws SQLException {
+    invokeJdbc41(primary(), "setSchema", new Class<?>[] { String.class }, schema);
+  }
+
+  public String getSchema() throws SQLException {
+    return (String) invokeJdbc41(anyOpen(), "getSchema", new Class<?>[0]);
+  }
+
+  public void abort(Executor executor) throws SQLException {
+    closed = true;
+    if (replica != null) {
+      invokeJdbc41(replica.getConnection(), "abort", new Class<?>[] { Executor.class }, executor);
+    }
+    if (primary != null) {
+      invokeJdbc41(primary, "abort", new Class<?>[] { Executor.class }, executor);
+    }
+  }
+
+  public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+    invokeJdbc41(primary(), "setNetworkTimeout", new Class<?>[] { Executor.class, int.class }, executor, milliseconds);
+  }
+
+  public int getNetworkTimeout() throws SQLException {
+    return (Integer) invokeJdbc41(primary(), "getNetworkTimeout", new Class<?>[0]);
+  }
+
+  private static Object invokeJdbc41(Connection connection, String methodName, Class<?>[] parameterTypes, Object... args) throws SQLException {
+    Method method;
+    try {
+      method = Connection.class.getMethod(methodName, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new SQLFeatureNotSupportedException("Connection." + methodName + " requires JDBC 4.1.");
+    }
+    try {
+      return method.invoke(connection, args);
+    } catch (Exception e) {
+      Throwable cause = ExceptionUtil.unwrapThrowable(e);
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SQLException("Error invoking Connection." + methodName + ".  Cause: " + cause, cause);
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+/**
+ * Tells the {@link ReplicaRoutingDataSource} whether the statements created by the current thread only read.
+ * <p>
+ * The executor marks queries of SELECT statements as reads and updates as writes. A write wins over
+ * the reads nested in it, so that for instance a selectKey runs on the primary.
+ */
+public final class RoutingHint {
+
+  private static final ThreadLocal<Boolean> READ = new ThreadLocal<Boolean>();
+
+  private RoutingHint() {
+    // Prevent Instantiation
+  }
+
+  /*
+   * Marks the following statements as reads unless they are part of a write
+   *
+   * @return the previous hint, to be passed to restore()
+   */
+  public static Boolean markRead() {
+    Boolean previous = READ.get();
+    if (previous == null) {
+      READ.set(Boolean.TRUE);
+    }
+    return previous;
+  }
+
+  /*
+   * Marks the following statements as writes
+   *
+   * @return the previous hint, to be passed to restore()
+   */
+  public static Boolean markWrite() {
+    Boolean previous = READ.get();
+    READ.set(Boolean.FALSE);
+    return previous;
+  }
+
+  public static void restore(Boolean previous) {
+    if (previous == null) {
+      READ.remove();
+    } else {
+      READ.set(previous);
+    }
+  }
+
+  public static boolean isRead() {
+    return Boolean.TRUE.equals(READ.get());
+  }
+
+}
@@ -0,0 +1,41 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+/**
+ * Rewrites a select so that the database returns only one page of its rows, instead of skipping
+ * the rows before the page on the client.
+ *
+ * @since 3.4.5
+ * @see org.apache.ibatis.session.Configuration#isServerSidePaging()
+ */
+public interface Dialect {
+
+  /**
+   * @param sql the select to page
+   * @param offset the number of rows to skip, 0 for none
+   * @param limit the maximum number of rows to return, {@link org.apache.ibatis.session.RowBounds#NO_ROW_LIMIT} for all
+   * @return the select of the page, or null when the select cannot be paged safely, for instance because it already
+   *         limits or locks its rows. The rows are then skipped on the client.
+   */
+  String getPagedSql(String sql, int offset, int limit);
+
+  /**
+   * @return false when the paged select returns the rows before the offset too, the client then skips them
+   */
+  boolean supportsOffset();
+
+}
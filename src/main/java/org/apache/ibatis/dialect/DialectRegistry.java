@@ -0,0 +1,76 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.parsing.SqlClauses;
+
+/**
+ * The dialects of the databases, by databaseId. Both the product names returned by JDBC and the
+ * usual short names are registered, the names are not case sensitive.
+ *
+ * @since 3.4.5
+ */
+public class DialectRegistry {
+
+  private final Map<String, Dialect> dialects = new HashMap<String, Dialect>();
+
+  public DialectRegistry() {
+    Dialect limitOffset = new LimitOffsetDialect();
+    register("hsqldb", limitOffset);
+    register("HSQL Database Engine", limitOffset);
+    register("h2", limitOffset);
+    register("postgresql", limitOffset);
+
+    Dialect offsetFetch = new OffsetFetchDialect();
+    register("derby", offsetFetch);
+    register("Apache Derby", offsetFetch);
+    register("db2", offsetFetch);
+
+    Dialect mySql = new MySqlDialect();
+    register("mysql", mySql);
+    register("mariadb", mySql);
+
+    register("oracle", new OracleDialect());
+  }
+
+  public void register(String databaseId, Dialect dialect) {
+    dialects.put(databaseId.toLowerCase(Locale.ENGLISH), dialect);
+  }
+
+  /*
+   * @return the dialect of the database or null if none is registered
+   */
+  public Dialect getDialect(String databaseId) {
+    return databaseId == null ? null : dialects.get(databaseId.toLowerCase(Locale.ENGLISH));
+  }
+
+  /*
+   * The select without its trailing comments and semicolons, or null when it already limits or locks
+   * its rows, so that no clause can be appended to it
+   */
+  static String getAppendableSql(String sql) {
+    String trimmedSql = SqlClauses.trimSql(sql);
+    if (SqlClauses.hasRowLimitingClause(trimmedSql) || SqlClauses.hasLockingClause(trimmedSql)) {
+      return null;
+    }
+    return trimmedSql;
+  }
+
+}
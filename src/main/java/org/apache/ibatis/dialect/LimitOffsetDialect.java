@@ -0,0 +1,48 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Appends <code>LIMIT n OFFSET m</code>, understood by HSQLDB, H2 and PostgreSQL.
+ *
+ * @since 3.4.5
+ */
+public class LimitOffsetDialect implements Dialect {
+
+  @Override
+  public String getPagedSql(String sql, int offset, int limit) {
+    String appendableSql = DialectRegistry.getAppendableSql(sql);
+    if (appendableSql == null) {
+      return null;
+    }
+    StringBuilder pagedSql = new StringBuilder(appendableSql);
+    if (limit != RowBounds.NO_ROW_LIMIT) {
+      pagedSql.append(" LIMIT ").append(limit);
+    }
+    if (offset > 0) {
+      pagedSql.append(" OFFSET ").append(offset);
+    }
+    return pagedSql.toString();
+  }
+
+  @Override
+  public boolean supportsOffset() {
+    return true;
+  }
+
+}
@@ -0,0 +1,54 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Appends <code>LIMIT m, n</code>, understood by MySQL and MariaDB.
+ *
+ * @since 3.4.5
+ */
+public class MySqlDialect implements Dialect {
+
+  // MySQL has no offset without limit, its documentation suggests the largest BIGINT UNSIGNED
+  private static final String NO_LIMIT = "18446744073709551615";
+
+  @Override
+  public String getPagedSql(String sql, int offset, int limit) {
+    String appendableSql = DialectRegistry.getAppendableSql(sql);
+    if (appendableSql == null) {
+      return null;
+    }
+    StringBuilder pagedSql = new StringBuilder(appendableSql);
+    pagedSql.append(" LIMIT ");
+    if (offset > 0) {
+      pagedSql.append(offset).append(", ");
+    }
+    if (limit != RowBounds.NO_ROW_LIMIT) {
+      pagedSql.append(limit);
+    } else {
+      pagedSql.append(NO_LIMIT);
+    }
+    return pagedSql.toString();
+  }
+
+  @Override
+  public boolean supportsOffset() {
+    return true;
+  }
+
+}
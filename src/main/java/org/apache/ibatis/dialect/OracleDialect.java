@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import org.apache.ibatis.parsing.SqlClauses;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Filters on <code>ROWNUM</code>, which works with all the versions of Oracle. The database stops after
+ * the last row of the page and the rows before the offset are skipped on the client: skipping them on the
+ * database would need a <code>ROWNUM</code> column in the outer query, which the select does not have.
+ *
+ * @since 3.4.5
+ */
+public class OracleDialect implements Dialect {
+
+  @Override
+  public String getPagedSql(String sql, int offset, int limit) {
+    String trimmedSql = SqlClauses.trimSql(sql);
+    // a select that locks its rows cannot be a subquery
+    if (limit == RowBounds.NO_ROW_LIMIT || SqlClauses.hasLockingClause(trimmedSql)) {
+      return null;
+    }
+    return "SELECT * FROM ( " + trimmedSql + " ) WHERE ROWNUM <= " + ((long) offset + limit);
+  }
+
+  @Override
+  public boolean supportsOffset() {
+    return false;
+  }
+
+}
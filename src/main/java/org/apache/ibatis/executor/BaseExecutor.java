@@ -19,6 +19,7 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -26,6 +27,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.routing.RoutingHint;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -34,6 +36,7 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
@@ -47,7 +50,7 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 /**
  * @author Clinton Begin
  */
-public abstract class BaseExecutor implements Executor {
+public abstract class BaseExecutor implements Executor, SavepointExecutor {
 
   private static final Log log = LogFactory.getLog(BaseExecutor.class);
 
@@ -61,6 +64,7 @@ public abstract class BaseExecutor implements Executor {
 
   protected int queryStack;
   private boolean closed;
+  private final BoundSqlResolver boundSqlResolver = new BoundSqlResolver();
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
@@ -114,7 +118,12 @@ public abstract class BaseExecutor implements Executor {
       throw new ExecutorException("Executor was closed.");
     }
     clearLocalCache();
-    return doUpdate(ms, parameter);
+    Boolean previousHint = RoutingHint.markWrite();
+    try {
+      return doUpdate(ms, parameter);
+    } finally {
+      RoutingHint.restore(previousHint);
+    }
   }
 
   @Override
@@ -131,7 +140,7 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameter);
+    BoundSql boundSql = boundSqlResolver.getBoundSql(ms, parameter);
     CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
     return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
  }
@@ -175,7 +184,12 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameter);
-    return doQueryCursor(ms, parameter, rowBounds, boundSql);
+    Boolean previousHint = markRead(ms);
+    try {
+      return doQueryCursor(ms, parameter, rowBounds, boundSql);
+    } finally {
+      RoutingHint.restore(previousHint);
+    }
   }
 
   @Override
@@ -259,6 +273,39 @@ public abstract class BaseExecutor implements Executor {
     }
   }
 
+  @Override
+  public Savepoint setSavepoint() throws SQLException {
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    // batched statements must run before the savepoint they were added before
+    flushStatements();
+    return transaction.getConnection().setSavepoint();
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) throws SQLException {
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    try {
+      // the local cache may hold rows written after the savepoint
+      clearLocalCache();
+      // pending batched statements were all added after the last savepoint
+      flushStatements(true);
+    } finally {
+      transaction.getConnection().rollback(savepoint);
+    }
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    transaction.getConnection().releaseSavepoint(savepoint);
+  }
+
   @Override
   public void clearLocalCache() {
     if (!closed) {
@@ -320,18 +367,35 @@ public abstract class BaseExecutor implements Executor {
   private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
     List<E> list;
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
+    Boolean previousHint = markRead(ms);
     try {
       list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
     } finally {
+      RoutingHint.restore(previousHint);
       localCache.removeObject(key);
     }
-    localCache.putObject(key, list);
+    // the results went to the result handler, the list is empty
+    if (resultHandler == null) {
+      localCache.putObject(key, list);
+    }
     if (ms.getStatementType() == StatementType.CALLABLE) {
       localOutputParameterCache.putObject(key, parameter);
     }
     return list;
   }
 
+  /*
+   * Plain selects may be sent to a replica by a ReplicaRoutingDataSource,
+   * other statements run through query (e.g. procedures) are left as they are.
+   * Other DataSources ignore the hint.
+   */
+  private Boolean markRead(MappedStatement ms) {
+    if (ms.getSqlCommandType() == SqlCommandType.SELECT && ms.getStatementType() != StatementType.CALLABLE) {
+      return RoutingHint.markRead();
+    }
+    return RoutingHint.markWrite();
+  }
+
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
     if (statementLog.isDebugEnabled()) {
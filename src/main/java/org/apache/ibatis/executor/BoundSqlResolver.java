@@ -0,0 +1,57 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import org.apache.ibatis.builder.CountSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * Gets the BoundSql of the queries of an executor, remembering the last one so that the count query
+ * {@link org.apache.ibatis.session.SqlSession#selectPage} runs right after a page derives its SQL from the
+ * dynamic SQL evaluated for the page instead of evaluating it again.
+ *
+ * @since 3.4.5
+ */
+final class BoundSqlResolver {
+
+  private SqlSource lastSqlSource;
+  private Object lastParameter;
+  private BoundSql lastBoundSql;
+
+  BoundSql getBoundSql(MappedStatement ms, Object parameter) {
+    final SqlSource sqlSource = ms.getSqlSource();
+    if (sqlSource instanceof CountSqlSource && lastBoundSql != null
+        && ((CountSqlSource) sqlSource).getSqlSource() == lastSqlSource && parameter == lastParameter) {
+      final BoundSql countBoundSql = lastBoundSql.withSql(CountSqlSource.getCountSql(lastBoundSql.getSql()));
+      clear();
+      return countBoundSql;
+    }
+    final BoundSql boundSql = ms.getBoundSql(parameter);
+    lastSqlSource = sqlSource;
+    lastParameter = parameter;
+    lastBoundSql = boundSql;
+    return boundSql;
+  }
+
+  void clear() {
+    lastSqlSource = null;
+    lastParameter = null;
+    lastBoundSql = null;
+  }
+
+}
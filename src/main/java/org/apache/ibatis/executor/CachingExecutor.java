@@ -16,11 +16,15 @@
 package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -36,10 +40,13 @@ import org.apache.ibatis.transaction.Transaction;
  * @author Clinton Begin
  * @author Eduardo Macarron
  */
-public class CachingExecutor implements Executor {
+public class CachingExecutor implements Executor, SavepointExecutor {
 
   private Executor delegate;
   private TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final BoundSqlResolver boundSqlResolver = new BoundSqlResolver();
+  private final List<Savepoint> savepoints = new ArrayList<Savepoint>();
+  private final List<Map<Cache, TransactionalCache.Snapshot>> savepointSnapshots = new ArrayList<Map<Cache, TransactionalCache.Snapshot>>();
 
   public CachingExecutor(Executor delegate) {
     this.delegate = delegate;
@@ -78,7 +85,7 @@ public class CachingExecutor implements Executor {
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
-    BoundSql boundSql = ms.getBoundSql(parameterObject);
+    BoundSql boundSql = boundSqlResolver.getBoundSql(ms, parameterObject);
     CacheKey key = createCacheKey(ms, parameterObject, rowBounds, boundSql);
     return query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
@@ -118,6 +125,7 @@ public class CachingExecutor implements Executor {
   public void commit(boolean required) throws SQLException {
     delegate.commit(required);
     tcm.commit();
+    clearSavepoints(0);
   }
 
   @Override
@@ -127,10 +135,53 @@ public class CachingExecutor implements Executor {
     } finally {
       if (required) {
         tcm.rollback();
+        clearSavepoints(0);
       }
     }
   }
 
+  @Override
+  public Savepoint setSavepoint() throws SQLException {
+    Savepoint savepoint = savepointDelegate().setSavepoint();
+    savepoints.add(savepoint);
+    savepointSnapshots.add(tcm.snapshot());
+    return savepoint;
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) throws SQLException {
+    savepointDelegate().rollback(savepoint);
+    // the savepoint stays valid, the ones set after it are released
+    int index = savepoints.indexOf(savepoint);
+    if (index >= 0) {
+      tcm.restore(savepointSnapshots.get(index));
+      clearSavepoints(index + 1);
+    }
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+    savepointDelegate().releaseSavepoint(savepoint);
+    int index = savepoints.indexOf(savepoint);
+    if (index >= 0) {
+      clearSavepoints(index);
+    }
+  }
+
+  private SavepointExecutor savepointDelegate() {
+    if (!(delegate instanceof SavepointExecutor)) {
+      throw new ExecutorException("Executor " + delegate.getClass().getName() + " does not support savepoints.");
+    }
+    return (SavepointExecutor) delegate;
+  }
+
+  private void clearSavepoints(int fromIndex) {
+    for (int i = savepoints.size() - 1; i >= fromIndex; i--) {
+      savepoints.remove(i);
+      savepointSnapshots.remove(i);
+    }
+  }
+
   private void ensureNoOutParams(MappedStatement ms, Object parameter, BoundSql boundSql) {
     if (ms.getStatementType() == StatementType.CALLABLE) {
       for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
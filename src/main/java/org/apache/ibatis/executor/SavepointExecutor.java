@@ -0,0 +1,35 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/**
+ * Implemented by the executors that support savepoints. Kept apart from {@link Executor}
+ * so that existing Executor implementations and plugins do not have to implement it.
+ *
+ * @since 3.4.5
+ */
+public interface SavepointExecutor {
+
+  Savepoint setSavepoint() throws SQLException;
+
+  void rollback(Savepoint savepoint) throws SQLException;
+
+  void releaseSavepoint(Savepoint savepoint) throws SQLException;
+
+}
@@ -22,13 +22,18 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -61,21 +66,26 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
     try {
       rs = stmt.getGeneratedKeys();
       final Configuration configuration = ms.getConfiguration();
-      final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
       final String[] keyProperties = ms.getKeyProperties();
       final ResultSetMetaData rsmd = rs.getMetaData();
-      TypeHandler<?>[] typeHandlers = null;
       if (keyProperties != null && rsmd.getColumnCount() >= keyProperties.length) {
+        // batches usually hold a single parameter class, remember the last assigner to skip the lookup
+        final Map<Class<?>, KeyAssigner> assigners = new HashMap<Class<?>, KeyAssigner>();
+        KeyAssigner assigner = null;
         for (Object parameter : parameters) {
           // there should be one row for each statement (also one for each parameter)
           if (!rs.next()) {
             break;
           }
-          final MetaObject metaParam = configuration.newMetaObject(parameter);
-          if (typeHandlers == null) {
-            typeHandlers = getTypeHandlers(typeHandlerRegistry, metaParam, keyProperties, rsmd);
+          final Class<?> parameterType = parameter == null ? null : parameter.getClass();
+          if (assigner == null || assigner.parameterType != parameterType) {
+            assigner = assigners.get(parameterType);
+            if (assigner == null) {
+              assigner = new KeyAssigner(configuration, parameter, keyProperties, rsmd);
+              assigners.put(parameterType, assigner);
+            }
           }
-          populateKeys(rs, metaParam, keyProperties, typeHandlers);
+          assigner.assign(rs, parameter);
         }
       }
     } catch (Exception e) {
@@ -112,28 +122,78 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
     return parameters;
   }
 
-  private TypeHandler<?>[] getTypeHandlers(TypeHandlerRegistry typeHandlerRegistry, MetaObject metaParam, String[] keyProperties, ResultSetMetaData rsmd) throws SQLException {
-    TypeHandler<?>[] typeHandlers = new TypeHandler<?>[keyProperties.length];
-    for (int i = 0; i < keyProperties.length; i++) {
-      if (metaParam.hasSetter(keyProperties[i])) {
-        Class<?> keyPropertyType = metaParam.getSetterType(keyProperties[i]);
-        TypeHandler<?> th = typeHandlerRegistry.getTypeHandler(keyPropertyType, JdbcType.forCode(rsmd.getColumnType(i + 1)));
-        typeHandlers[i] = th;
+  /**
+   * Sets the generated keys on the parameters of one class. The setters and type handlers are
+   * resolved once, from the first parameter. Simple properties of beans are set through the
+   * invokers of their Reflector, the others through a MetaObject.
+   */
+  private static class KeyAssigner {
+
+    private final Configuration configuration;
+    private final Class<?> parameterType;
+    private final String[] keyProperties;
+    private final TypeHandler<?>[] typeHandlers;
+    private final Invoker[] setters;
+
+    private KeyAssigner(Configuration configuration, Object parameter, String[] keyProperties, ResultSetMetaData rsmd) throws SQLException {
+      final TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+      final MetaObject metaParam = configuration.newMetaObject(parameter);
+      final Reflector reflector = isBean(configuration, parameter)
+          ? configuration.getReflectorFactory().findForClass(parameter.getClass()) : null;
+      this.configuration = configuration;
+      this.parameterType = parameter == null ? null : parameter.getClass();
+      this.keyProperties = keyProperties;
+      this.typeHandlers = new TypeHandler<?>[keyProperties.length];
+      this.setters = new Invoker[keyProperties.length];
+      for (int i = 0; i < keyProperties.length; i++) {
+        String property = keyProperties[i];
+        if (!metaParam.hasSetter(property)) {
+          throw new ExecutorException("No setter found for the keyProperty '" + property + "' in " + metaParam.getOriginalObject().getClass().getName() + ".");
+        }
+        Class<?> keyPropertyType = metaParam.getSetterType(property);
+        typeHandlers[i] = typeHandlerRegistry.getTypeHandler(keyPropertyType, JdbcType.forCode(rsmd.getColumnType(i + 1)));
+        if (reflector != null && property.indexOf('.') < 0 && property.indexOf('[') < 0) {
+          setters[i] = reflector.getSetInvoker(property);
+        }
       }
     }
-    return typeHandlers;
-  }
 
-  private void populateKeys(ResultSet rs, MetaObject metaParam, String[] keyProperties, TypeHandler<?>[] typeHandlers) throws SQLException {
-    for (int i = 0; i < keyProperties.length; i++) {
-      String property = keyProperties[i];
-      if (!metaParam.hasSetter(property)) {
-        throw new ExecutorException("No setter found for the keyProperty '" + property + "' in " + metaParam.getOriginalObject().getClass().getName() + ".");
-      }
-      TypeHandler<?> th = typeHandlers[i];
-      if (th != null) {
+    private static boolean isBean(Configuration configuration, Object parameter) {
+      return parameter != null
+          && !(parameter instanceof Map)
+          && !(parameter instanceof Collection)
+          && !parameter.getClass().isArray()
+          && !configuration.getObjectWrapperFactory().hasWrapperFor(parameter);
+    }
+
+    private void assign(ResultSet rs, Object parameter) throws SQLException {
+      MetaObject metaParam = null;
+      for (int i = 0; i < keyProperties.length; i++) {
+        TypeHandler<?> th = typeHandlers[i];
+        if (th == null) {
+          continue;
+        }
         Object value = th.getResult(rs, i + 1);
-        metaParam.setValue(property, value);
+        if (setters[i] != null) {
+          setValue(parameter, i, value);
+        } else {
+          if (metaParam == null) {
+            metaParam = configuration.newMetaObject(parameter);
+          }
+          metaParam.setValue(keyProperties[i], value);
+        }
+      }
+    }
+
+    private void setValue(Object parameter, int index, Object value) {
+      try {
+        try {
+          setters[index].invoke(parameter, new Object[] { value });
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + keyProperties[index] + "' of '" + parameterType + "' with value '" + value + "' Cause: " + t.toString(), t);
       }
     }
   }
@@ -0,0 +1,152 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.keygen;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Statement;
+import java.util.List;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Key generator that reserves blocks of keys with its key statement, usually the next value of a
+ * sequence, and hands them out from memory. The key statement runs once every allocationSize
+ * inserts instead of once per insert.
+ * <p>
+ * With the {@link Optimizer#HILO} optimizer the value returned by the key statement is a block
+ * number: value n reserves the keys from (n - 1) * allocationSize + 1 to n * allocationSize.
+ * With the {@link Optimizer#POOLED} optimizer the key statement must increment by allocationSize,
+ * its value is the first key of the block, e.g. a sequence created with INCREMENT BY allocationSize.
+ * <p>
+ * Keys are allocated in the order inserts ask for them, by all the threads using the statement.
+ * Reserved keys that were not used when the application stops are lost, which leaves gaps.
+ *
+ * @since 3.4.5
+ */
+public class SequenceKeyGenerator implements KeyGenerator {
+
+  public enum Optimizer {
+    HILO, POOLED
+  }
+
+  private final MappedStatement keyStatement;
+  private final int allocationSize;
+  private final Optimizer optimizer;
+  private long nextKey;
+  private long blockEnd;
+
+  public SequenceKeyGenerator(MappedStatement keyStatement, int allocationSize, Optimizer optimizer) {
+    if (allocationSize < 1) {
+      throw new IllegalArgumentException("The allocation size must be positive but was " + allocationSize + ".");
+    }
+    this.keyStatement = keyStatement;
+    this.allocationSize = allocationSize;
+    this.optimizer = optimizer;
+  }
+
+  @Override
+  public void processBefore(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
+    try {
+      if (parameter != null && keyStatement != null && keyStatement.getKeyProperties() != null) {
+        String[] keyProperties = keyStatement.getKeyProperties();
+        if (keyProperties.length != 1) {
+          throw new ExecutorException("A sequence key generator sets a single keyProperty but " + keyProperties.length + " were given.");
+        }
+        final Configuration configuration = ms.getConfiguration();
+        final MetaObject metaParam = configuration.newMetaObject(parameter);
+        if (!metaParam.hasSetter(keyProperties[0])) {
+          throw new ExecutorException("No setter found for the keyProperty '" + keyProperties[0] + "' in " + metaParam.getOriginalObject().getClass().getName() + ".");
+        }
+        long key = nextKey(executor, configuration, parameter);
+        metaParam.setValue(keyProperties[0], convert(key, metaParam.getSetterType(keyProperties[0])));
+      }
+    } catch (ExecutorException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ExecutorException("Error selecting key or setting result to parameter object. Cause: " + e, e);
+    }
+  }
+
+  @Override
+  public void processAfter(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
+    // do nothing
+  }
+
+  public int getAllocationSize() {
+    return allocationSize;
+  }
+
+  public Optimizer getOptimizer() {
+    return optimizer;
+  }
+
+  private synchronized long nextKey(Executor executor, Configuration configuration, Object parameter) throws Exception {
+    if (nextKey >= blockEnd) {
+      long value = selectValue(executor, configuration, parameter);
+      nextKey = optimizer == Optimizer.HILO ? (value - 1) * allocationSize + 1 : value;
+      blockEnd = nextKey + allocationSize;
+    }
+    return nextKey++;
+  }
+
+  private long selectValue(Executor executor, Configuration configuration, Object parameter) throws Exception {
+    // Do not close keyExecutor.
+    // The transaction will be closed by parent executor.
+    Executor keyExecutor = configuration.newExecutor(executor.getTransaction(), ExecutorType.SIMPLE);
+    List<Object> values = keyExecutor.query(keyStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    if (values.size() == 0) {
+      throw new ExecutorException("SelectKey returned no data.");
+    } else if (values.size() > 1) {
+      throw new ExecutorException("SelectKey returned more than one value.");
+    }
+    Object value = values.get(0);
+    if (!(value instanceof Number)) {
+      MetaObject metaResult = configuration.newMetaObject(value);
+      String keyProperty = keyStatement.getKeyProperties()[0];
+      value = metaResult.hasGetter(keyProperty) ? metaResult.getValue(keyProperty) : null;
+    }
+    if (!(value instanceof Number)) {
+      throw new ExecutorException("SelectKey of a sequence key generator must return a number but returned '" + value + "'.");
+    }
+    return ((Number) value).longValue();
+  }
+
+  private static Object convert(long key, Class<?> type) {
+    if (type == Long.class || type == long.class || type == Object.class) {
+      return key;
+    } else if (type == Integer.class || type == int.class) {
+      if (key > Integer.MAX_VALUE) {
+        throw new ExecutorException("Generated key " + key + " does not fit an int.");
+      }
+      return (int) key;
+    } else if (type == BigInteger.class) {
+      return BigInteger.valueOf(key);
+    } else if (type == BigDecimal.class) {
+      return BigDecimal.valueOf(key);
+    } else if (type == String.class) {
+      return String.valueOf(key);
+    }
+    throw new ExecutorException("Cannot set a generated key to a property of type " + type.getName() + ".");
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Groups the lazy loaders of one nested select property across the objects of a result, so that
+ * the first object whose property is loaded also loads it for up to
+ * {@link Configuration#getBatchFetchSize()} of its siblings, with the batch select of the property.
+ * <p>
+ * The results of the siblings are kept here and only assigned when the siblings load the property
+ * themselves, so that objects are never changed from another object's lazy loading.
+ *
+ * @since 3.4.5
+ */
+public class BatchLazyLoader {
+
+  private final Configuration configuration;
+  private final MappedStatement batchQuery;
+  private final String batchKeyProperty;
+  private final Set<ResultLoaderMap.LoadPair> pending = new LinkedHashSet<ResultLoaderMap.LoadPair>();
+  private final Map<ResultLoaderMap.LoadPair, Object> results = new IdentityHashMap<ResultLoaderMap.LoadPair, Object>();
+
+  public BatchLazyLoader(Configuration configuration, MappedStatement batchQuery, String batchKeyProperty) {
+    this.configuration = configuration;
+    this.batchQuery = batchQuery;
+    this.batchKeyProperty = batchKeyProperty;
+  }
+
+  synchronized void add(ResultLoaderMap.LoadPair pair) {
+    pending.add(pair);
+  }
+
+  synchronized void remove(ResultLoaderMap.LoadPair pair) {
+    pending.remove(pair);
+    results.remove(pair);
+  }
+
+  synchronized Object load(ResultLoaderMap.LoadPair trigger, ResultLoader resultLoader) throws SQLException {
+    if (!results.containsKey(trigger)) {
+      pending.remove(trigger);
+      List<ResultLoaderMap.LoadPair> pairs = new ArrayList<ResultLoaderMap.LoadPair>();
+      List<Object> keys = new ArrayList<Object>();
+      pairs.add(trigger);
+      keys.add(resultLoader.parameterObject);
+      int batchSize = Math.max(1, configuration.getBatchFetchSize());
+      for (Iterator<ResultLoaderMap.LoadPair> it = pending.iterator(); it.hasNext() && pairs.size() < batchSize;) {
+        ResultLoaderMap.LoadPair pair = it.next();
+        it.remove();
+        pairs.add(pair);
+        keys.add(pair.getResultLoader().parameterObject);
+      }
+      List<Object> values = loadResults(resultLoader, keys);
+      for (int i = 0; i < pairs.size(); i++) {
+        results.put(pairs.get(i), values.get(i));
+      }
+    }
+    return results.remove(trigger);
+  }
+
+  /*
+   * Uses the executor of the trigger unless it was closed or belongs to another thread,
+   * like ResultLoader does
+   */
+  private List<Object> loadResults(ResultLoader resultLoader, List<Object> keys) throws SQLException {
+    Executor localExecutor = resultLoader.executor;
+    if (Thread.currentThread().getId() != resultLoader.creatorThreadId || localExecutor.isClosed()) {
+      localExecutor = resultLoader.newExecutor();
+    }
+    try {
+      BatchResultLoader batchResultLoader = new BatchResultLoader(configuration, localExecutor, batchQuery, batchKeyProperty);
+      return batchResultLoader.loadResults(keys, resultLoader.targetType);
+    } finally {
+      if (localExecutor != resultLoader.executor) {
+        localExecutor.close(false);
+      }
+    }
+  }
+
+}
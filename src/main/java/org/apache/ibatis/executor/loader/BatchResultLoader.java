@@ -0,0 +1,164 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Loads a nested select property of many objects with a single statement, the batch select of the
+ * property's result mapping.
+ * <p>
+ * The batch select receives the keys of the objects as a list (named <code>list</code> and
+ * <code>collection</code>, like a collection passed to a SqlSession) and returns the matching rows,
+ * which are given back to each object by comparing its key with the batch key property of the rows.
+ * At most {@link Configuration#getBatchFetchSize()} keys are sent at once.
+ *
+ * @since 3.4.5
+ */
+public class BatchResultLoader {
+
+  protected final Configuration configuration;
+  protected final Executor executor;
+  protected final MappedStatement batchQuery;
+  protected final String batchKeyProperty;
+  protected final ResultExtractor resultExtractor;
+  private final List<Target> targets = new ArrayList<Target>();
+
+  public BatchResultLoader(Configuration configuration, Executor executor, MappedStatement batchQuery, String batchKeyProperty) {
+    this.configuration = configuration;
+    this.executor = executor;
+    this.batchQuery = batchQuery;
+    this.batchKeyProperty = batchKeyProperty;
+    this.resultExtractor = new ResultExtractor(configuration, configuration.getObjectFactory());
+  }
+
+  public void addTarget(MetaObject metaResultObject, String property, Object key, Class<?> targetType) {
+    targets.add(new Target(metaResultObject, property, key, targetType));
+  }
+
+  public boolean isEmpty() {
+    return targets.isEmpty();
+  }
+
+  public void load() throws SQLException {
+    Set<Object> keys = new LinkedHashSet<Object>();
+    for (Target target : targets) {
+      keys.add(target.key);
+    }
+    Map<Object, List<Object>> rowsByKey = selectRowsByKey(new ArrayList<Object>(keys));
+    for (Target target : targets) {
+      Object value = extractResult(rowsByKey, target.key, target.targetType);
+      if (value != null || configuration.isCallSettersOnNulls()) {
+        target.metaObject.setValue(target.property, value);
+      }
+    }
+    targets.clear();
+  }
+
+  /**
+   * Selects the results of the given keys without assigning them to any object.
+   *
+   * @return the result of each key, in the order of the keys
+   */
+  public List<Object> loadResults(List<Object> keys, Class<?> targetType) throws SQLException {
+    Map<Object, List<Object>> rowsByKey = selectRowsByKey(new ArrayList<Object>(new LinkedHashSet<Object>(keys)));
+    List<Object> results = new ArrayList<Object>(keys.size());
+    for (Object key : keys) {
+      results.add(extractResult(rowsByKey, key, targetType));
+    }
+    return results;
+  }
+
+  private Object extractResult(Map<Object, List<Object>> rowsByKey, Object key, Class<?> targetType) {
+    List<Object> rows = rowsByKey.get(normalizeKey(key));
+    if (rows == null) {
+      rows = new ArrayList<Object>();
+      rowsByKey.put(normalizeKey(key), rows);
+    }
+    return resultExtractor.extractObjectFromList(rows, targetType);
+  }
+
+  private Map<Object, List<Object>> selectRowsByKey(List<Object> keys) throws SQLException {
+    Map<Object, List<Object>> rowsByKey = new HashMap<Object, List<Object>>();
+    int batchSize = Math.max(1, configuration.getBatchFetchSize());
+    for (int i = 0; i < keys.size(); i += batchSize) {
+      List<Object> batch = new ArrayList<Object>(keys.subList(i, Math.min(i + batchSize, keys.size())));
+      Map<String, Object> parameterObject = new HashMap<String, Object>();
+      parameterObject.put("collection", batch);
+      parameterObject.put("list", batch);
+      List<Object> rows = executor.query(batchQuery, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      for (Object row : rows) {
+        Object key = normalizeKey(configuration.newMetaObject(row).getValue(batchKeyProperty));
+        List<Object> keyRows = rowsByKey.get(key);
+        if (keyRows == null) {
+          keyRows = new ArrayList<Object>();
+          rowsByKey.put(key, keyRows);
+        }
+        keyRows.add(row);
+      }
+    }
+    return rowsByKey;
+  }
+
+  /*
+   * The key read from the column and the one read from the batch key property may have
+   * different integral types, e.g. Integer and Long or BigDecimal
+   */
+  private static Object normalizeKey(Object key) {
+    if (key instanceof Integer || key instanceof Short || key instanceof Byte) {
+      return Long.valueOf(((Number) key).longValue());
+    } else if (key instanceof BigInteger && ((BigInteger) key).bitLength() < 64) {
+      return Long.valueOf(((BigInteger) key).longValue());
+    } else if (key instanceof BigDecimal) {
+      try {
+        return Long.valueOf(((BigDecimal) key).longValueExact());
+      } catch (ArithmeticException e) {
+        return key;
+      }
+    }
+    return key;
+  }
+
+  private static class Target {
+    private final MetaObject metaObject;
+    private final String property;
+    private final Object key;
+    private final Class<?> targetType;
+
+    private Target(MetaObject metaObject, String property, Object key, Class<?> targetType) {
+      this.metaObject = metaObject;
+      this.property = property;
+      this.key = key;
+      this.targetType = targetType;
+    }
+  }
+
+}
@@ -50,13 +50,29 @@ public class ResultLoaderMap {
   private final Map<String, LoadPair> loaderMap = new HashMap<String, LoadPair>();
 
   public void addLoader(String property, MetaObject metaResultObject, ResultLoader resultLoader) {
+    addLoader(property, metaResultObject, resultLoader, null);
+  }
+
+  /**
+   * Adds a loader whose property is loaded together with the same property of its siblings.
+   *
+   * @since 3.4.5
+   */
+  public void addLoader(String property, MetaObject metaResultObject, ResultLoader resultLoader, BatchLazyLoader batchLazyLoader) {
     String upperFirst = getUppercaseFirstProperty(property);
     if (!upperFirst.equalsIgnoreCase(property) && loaderMap.containsKey(upperFirst)) {
       throw new ExecutorException("Nested lazy loaded result property '" + property +
               "' for query id '" + resultLoader.mappedStatement.getId() +
               " already exists in the result map. The leftmost property of all lazy loaded properties must be unique within a result map.");
     }
-    loaderMap.put(upperFirst, new LoadPair(property, metaResultObject, resultLoader));
+    LoadPair pair = new LoadPair(property, metaResultObject, resultLoader, batchLazyLoader);
+    LoadPair replaced = loaderMap.put(upperFirst, pair);
+    if (replaced != null) {
+      replaced.detach();
+    }
+    if (batchLazyLoader != null) {
+      batchLazyLoader.add(pair);
+    }
   }
 
   public final Map<String, LoadPair> getProperties() {
@@ -85,7 +101,10 @@ public class ResultLoaderMap {
   }
 
   public void remove(String property) {
-    loaderMap.remove(property.toUpperCase(Locale.ENGLISH));
+    LoadPair pair = loaderMap.remove(property.toUpperCase(Locale.ENGLISH));
+    if (pair != null) {
+      pair.detach();
+    }
   }
 
   public void loadAll() throws SQLException {
@@ -123,6 +142,10 @@ public class ResultLoaderMap {
      * Result loader which loads unread properties.
      */
     private transient ResultLoader resultLoader;
+    /**
+     * Loads the property together with the same property of sibling objects, if any.
+     */
+    private transient BatchLazyLoader batchLazyLoader;
     /**
      * Wow, logger.
      */
@@ -144,10 +167,11 @@ public class ResultLoaderMap {
      */
     private Serializable mappedParameter;
 
-    private LoadPair(final String property, MetaObject metaResultObject, ResultLoader resultLoader) {
+    private LoadPair(final String property, MetaObject metaResultObject, ResultLoader resultLoader, BatchLazyLoader batchLazyLoader) {
       this.property = property;
       this.metaResultObject = metaResultObject;
       this.resultLoader = resultLoader;
+      this.batchLazyLoader = batchLazyLoader;
 
       /* Save required information only if original object can be serialized. */
       if (metaResultObject != null && metaResultObject.getOriginalObject() instanceof Serializable) {
@@ -216,7 +240,24 @@ public class ResultLoaderMap {
                 old.parameterObject, old.targetType, old.cacheKey, old.boundSql);
       }
 
-      this.metaResultObject.setValue(property, this.resultLoader.loadResult());
+      if (this.batchLazyLoader != null) {
+        this.metaResultObject.setValue(property, this.batchLazyLoader.load(this, this.resultLoader));
+      } else {
+        this.metaResultObject.setValue(property, this.resultLoader.loadResult());
+      }
+    }
+
+    ResultLoader getResultLoader() {
+      return resultLoader;
+    }
+
+    /*
+     * The property was loaded or set, siblings must not load it anymore
+     */
+    private void detach() {
+      if (this.batchLazyLoader != null) {
+        this.batchLazyLoader.remove(this);
+      }
     }
 
     private Configuration getConfiguration() {
@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * Collects the results of a single numeric column into a {@code long[]}, {@code int[]} or {@code double[]}.
+ * The result set handler adds the values it reads with the built-in type handlers without boxing them,
+ * other values are unboxed as they are handled.
+ *
+ * @since 3.4.5
+ */
+public class PrimitiveArrayResultHandler implements ResultHandler<Object> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Class<?> componentType;
+  private long[] longs;
+  private int[] ints;
+  private double[] doubles;
+  private int size;
+
+  public PrimitiveArrayResultHandler(Class<?> componentType) {
+    if (componentType == long.class) {
+      longs = new long[INITIAL_CAPACITY];
+    } else if (componentType == int.class) {
+      ints = new int[INITIAL_CAPACITY];
+    } else if (componentType == double.class) {
+      doubles = new double[INITIAL_CAPACITY];
+    } else {
+      throw new IllegalArgumentException("Results can be collected into long[], int[] or double[] but not " + componentType + "[]");
+    }
+    this.componentType = componentType;
+  }
+
+  public static boolean isSupported(Class<?> arrayType) {
+    Class<?> componentType = arrayType.getComponentType();
+    return componentType == long.class || componentType == int.class || componentType == double.class;
+  }
+
+  public Class<?> getComponentType() {
+    return componentType;
+  }
+
+  @Override
+  public void handleResult(ResultContext<? extends Object> context) {
+    Object value = context.getResultObject();
+    if (!(value instanceof Number)) {
+      throw new ExecutorException("Result " + context.getResultCount() + " cannot be stored in a " + componentType + "[] : " + value);
+    }
+    Number number = (Number) value;
+    if (longs != null) {
+      addLong(number.longValue());
+    } else if (ints != null) {
+      addInt(number.intValue());
+    } else {
+      addDouble(number.doubleValue());
+    }
+  }
+
+  public void addLong(long value) {
+    if (size == longs.length) {
+      longs = Arrays.copyOf(longs, newCapacity());
+    }
+    longs[size++] = value;
+  }
+
+  public void addInt(int value) {
+    if (size == ints.length) {
+      ints = Arrays.copyOf(ints, newCapacity());
+    }
+    ints[size++] = value;
+  }
+
+  public void addDouble(double value) {
+    if (size == doubles.length) {
+      doubles = Arrays.copyOf(doubles, newCapacity());
+    }
+    doubles[size++] = value;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return a {@code long[]}, {@code int[]} or {@code double[]} of the results, in order
+   */
+  public Object getArray() {
+    if (longs != null) {
+      return Arrays.copyOf(longs, size);
+    } else if (ints != null) {
+      return Arrays.copyOf(ints, size);
+    } else {
+      return Arrays.copyOf(doubles, size);
+    }
+  }
+
+  private int newCapacity() {
+    int capacity = size + (size >> 1);
+    if (capacity < 0) {
+      throw new ExecutorException("Too many results for a " + componentType + "[]");
+    }
+    return capacity;
+  }
+
+}
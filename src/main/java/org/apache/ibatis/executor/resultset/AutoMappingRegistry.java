@@ -0,0 +1,67 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The automatic mappings resolved for a configuration, by result map, column prefix and columns of the result set,
+ * so that each execution of a statement does not look up the properties and type handlers of the columns again.
+ * <p>
+ * The registry stops adding mappings once it holds {@link #MAX_AUTO_MAPPINGS} of them and the automatic mappings
+ * of the remaining result sets are resolved by each execution.
+ *
+ * @since 3.4.5
+ */
+public class AutoMappingRegistry {
+
+  public static final int MAX_AUTO_MAPPINGS = 4096;
+
+  private final ConcurrentMap<String, List<UnMappedColumnAutoMapping>> autoMappings = new ConcurrentHashMap<String, List<UnMappedColumnAutoMapping>>();
+
+  List<UnMappedColumnAutoMapping> getAutoMappings(String key) {
+    return autoMappings.get(key);
+  }
+
+  /*
+   * Registers the automatic mappings unless others were registered for the key in the meantime.
+   * Returns the automatic mappings registered for the key, or the given ones when the registry is full.
+   */
+  List<UnMappedColumnAutoMapping> addAutoMappings(String key, List<UnMappedColumnAutoMapping> autoMapping) {
+    autoMapping = Collections.unmodifiableList(autoMapping);
+    if (isFull()) {
+      return autoMapping;
+    }
+    List<UnMappedColumnAutoMapping> existing = autoMappings.putIfAbsent(key, autoMapping);
+    return existing != null ? existing : autoMapping;
+  }
+
+  public boolean isFull() {
+    return autoMappings.size() >= MAX_AUTO_MAPPINGS;
+  }
+
+  public int size() {
+    return autoMappings.size();
+  }
+
+  public void clear() {
+    autoMappings.clear();
+  }
+
+}
@@ -23,11 +23,14 @@ import org.apache.ibatis.cursor.defaults.DefaultCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.loader.BatchLazyLoader;
+import org.apache.ibatis.executor.loader.BatchResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
+import org.apache.ibatis.executor.result.PrimitiveArrayResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Discriminator;
@@ -39,12 +42,16 @@ import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.DoubleTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -56,6 +63,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -83,17 +91,39 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final ReflectorFactory reflectorFactory;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<CacheKey, Object>();
+  private final RowKeyMap nestedResultObjects = new RowKeyMap();
   private final Map<String, Object> ancestorObjects = new HashMap<String, Object>();
+  // upper case column prefixes of the nested result mappings, by prefix of the parent
+  private final Map<ResultMapping, Map<String, String>> columnPrefixes = new IdentityHashMap<ResultMapping, Map<String, String>>();
   private Object previousRowValue;
 
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<String, ResultMapping>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<CacheKey, List<PendingRelation>>();
 
-  // Cached Automappings
+  // nested selects loaded together, only when all the rows are collected before being returned
+  private Map<ResultMapping, BatchResultLoader> batchResultLoaders;
+  // lazy nested selects loaded together with the ones of the sibling objects
+  private final Map<ResultMapping, BatchLazyLoader> batchLazyLoaders = new IdentityHashMap<ResultMapping, BatchLazyLoader>();
+
+  // rows read, the ones of the first result set feed the adaptive fetch size
+  private int rowCount;
+
+  // compiled row mappers, by result map of the current result set
+  private final Map<ResultMap, RowMapper> rowMappers = new IdentityHashMap<ResultMap, RowMapper>();
+
+  // Cached Automappings, with the column indexes of the current result set
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<String, List<UnMappedColumnAutoMapping>>();
 
+  // constructors chosen by the classes of the columns, by result type
+  private final Map<Class<?>, Constructor<?>> constructorsByResultType = new HashMap<Class<?>, Constructor<?>>();
+
+  // columns of the current result set making up the row keys of result maps without mappings, by column prefix
+  private final Map<ResultMap, Map<String, List<String>>> unmappedRowKeyColumns = new IdentityHashMap<ResultMap, Map<String, List<String>>>();
+
+  // the result set the cached mappings were created for
+  private ResultSetWrapper mappingsResultSet;
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
@@ -104,20 +134,6 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
-  private static class UnMappedColumnAutoMapping {
-    private final String column;
-    private final String property;
-    private final TypeHandler<?> typeHandler;
-    private final boolean primitive;
-
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
-      this.column = column;
-      this.property = property;
-      this.typeHandler = typeHandler;
-      this.primitive = primitive;
-    }
-  }
-
   public DefaultResultSetHandler(Executor executor, MappedStatement mappedStatement, ParameterHandler parameterHandler, ResultHandler<?> resultHandler, BoundSql boundSql,
                                  RowBounds rowBounds) {
     this.executor = executor;
@@ -180,6 +196,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
 
     final List<Object> multipleResults = new ArrayList<Object>();
+    if (resultHandler == null) {
+      batchResultLoaders = new IdentityHashMap<ResultMapping, BatchResultLoader>();
+    }
 
     int resultSetCount = 0;
     ResultSetWrapper rsw = getFirstResultSet(stmt);
@@ -190,6 +209,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     while (rsw != null && resultMapCount > resultSetCount) {
       ResultMap resultMap = resultMaps.get(resultSetCount);
       handleResultSet(rsw, resultMap, multipleResults, null);
+      if (resultSetCount == 0) {
+        recordRowCount();
+      }
       rsw = getNextResultSet(stmt);
       cleanUpAfterHandlingResultSet();
       resultSetCount++;
@@ -210,6 +232,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    loadBatchResults();
     return collapseSingleResultList(multipleResults);
   }
 
@@ -344,15 +367,57 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private void handleRowValuesForSimpleResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
       throws SQLException {
+    if (parentMapping == null && resultHandler instanceof PrimitiveArrayResultHandler
+        && canReadPrimitives(rsw, resultMap, ((PrimitiveArrayResultHandler) resultHandler).getComponentType())) {
+      handlePrimitiveRowValues(rsw, (PrimitiveArrayResultHandler) resultHandler, rowBounds);
+      return;
+    }
     DefaultResultContext<Object> resultContext = new DefaultResultContext<Object>();
     skipRows(rsw.getResultSet(), rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
-      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
+      rowCount++;
+      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
     }
   }
 
+  /*
+   * The first column can be read with the primitive getter of the result set when the result type is the
+   * component type or its wrapper and the column has the built-in type handler, which calls that same getter.
+   */
+  private boolean canReadPrimitives(ResultSetWrapper rsw, ResultMap resultMap, Class<?> componentType) {
+    final Class<?> resultType = resultMap.getType();
+    if (!resultMap.getResultMappings().isEmpty()
+        || resultMap.getDiscriminator() != null
+        || (resultType != componentType && resultType != primitiveTypes.getWrapper(componentType))) {
+      return false;
+    }
+    final Class<?> typeHandlerType = rsw.getTypeHandler(resultType, rsw.getColumnNames().get(0)).getClass();
+    return (componentType == long.class && typeHandlerType == LongTypeHandler.class)
+        || (componentType == int.class && typeHandlerType == IntegerTypeHandler.class)
+        || (componentType == double.class && typeHandlerType == DoubleTypeHandler.class);
+  }
+
+  private void handlePrimitiveRowValues(ResultSetWrapper rsw, PrimitiveArrayResultHandler resultHandler, RowBounds rowBounds) throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
+    final Class<?> componentType = resultHandler.getComponentType();
+    skipRows(rs, rowBounds);
+    for (int count = 0; count < rowBounds.getLimit() && rs.next(); count++) {
+      rowCount++;
+      if (componentType == long.class) {
+        resultHandler.addLong(rs.getLong(1));
+      } else if (componentType == int.class) {
+        resultHandler.addInt(rs.getInt(1));
+      } else {
+        resultHandler.addDouble(rs.getDouble(1));
+      }
+      if (rs.wasNull()) {
+        throw new ExecutorException("Result " + (count + 1) + " is null and cannot be stored in a " + componentType + "[].");
+      }
+    }
+  }
+
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {
       linkToParents(rs, parentMapping, rowValue);
@@ -371,14 +436,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return !context.isStopped() && context.getResultCount() < rowBounds.getLimit();
   }
 
+  /*
+   * The skipped rows are counted too, they are fetched from the database like the mapped ones
+   */
   private void skipRows(ResultSet rs, RowBounds rowBounds) throws SQLException {
     if (rs.getType() != ResultSet.TYPE_FORWARD_ONLY) {
-      if (rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET) {
-        rs.absolute(rowBounds.getOffset());
+      if (rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET && rs.absolute(rowBounds.getOffset())) {
+        rowCount += rowBounds.getOffset();
       }
     } else {
       for (int i = 0; i < rowBounds.getOffset(); i++) {
-        rs.next();
+        if (rs.next()) {
+          rowCount++;
+        }
       }
     }
   }
@@ -388,6 +458,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    if (configuration.isCompiledRowMapping()) {
+      RowMapper rowMapper = getRowMapper(rsw, resultMap);
+      if (rowMapper != null) {
+        return rowMapper.mapRow(rsw.getResultSet());
+      }
+    }
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, null);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
@@ -421,19 +497,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
-    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    // the column of a nested result map mapping is ignored, it has no index
+    final int[] columnIndexes = rsw.getPropertyColumnIndexes(resultMap, columnPrefix);
     boolean foundValues = false;
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
-      String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      if (propertyMapping.getNestedResultMapId() != null) {
-        // the user added a column attribute to a nested result map, ignore it
-        column = null;
-      }
+    for (int i = 0; i < propertyMappings.size(); i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
       if (propertyMapping.isCompositeResult()
-          || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+          || columnIndexes[i] > 0
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix, columnIndexes[i]);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -454,56 +527,66 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
-      throws SQLException {
+  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix,
+      int columnIndex) throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
       addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERED;
     } else {
-      final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
-      final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return propertyMapping.getTypeHandler().getResult(rs, columnIndex);
     }
   }
 
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
+    resetMappings(rsw);
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
     List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
     if (autoMapping == null) {
-      autoMapping = new ArrayList<UnMappedColumnAutoMapping>();
-      final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
-      for (String columnName : unmappedColumnNames) {
-        String propertyName = columnName;
-        if (columnPrefix != null && !columnPrefix.isEmpty()) {
-          // When columnPrefix is specified,
-          // ignore columns without the prefix.
-          if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
-            propertyName = columnName.substring(columnPrefix.length());
-          } else {
-            continue;
-          }
+      final AutoMappingRegistry autoMappingRegistry = configuration.getAutoMappingRegistry();
+      // the properties found depend on the class of the result object too
+      final String key = mapKey + ":" + metaObject.getOriginalObject().getClass().getName() + rsw.getColumnSignature();
+      autoMapping = autoMappingRegistry.getAutoMappings(key);
+      if (autoMapping == null) {
+        autoMapping = autoMappingRegistry.addAutoMappings(key, resolveAutomaticMappings(rsw, resultMap, metaObject, columnPrefix));
+      }
+      autoMappingsCache.put(mapKey, autoMapping);
+    }
+    return autoMapping;
+  }
+
+  private List<UnMappedColumnAutoMapping> resolveAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
+    final List<UnMappedColumnAutoMapping> autoMapping = new ArrayList<UnMappedColumnAutoMapping>();
+    final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
+    for (String columnName : unmappedColumnNames) {
+      String propertyName = columnName;
+      if (columnPrefix != null && !columnPrefix.isEmpty()) {
+        // When columnPrefix is specified,
+        // ignore columns without the prefix.
+        if (columnName.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+          propertyName = columnName.substring(columnPrefix.length());
+        } else {
+          continue;
         }
-        final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
-        if (property != null && metaObject.hasSetter(property)) {
-          if (resultMap.getMappedProperties().contains(property)) {
-            continue;
-          }
-          final Class<?> propertyType = metaObject.getSetterType(property);
-          if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
-            final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
-          } else {
-            configuration.getAutoMappingUnknownColumnBehavior()
-                .doAction(mappedStatement, columnName, property, propertyType);
-          }
+      }
+      final String property = metaObject.findProperty(propertyName, configuration.isMapUnderscoreToCamelCase());
+      if (property != null && metaObject.hasSetter(property)) {
+        if (resultMap.getMappedProperties().contains(property)) {
+          continue;
+        }
+        final Class<?> propertyType = metaObject.getSetterType(property);
+        if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
+          final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
+          autoMapping.add(new UnMappedColumnAutoMapping(columnName, rsw.getColumnIndex(columnName), property, typeHandler, propertyType.isPrimitive()));
         } else {
           configuration.getAutoMappingUnknownColumnBehavior()
-              .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
+              .doAction(mappedStatement, columnName, property, propertyType);
         }
+      } else {
+        configuration.getAutoMappingUnknownColumnBehavior()
+            .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
       }
-      autoMappingsCache.put(mapKey, autoMapping);
     }
     return autoMapping;
   }
@@ -513,7 +596,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.columnIndex);
         if (value != null) {
           foundValues = true;
         }
@@ -526,6 +609,80 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
+  //
+  // COMPILED ROW MAPPERS
+  //
+
+  /* the cached mappings hold the column indexes of one result set */
+  private void resetMappings(ResultSetWrapper rsw) {
+    if (mappingsResultSet != rsw) {
+      autoMappingsCache.clear();
+      rowMappers.clear();
+      constructorsByResultType.clear();
+      unmappedRowKeyColumns.clear();
+      mappingsResultSet = rsw;
+    }
+  }
+
+  private RowMapper getRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    resetMappings(rsw);
+    RowMapper rowMapper = rowMappers.get(resultMap);
+    if (rowMapper == null) {
+      final RowMapperRegistry rowMapperRegistry = configuration.getRowMapperRegistry();
+      final String key = createRowMapperKey(rsw, resultMap);
+      rowMapper = rowMapperRegistry.getRowMapper(key);
+      if (rowMapper == null) {
+        rowMapper = rowMapperRegistry.addRowMapper(key, rowMapperRegistry.isFull() ? null : compileRowMapper(rsw, resultMap));
+      }
+      rowMappers.put(resultMap, rowMapper);
+    }
+    return rowMapper == RowMapperRegistry.INTERPRETED ? null : rowMapper;
+  }
+
+  private String createRowMapperKey(ResultSetWrapper rsw, ResultMap resultMap) {
+    return resultMap.getId() + rsw.getColumnSignature();
+  }
+
+  /*
+   * Compiles the automatic and property mappings of a simple result map, in the order getRowValue applies them.
+   * Custom object factories, constructor mappings, nested selects and multiple result sets are left to getRowValue.
+   */
+  private RowMapper compileRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final Class<?> resultType = resultMap.getType();
+    if (objectFactory.getClass() != DefaultObjectFactory.class
+        || resultMap.hasNestedResultMaps()
+        || resultMap.hasNestedQueries()
+        || !resultMap.getConstructorResultMappings().isEmpty()
+        || hasTypeHandlerForResultObject(rsw, resultType)
+        || !RowMapperCompiler.canCompile(resultType)) {
+      return null;
+    }
+    final RowMapperCompiler compiler = new RowMapperCompiler(resultType, reflectorFactory);
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      final MetaObject metaObject = configuration.newMetaObject(objectFactory.create(resultType));
+      for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, metaObject, null)) {
+        if (!compiler.addMapping(mapping.columnIndex, mapping.property, mapping.typeHandler, configuration.isCallSettersOnNulls())) {
+          return null;
+        }
+      }
+    }
+    final int[] columnIndexes = rsw.getPropertyColumnIndexes(resultMap, null);
+    final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+    for (int i = 0; i < propertyMappings.size(); i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
+      if (propertyMapping.getResultSet() != null) {
+        return null;
+      }
+      if (propertyMapping.getProperty() == null || columnIndexes[i] <= 0) {
+        continue;
+      }
+      if (!compiler.addMapping(columnIndexes[i], propertyMapping.getProperty(), propertyMapping.getTypeHandler(), configuration.isCallSettersOnNulls())) {
+        return null;
+      }
+    }
+    return compiler.compile(configuration.isReturnInstanceForEmptyRow());
+  }
+
   // MULTIPLE RESULT SETS
 
   private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
@@ -633,8 +790,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final ResultMap resultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
           value = getRowValue(rsw, resultMap);
         } else {
-          final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          value = getColumnValue(rsw, constructorMapping.getTypeHandler(), prependPrefix(column, columnPrefix));
         }
       } catch (ResultMapException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -650,14 +806,24 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private Object createByConstructorSignature(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs,
                                               String columnPrefix) throws SQLException {
+    resetMappings(rsw);
+    Constructor<?> constructor = constructorsByResultType.get(resultType);
+    if (constructor == null) {
+      constructor = findConstructorBySignature(rsw, resultType);
+      constructorsByResultType.put(resultType, constructor);
+    }
+    return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, columnPrefix, constructor);
+  }
+
+  private Constructor<?> findConstructorBySignature(ResultSetWrapper rsw, Class<?> resultType) {
     final Constructor<?>[] constructors = resultType.getDeclaredConstructors();
     final Constructor<?> annotatedConstructor = findAnnotatedConstructor(constructors);
     if (annotatedConstructor != null) {
-      return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, columnPrefix, annotatedConstructor);
+      return annotatedConstructor;
     } else {
       for (Constructor<?> constructor : constructors) {
         if (allowedConstructor(constructor, rsw.getClassNames())) {
-          return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, columnPrefix, constructor);
+          return constructor;
         }
       }
     }
@@ -666,11 +832,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private Object createUsingConstructor(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix, Constructor<?> constructor) throws SQLException {
     boolean foundValues = false;
-    for (int i = 0; i < constructor.getParameterTypes().length; i++) {
-      Class<?> parameterType = constructor.getParameterTypes()[i];
+    final Class<?>[] parameterTypes = constructor.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      Class<?> parameterType = parameterTypes[i];
       String columnName = rsw.getColumnNames().get(i);
       TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-      Object value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(columnName, columnPrefix));
+      Object value = getColumnValue(rsw, typeHandler, prependPrefix(columnName, columnPrefix));
       constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
@@ -721,7 +888,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       columnName = rsw.getColumnNames().get(0);
     }
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    return getColumnValue(rsw, typeHandler, columnName);
+  }
+
+  /* columns missing from the result set are read by name so that the driver reports them */
+  private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column) throws SQLException {
+    final int columnIndex = rsw.getColumnIndex(column);
+    return columnIndex > 0 ? typeHandler.getResult(rsw.getResultSet(), columnIndex) : typeHandler.getResult(rsw.getResultSet(), column);
   }
 
   //
@@ -759,10 +932,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (executor.isCached(nestedQuery, key)) {
         executor.deferLoad(nestedQuery, metaResultObject, property, key, targetType);
         value = DEFERED;
+      } else if (!propertyMapping.isLazy() && isBatchLoadable(propertyMapping)) {
+        getBatchResultLoader(propertyMapping).addTarget(metaResultObject, property, nestedQueryParameterObject, targetType);
+        value = DEFERED;
       } else {
         final ResultLoader resultLoader = new ResultLoader(configuration, executor, nestedQuery, nestedQueryParameterObject, targetType, key, nestedBoundSql);
         if (propertyMapping.isLazy()) {
-          lazyLoader.addLoader(property, metaResultObject, resultLoader);
+          lazyLoader.addLoader(property, metaResultObject, resultLoader, getBatchLazyLoader(propertyMapping));
           value = DEFERED;
         } else {
           value = resultLoader.loadResult();
@@ -772,6 +948,55 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  /*
+   * Feeds the adaptive fetch size of the statement, unless it sets its own fetch size
+   */
+  private void recordRowCount() {
+    if (configuration.isAdaptiveFetchSize() && mappedStatement.getFetchSize() == null) {
+      configuration.getFetchSizeStatistics().addRowCount(mappedStatement.getId(), rowCount);
+    }
+  }
+
+  //
+  // BATCHED NESTED QUERIES
+  //
+
+  private boolean isBatchLoadable(ResultMapping propertyMapping) {
+    return batchResultLoaders != null && propertyMapping.getBatchQueryId() != null && !propertyMapping.isCompositeResult();
+  }
+
+  private BatchResultLoader getBatchResultLoader(ResultMapping propertyMapping) {
+    BatchResultLoader batchResultLoader = batchResultLoaders.get(propertyMapping);
+    if (batchResultLoader == null) {
+      MappedStatement batchQuery = configuration.getMappedStatement(propertyMapping.getBatchQueryId());
+      batchResultLoader = new BatchResultLoader(configuration, executor, batchQuery, propertyMapping.getBatchKeyProperty());
+      batchResultLoaders.put(propertyMapping, batchResultLoader);
+    }
+    return batchResultLoader;
+  }
+
+  private BatchLazyLoader getBatchLazyLoader(ResultMapping propertyMapping) {
+    if (propertyMapping.getBatchQueryId() == null || propertyMapping.isCompositeResult()) {
+      return null;
+    }
+    BatchLazyLoader batchLazyLoader = batchLazyLoaders.get(propertyMapping);
+    if (batchLazyLoader == null) {
+      MappedStatement batchQuery = configuration.getMappedStatement(propertyMapping.getBatchQueryId());
+      batchLazyLoader = new BatchLazyLoader(configuration, batchQuery, propertyMapping.getBatchKeyProperty());
+      batchLazyLoaders.put(propertyMapping, batchLazyLoader);
+    }
+    return batchLazyLoader;
+  }
+
+  private void loadBatchResults() throws SQLException {
+    if (batchResultLoaders != null) {
+      for (BatchResultLoader batchResultLoader : batchResultLoaders.values()) {
+        batchResultLoader.load();
+      }
+      batchResultLoaders = null;
+    }
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -822,10 +1047,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public ResultMap resolveDiscriminatedResultMap(ResultSet rs, ResultMap resultMap, String columnPrefix) throws SQLException {
+    return resolveDiscriminatedResultMap(new ResultSetWrapper(rs, configuration), resultMap, columnPrefix);
+  }
+
+  private ResultMap resolveDiscriminatedResultMap(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
     Set<String> pastDiscriminators = new HashSet<String>();
     Discriminator discriminator = resultMap.getDiscriminator();
     while (discriminator != null) {
-      final Object value = getDiscriminatorValue(rs, discriminator, columnPrefix);
+      final Object value = getDiscriminatorValue(rsw, discriminator, columnPrefix);
       final String discriminatedMapId = discriminator.getMapIdFor(String.valueOf(value));
       if (configuration.hasResultMap(discriminatedMapId)) {
         resultMap = configuration.getResultMap(discriminatedMapId);
@@ -841,10 +1070,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMap;
   }
 
-  private Object getDiscriminatorValue(ResultSet rs, Discriminator discriminator, String columnPrefix) throws SQLException {
+  private Object getDiscriminatorValue(ResultSetWrapper rsw, Discriminator discriminator, String columnPrefix) throws SQLException {
     final ResultMapping resultMapping = discriminator.getResultMapping();
     final TypeHandler<?> typeHandler = resultMapping.getTypeHandler();
-    return typeHandler.getResult(rs, prependPrefix(resultMapping.getColumn(), columnPrefix));
+    return getColumnValue(rsw, typeHandler, prependPrefix(resultMapping.getColumn(), columnPrefix));
   }
 
   private String prependPrefix(String columnName, String prefix) {
@@ -862,9 +1091,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final DefaultResultContext<Object> resultContext = new DefaultResultContext<Object>();
     skipRows(rsw.getResultSet(), rowBounds);
     Object rowValue = previousRowValue;
+    final boolean orderedByIds = parentMapping == null && isOrderedByIdColumns(rsw, resultMap);
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
-      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+      rowCount++;
+      final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw, resultMap, null);
+      final RowKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
       if (mappedStatement.isResultOrdered()) {
@@ -874,6 +1105,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
       } else {
+        if (partialObject == null && orderedByIds) {
+          // the rows of the previous objects are all read, their nested objects are complete
+          nestedResultObjects.clear();
+        }
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
         if (partialObject == null) {
           storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
@@ -888,11 +1123,52 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  /*
+   * The rows of an object are read one after the other when the statement is ordered by the id columns of its
+   * result map first, so its nested objects need not be tracked anymore once the row of another object is read.
+   */
+  private boolean isOrderedByIdColumns(ResultSetWrapper rsw, ResultMap resultMap) {
+    final List<ResultMapping> idMappings = resultMap.getIdResultMappings();
+    if (boundSql == null
+        || mappedStatement.getResultSets() != null
+        || mappedStatement.getResultMaps().size() != 1
+        || resultMap.getDiscriminator() != null
+        || idMappings.isEmpty()) {
+      return false;
+    }
+    final List<String> orderByExpressions = configuration.getOrderByRegistry().getOrderByExpressions(boundSql.getSql());
+    if (orderByExpressions.size() < idMappings.size()) {
+      return false;
+    }
+    final Set<String> leadingExpressions = new HashSet<String>(orderByExpressions.subList(0, idMappings.size()));
+    final List<String> columnNames = rsw.getColumnNames();
+    for (ResultMapping idMapping : idMappings) {
+      final String column = idMapping.getColumn();
+      if (column == null
+          || idMapping.getNestedResultMapId() != null
+          || idMapping.getNestedQueryId() != null
+          || !leadingExpressions.remove(column.toUpperCase(Locale.ENGLISH))) {
+        return false;
+      }
+      // an ORDER BY on a label used twice may not be the one of the id column
+      final int columnIndex = rsw.getColumnIndex(column);
+      if (columnIndex < 0) {
+        return false;
+      }
+      for (int i = columnIndex; i < columnNames.size(); i++) {
+        if (columnNames.get(i).equalsIgnoreCase(column)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   //
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, RowKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object rowValue = partialObject;
     if (rowValue != null) {
@@ -916,7 +1192,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         foundValues = lazyLoader.size() > 0 || foundValues;
         rowValue = (foundValues || configuration.isReturnInstanceForEmptyRow()) ? rowValue : null;
       }
-      if (combinedKey != CacheKey.NULL_CACHE_KEY) {
+      if (combinedKey != RowKey.NULL_ROW_KEY) {
         nestedResultObjects.put(combinedKey, rowValue);
       }
     }
@@ -931,14 +1207,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, RowKey parentRowKey, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
       if (nestedResultMapId != null && resultMapping.getResultSet() == null) {
         try {
           final String columnPrefix = getColumnPrefix(parentPrefix, resultMapping);
-          final ResultMap nestedResultMap = getNestedResultMap(rsw.getResultSet(), nestedResultMapId, columnPrefix);
+          final ResultMap nestedResultMap = getNestedResultMap(rsw, nestedResultMapId, columnPrefix);
           if (resultMapping.getColumnPrefix() == null) {
             // try to fill circular reference only when columnPrefix
             // is not specified for the nested result map (issue #215)
@@ -950,8 +1226,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          final RowKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
+          final RowKey combinedKey = RowKey.combine(rowKey, parentRowKey);
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = (rowValue != null);
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -971,6 +1247,14 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   private String getColumnPrefix(String parentPrefix, ResultMapping resultMapping) {
+    Map<String, String> prefixes = columnPrefixes.get(resultMapping);
+    if (prefixes == null) {
+      prefixes = new HashMap<String, String>();
+      columnPrefixes.put(resultMapping, prefixes);
+    }
+    if (prefixes.containsKey(parentPrefix)) {
+      return prefixes.get(parentPrefix);
+    }
     final StringBuilder columnPrefixBuilder = new StringBuilder();
     if (parentPrefix != null) {
       columnPrefixBuilder.append(parentPrefix);
@@ -978,71 +1262,58 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     if (resultMapping.getColumnPrefix() != null) {
       columnPrefixBuilder.append(resultMapping.getColumnPrefix());
     }
-    return columnPrefixBuilder.length() == 0 ? null : columnPrefixBuilder.toString().toUpperCase(Locale.ENGLISH);
+    final String columnPrefix = columnPrefixBuilder.length() == 0 ? null : columnPrefixBuilder.toString().toUpperCase(Locale.ENGLISH);
+    prefixes.put(parentPrefix, columnPrefix);
+    return columnPrefix;
   }
 
   private boolean anyNotNullColumnHasValue(ResultMapping resultMapping, String columnPrefix, ResultSetWrapper rsw) throws SQLException {
     Set<String> notNullColumns = resultMapping.getNotNullColumns();
     if (notNullColumns != null && !notNullColumns.isEmpty()) {
       ResultSet rs = rsw.getResultSet();
+      final int[] columnIndexes = rsw.getNotNullColumnIndexes(resultMapping, columnPrefix);
+      int i = 0;
       for (String column : notNullColumns) {
-        rs.getObject(prependPrefix(column, columnPrefix));
+        final int columnIndex = columnIndexes[i++];
+        if (columnIndex > 0) {
+          rs.getObject(columnIndex);
+        } else {
+          rs.getObject(prependPrefix(column, columnPrefix));
+        }
         if (!rs.wasNull()) {
           return true;
         }
       }
       return false;
     } else if (columnPrefix != null) {
-      for (String columnName : rsw.getColumnNames()) {
-        if (columnName.toUpperCase().startsWith(columnPrefix.toUpperCase())) {
-          return true;
-        }
-      }
-      return false;
+      return rsw.hasColumnPrefix(columnPrefix);
     }
     return true;
   }
 
-  private ResultMap getNestedResultMap(ResultSet rs, String nestedResultMapId, String columnPrefix) throws SQLException {
+  private ResultMap getNestedResultMap(ResultSetWrapper rsw, String nestedResultMapId, String columnPrefix) throws SQLException {
     ResultMap nestedResultMap = configuration.getResultMap(nestedResultMapId);
-    return resolveDiscriminatedResultMap(rs, nestedResultMap, columnPrefix);
+    return resolveDiscriminatedResultMap(rsw, nestedResultMap, columnPrefix);
   }
 
   //
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
+  private RowKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    final List<Object> keyValues = new ArrayList<Object>();
+    keyValues.add(resultMap.getId());
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
     if (resultMappings.isEmpty()) {
       if (Map.class.isAssignableFrom(resultMap.getType())) {
-        createRowKeyForMap(rsw, cacheKey);
+        createRowKeyForMap(rsw, keyValues);
       } else {
-        createRowKeyForUnmappedProperties(resultMap, rsw, cacheKey, columnPrefix);
+        createRowKeyForUnmappedProperties(resultMap, rsw, keyValues, columnPrefix);
       }
     } else {
-      createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
-    }
-    if (cacheKey.getUpdateCount() < 2) {
-      return CacheKey.NULL_CACHE_KEY;
+      createRowKeyForMappedProperties(resultMap, rsw, keyValues, resultMappings, columnPrefix);
     }
-    return cacheKey;
-  }
-
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
-    }
-    return CacheKey.NULL_CACHE_KEY;
+    return RowKey.of(keyValues);
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1053,59 +1324,77 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
-    for (ResultMapping resultMapping : resultMappings) {
+  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<Object> keyValues, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    final int[] columnIndexes = rsw.getColumnIndexes(resultMap, resultMappings, columnPrefix);
+    for (int i = 0; i < resultMappings.size(); i++) {
+      final ResultMapping resultMapping = resultMappings.get(i);
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
-        createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
+        createRowKeyForMappedProperties(nestedResultMap, rsw, keyValues, nestedResultMap.getConstructorResultMappings(),
             prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
-        final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
-        final TypeHandler<?> th = resultMapping.getTypeHandler();
-        List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+        final int columnIndex = columnIndexes[i];
         // Issue #114
-        if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
+        if (columnIndex > 0) {
+          final Object value = resultMapping.getTypeHandler().getResult(rsw.getResultSet(), columnIndex);
           if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
-            cacheKey.update(value);
+            // the index, unlike the prefixed column name, is not a new object for each row
+            keyValues.add(columnIndex);
+            keyValues.add(value);
           }
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
-    final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
-    List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
-    for (String column : unmappedColumnNames) {
-      String property = column;
-      if (columnPrefix != null && !columnPrefix.isEmpty()) {
-        // When columnPrefix is specified, ignore columns without the prefix.
-        if (column.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
-          property = column.substring(columnPrefix.length());
-        } else {
-          continue;
-        }
+  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, List<Object> keyValues, String columnPrefix) throws SQLException {
+    for (String column : getUnmappedRowKeyColumns(resultMap, rsw, columnPrefix)) {
+      String value = rsw.getResultSet().getString(rsw.getColumnIndex(column));
+      if (value != null) {
+        keyValues.add(column);
+        keyValues.add(value);
       }
-      if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-        String value = rsw.getResultSet().getString(column);
-        if (value != null) {
-          cacheKey.update(column);
-          cacheKey.update(value);
+    }
+  }
+
+  private List<String> getUnmappedRowKeyColumns(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
+    resetMappings(rsw);
+    Map<String, List<String>> columnsByPrefix = unmappedRowKeyColumns.get(resultMap);
+    if (columnsByPrefix == null) {
+      columnsByPrefix = new HashMap<String, List<String>>();
+      unmappedRowKeyColumns.put(resultMap, columnsByPrefix);
+    }
+    List<String> columns = columnsByPrefix.get(columnPrefix);
+    if (columns == null) {
+      columns = new ArrayList<String>();
+      final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
+      for (String column : rsw.getUnmappedColumnNames(resultMap, columnPrefix)) {
+        String property = column;
+        if (columnPrefix != null && !columnPrefix.isEmpty()) {
+          // When columnPrefix is specified, ignore columns without the prefix.
+          if (column.toUpperCase(Locale.ENGLISH).startsWith(columnPrefix)) {
+            property = column.substring(columnPrefix.length());
+          } else {
+            continue;
+          }
+        }
+        if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
+          columns.add(column);
         }
       }
+      columnsByPrefix.put(columnPrefix, columns);
     }
+    return columns;
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
+  private void createRowKeyForMap(ResultSetWrapper rsw, List<Object> keyValues) throws SQLException {
     List<String> columnNames = rsw.getColumnNames();
-    for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
+    for (int i = 0; i < columnNames.size(); i++) {
+      final String value = rsw.getResultSet().getString(i + 1);
       if (value != null) {
-        cacheKey.update(columnName);
-        cacheKey.update(value);
+        keyValues.add(columnNames.get(i));
+        keyValues.add(value);
       }
     }
   }
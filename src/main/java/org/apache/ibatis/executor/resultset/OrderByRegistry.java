@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.parsing.SqlClauses;
+
+/**
+ * The ORDER BY expressions of the selects run by a configuration, by SQL, so that each execution of a statement
+ * does not parse its SQL again to find whether its rows are ordered by the id columns of its result map.
+ * <p>
+ * The registry stops adding expressions once it holds {@link #MAX_ORDER_BYS} of them and the SQL of the
+ * remaining selects, usually dynamic ones, is parsed by each execution.
+ *
+ * @since 3.4.5
+ */
+public class OrderByRegistry {
+
+  public static final int MAX_ORDER_BYS = 1024;
+
+  private final ConcurrentMap<String, List<String>> orderBys = new ConcurrentHashMap<String, List<String>>();
+
+  /*
+   * Returns the expressions of the trailing ORDER BY of the select, in upper case.
+   */
+  List<String> getOrderByExpressions(String sql) {
+    List<String> orderBy = orderBys.get(sql);
+    if (orderBy == null) {
+      orderBy = new ArrayList<String>();
+      for (String expression : SqlClauses.getOrderByExpressions(sql)) {
+        orderBy.add(expression.toUpperCase(Locale.ENGLISH));
+      }
+      orderBy = Collections.unmodifiableList(orderBy);
+      if (!isFull()) {
+        List<String> existing = orderBys.putIfAbsent(sql, orderBy);
+        orderBy = existing != null ? existing : orderBy;
+      }
+    }
+    return orderBy;
+  }
+
+  public boolean isFull() {
+    return orderBys.size() >= MAX_ORDER_BYS;
+  }
+
+  public int size() {
+    return orderBys.size();
+  }
+
+  public void clear() {
+    orderBys.clear();
+  }
+
+}
@@ -22,12 +22,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.ObjectTypeHandler;
@@ -45,6 +47,12 @@ public class ResultSetWrapper {
   private final List<String> columnNames = new ArrayList<String>();
   private final List<String> classNames = new ArrayList<String>();
   private final List<JdbcType> jdbcTypes = new ArrayList<JdbcType>();
+  private final Map<String, Integer> upperColumnIndexes = new HashMap<String, Integer>();
+  private final Map<String, Integer> columnIndexes = new HashMap<String, Integer>();
+  private String columnSignature;
+  private final Map<List<ResultMapping>, Map<String, int[]>> columnIndexesMap = new IdentityHashMap<List<ResultMapping>, Map<String, int[]>>();
+  private final Map<ResultMapping, Map<String, int[]>> notNullColumnIndexesMap = new IdentityHashMap<ResultMapping, Map<String, int[]>>();
+  private final Map<String, Boolean> columnPrefixes = new HashMap<String, Boolean>();
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<String, Map<Class<?>, TypeHandler<?>>>();
   private Map<String, List<String>> mappedColumnNamesMap = new HashMap<String, List<String>>();
   private Map<String, List<String>> unMappedColumnNamesMap = new HashMap<String, List<String>>();
@@ -59,6 +67,11 @@ public class ResultSetWrapper {
       columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
       jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
       classNames.add(metaData.getColumnClassName(i));
+      // like the lookups by label of the drivers, a label that appears twice finds the first column
+      final String upperColumnName = columnNames.get(i - 1).toUpperCase(Locale.ENGLISH);
+      if (!upperColumnIndexes.containsKey(upperColumnName)) {
+        upperColumnIndexes.put(upperColumnName, i);
+      }
     }
   }
 
@@ -75,12 +88,136 @@ public class ResultSetWrapper {
   }
 
   public JdbcType getJdbcType(String columnName) {
-    for (int i = 0 ; i < columnNames.size(); i++) {
-      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
-        return jdbcTypes.get(i);
+    final int columnIndex = getColumnIndex(columnName);
+    return columnIndex > 0 ? jdbcTypes.get(columnIndex - 1) : null;
+  }
+
+  /**
+   * The name, class name and JDBC type of each column, which tell apart the result sets a mapping can be reused for.
+   *
+   * @since 3.4.5
+   */
+  public String getColumnSignature() {
+    if (columnSignature == null) {
+      final StringBuilder signature = new StringBuilder();
+      for (int i = 0; i < columnNames.size(); i++) {
+        signature.append(':').append(columnNames.get(i));
+        signature.append(':').append(classNames.get(i));
+        signature.append(':').append(jdbcTypes.get(i));
       }
+      columnSignature = signature.toString();
     }
-    return null;
+    return columnSignature;
+  }
+
+  /**
+   * Resolves a column name, ignoring case, to the index of the column so that its values can be read by index
+   * instead of having the driver look up the name for every value.
+   *
+   * @param columnName the name or label of the column
+   * @return the index of the first column with that name, starting at 1, or -1 if there is none
+   * @since 3.4.5
+   */
+  public int getColumnIndex(String columnName) {
+    Integer columnIndex = columnIndexes.get(columnName);
+    if (columnIndex == null) {
+      columnIndex = upperColumnIndexes.get(columnName.toUpperCase(Locale.ENGLISH));
+      if (columnIndex == null) {
+        columnIndex = -1;
+      }
+      columnIndexes.put(columnName, columnIndex);
+    }
+    return columnIndex;
+  }
+
+  /**
+   * The index of the column of each property mapping of the result map, in the order of
+   * {@link ResultMap#getPropertyResultMappings()}, or 0 for the mappings without a column of this result set.
+   *
+   * @since 3.4.5
+   */
+  public int[] getPropertyColumnIndexes(ResultMap resultMap, String columnPrefix) throws SQLException {
+    return getColumnIndexes(resultMap, resultMap.getPropertyResultMappings(), columnPrefix);
+  }
+
+  /**
+   * The index of the column of each of the given mappings of the result map, in their order,
+   * or 0 for the mappings without a column of this result set.
+   *
+   * @since 3.4.5
+   */
+  public int[] getColumnIndexes(ResultMap resultMap, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    Map<String, int[]> columnIndexesByPrefix = columnIndexesMap.get(resultMappings);
+    if (columnIndexesByPrefix == null) {
+      columnIndexesByPrefix = new HashMap<String, int[]>();
+      columnIndexesMap.put(resultMappings, columnIndexesByPrefix);
+    }
+    int[] mappingColumnIndexes = columnIndexesByPrefix.get(columnPrefix);
+    if (mappingColumnIndexes == null) {
+      final List<String> mappedColumnNames = getMappedColumnNames(resultMap, columnPrefix);
+      mappingColumnIndexes = new int[resultMappings.size()];
+      for (int i = 0; i < resultMappings.size(); i++) {
+        final ResultMapping resultMapping = resultMappings.get(i);
+        // the column of a nested result map mapping is ignored
+        String column = resultMapping.getNestedResultMapId() == null ? resultMapping.getColumn() : null;
+        if (column != null && columnPrefix != null && column.length() > 0) {
+          column = columnPrefix + column;
+        }
+        if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
+          mappingColumnIndexes[i] = getColumnIndex(column);
+        }
+      }
+      columnIndexesByPrefix.put(columnPrefix, mappingColumnIndexes);
+    }
+    return mappingColumnIndexes;
+  }
+
+  /**
+   * The index of each of the not null columns of the result mapping, in the iteration order of
+   * {@link ResultMapping#getNotNullColumns()}, or -1 for the columns this result set does not have.
+   *
+   * @since 3.4.5
+   */
+  public int[] getNotNullColumnIndexes(ResultMapping resultMapping, String columnPrefix) {
+    Map<String, int[]> notNullColumnIndexesByPrefix = notNullColumnIndexesMap.get(resultMapping);
+    if (notNullColumnIndexesByPrefix == null) {
+      notNullColumnIndexesByPrefix = new HashMap<String, int[]>();
+      notNullColumnIndexesMap.put(resultMapping, notNullColumnIndexesByPrefix);
+    }
+    int[] notNullColumnIndexes = notNullColumnIndexesByPrefix.get(columnPrefix);
+    if (notNullColumnIndexes == null) {
+      final Set<String> notNullColumns = resultMapping.getNotNullColumns();
+      notNullColumnIndexes = new int[notNullColumns.size()];
+      int i = 0;
+      for (String column : notNullColumns) {
+        if (columnPrefix != null && column.length() > 0) {
+          column = columnPrefix + column;
+        }
+        notNullColumnIndexes[i++] = getColumnIndex(column);
+      }
+      notNullColumnIndexesByPrefix.put(columnPrefix, notNullColumnIndexes);
+    }
+    return notNullColumnIndexes;
+  }
+
+  /**
+   * @return whether the name of a column of this result set starts with the prefix, ignoring case
+   * @since 3.4.5
+   */
+  public boolean hasColumnPrefix(String columnPrefix) {
+    Boolean hasColumnPrefix = columnPrefixes.get(columnPrefix);
+    if (hasColumnPrefix == null) {
+      hasColumnPrefix = Boolean.FALSE;
+      final String upperColumnPrefix = columnPrefix.toUpperCase(Locale.ENGLISH);
+      for (String upperColumnName : upperColumnIndexes.keySet()) {
+        if (upperColumnName.startsWith(upperColumnPrefix)) {
+          hasColumnPrefix = Boolean.TRUE;
+          break;
+        }
+      }
+      columnPrefixes.put(columnPrefix, hasColumnPrefix);
+    }
+    return hasColumnPrefix;
   }
 
   /**
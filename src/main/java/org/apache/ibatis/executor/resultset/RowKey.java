@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.List;
+
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * Identifies the object a row maps to with a nested result map. Unlike a CacheKey it only keeps a flat array of
+ * the result map id, columns and values, along with the 64-bit hash the {@link RowKeyMap} tracks it by.
+ */
+final class RowKey {
+
+  static final RowKey NULL_ROW_KEY = new RowKey(new Object[0]);
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final Object[] values;
+  private final long hash;
+
+  private RowKey(Object[] values) {
+    this(values, FNV_OFFSET_BASIS, 0);
+  }
+
+  private RowKey(Object[] values, long hash, int from) {
+    for (int i = from; i < values.length; i++) {
+      hash = (hash ^ ArrayUtil.hashCode(values[i])) * FNV_PRIME;
+    }
+    this.values = values;
+    this.hash = hash;
+  }
+
+  /**
+   * @return the key of the values, or {@link #NULL_ROW_KEY} when there is nothing but the result map id
+   */
+  static RowKey of(List<Object> values) {
+    return values.size() < 2 ? NULL_ROW_KEY : new RowKey(values.toArray());
+  }
+
+  /**
+   * @return the key of a nested object within its parent, or {@link #NULL_ROW_KEY} if either key is null
+   */
+  static RowKey combine(RowKey rowKey, RowKey parentRowKey) {
+    if (rowKey.values.length < 2 || parentRowKey.values.length < 2) {
+      return NULL_ROW_KEY;
+    }
+    final Object[] values = new Object[rowKey.values.length + parentRowKey.values.length];
+    System.arraycopy(rowKey.values, 0, values, 0, rowKey.values.length);
+    System.arraycopy(parentRowKey.values, 0, values, rowKey.values.length, parentRowKey.values.length);
+    return new RowKey(values, rowKey.hash, rowKey.values.length);
+  }
+
+  long hash() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof RowKey)) {
+      return false;
+    }
+    final RowKey rowKey = (RowKey) object;
+    if (hash != rowKey.hash || values.length != rowKey.values.length) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (!ArrayUtil.equals(values[i], rowKey.values[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+}
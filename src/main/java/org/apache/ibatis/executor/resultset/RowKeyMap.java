@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+/**
+ * The objects of nested result maps by the key of their rows. The hashes of the keys are kept in an open addressing
+ * table of longs so a lookup compares the key itself only when the hashes match. A joined query keeps one entry
+ * for each object it creates, so entries are kept much smaller than the ones of a HashMap of CacheKeys.
+ */
+final class RowKeyMap {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private long[] hashes;
+  private RowKey[] keys;
+  private Object[] values;
+  private int size;
+
+  RowKeyMap() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  Object get(RowKey key) {
+    final long hash = key.hash();
+    final int mask = keys.length - 1;
+    for (int i = index(hash, mask); keys[i] != null; i = (i + 1) & mask) {
+      if (hashes[i] == hash && keys[i].equals(key)) {
+        return values[i];
+      }
+    }
+    return null;
+  }
+
+  void put(RowKey key, Object value) {
+    final long hash = key.hash();
+    final int mask = keys.length - 1;
+    int i = index(hash, mask);
+    for (; keys[i] != null; i = (i + 1) & mask) {
+      if (hashes[i] == hash && keys[i].equals(key)) {
+        values[i] = value;
+        return;
+      }
+    }
+    hashes[i] = hash;
+    keys[i] = key;
+    values[i] = value;
+    // keeps the table at most half full
+    if (++size * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Removes all the entries, releasing the table when it grew for a large result.
+   */
+  void clear() {
+    if (size == 0) {
+      return;
+    }
+    if (keys.length > INITIAL_CAPACITY) {
+      allocate(INITIAL_CAPACITY);
+    } else {
+      Arrays.fill(keys, null);
+      Arrays.fill(values, null);
+    }
+    size = 0;
+  }
+
+  private void resize(int capacity) {
+    final long[] oldHashes = hashes;
+    final RowKey[] oldKeys = keys;
+    final Object[] oldValues = values;
+    allocate(capacity);
+    final int mask = capacity - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != null) {
+        int i = index(oldHashes[j], mask);
+        while (keys[i] != null) {
+          i = (i + 1) & mask;
+        }
+        hashes[i] = oldHashes[j];
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    hashes = new long[capacity];
+    keys = new RowKey[capacity];
+    values = new Object[capacity];
+  }
+
+  private static int index(long hash, int mask) {
+    // spreads the high bits, which linear probing on the low bits would ignore
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return (int) hash & mask;
+  }
+
+}
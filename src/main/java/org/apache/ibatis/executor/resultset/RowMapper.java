@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to a new result object, without going through the generic,
+ * reflective result mapping. Row mappers are generated for the simple result maps when the
+ * compiledRowMapping setting is enabled.
+ *
+ * @since 3.4.5
+ * @see RowMapperRegistry
+ */
+public interface RowMapper {
+
+  /**
+   * @return the result object, or null when no column of the row has a mapped value
+   *         and returnInstanceForEmptyRow is disabled
+   */
+  Object mapRow(ResultSet rs) throws SQLException;
+
+}
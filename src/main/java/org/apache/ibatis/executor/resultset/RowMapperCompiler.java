@@ -0,0 +1,145 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtNewMethod;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.ClassGenerator;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Generates with javassist a row mapper that creates the result object with its public default constructor,
+ * reads each mapped column by index with its type handler and calls the public setter of the property.
+ * Any mapping it cannot express this way makes the whole result map fall back to the usual mapping.
+ */
+final class RowMapperCompiler {
+
+  private static final Log log = LogFactory.getLog(RowMapperCompiler.class);
+
+  private static final String ROW_MAPPER_SUFFIX = "$$RowMapper$$";
+
+  private final Class<?> type;
+  private final Reflector reflector;
+  private final List<TypeHandler<?>> typeHandlers = new ArrayList<TypeHandler<?>>();
+  private final StringBuilder body = new StringBuilder();
+
+  RowMapperCompiler(Class<?> type, ReflectorFactory reflectorFactory) {
+    this.type = type;
+    this.reflector = reflectorFactory.findForClass(type);
+  }
+
+  static boolean canCompile(Class<?> type) {
+    if (Modifier.isAbstract(type.getModifiers()) || type.isArray() || type.isPrimitive() || !ClassGenerator.isAccessible(type)) {
+      return false;
+    }
+    try {
+      return Modifier.isPublic(type.getConstructor().getModifiers());
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return false when the mapping cannot be compiled
+   */
+  boolean addMapping(int columnIndex, String property, TypeHandler<?> typeHandler, boolean callSetterOnNull) {
+    Method setter = findSetter(property);
+    if (setter == null || typeHandler == null) {
+      return false;
+    }
+    Class<?> parameterType = setter.getParameterTypes()[0];
+    body.append("v = this.typeHandlers[").append(typeHandlers.size()).append("].getResult(rs, ").append(columnIndex).append(");\n");
+    body.append("if (v != null) { found = true; o.").append(setter.getName()).append('(').append(ClassGenerator.unwrap(parameterType, "v")).append("); }\n");
+    if (callSetterOnNull && !parameterType.isPrimitive()) {
+      body.append("else { o.").append(setter.getName()).append("((").append(ClassGenerator.sourceName(parameterType)).append(") null); }\n");
+    }
+    typeHandlers.add(typeHandler);
+    return true;
+  }
+
+  /**
+   * @return the row mapper, or null when it could not be generated
+   */
+  RowMapper compile(boolean returnInstanceForEmptyRow) {
+    String typeName = ClassGenerator.sourceName(type);
+    StringBuilder method = new StringBuilder();
+    method.append("public Object mapRow(java.sql.ResultSet rs) throws java.sql.SQLException {\n");
+    method.append(typeName).append(" o = new ").append(typeName).append("();\n");
+    method.append("boolean found = false;\n");
+    method.append("Object v;\n");
+    method.append(body);
+    if (returnInstanceForEmptyRow) {
+      method.append("return o;\n");
+    } else {
+      method.append("if (found) { return o; }\n");
+      method.append("return null;\n");
+    }
+    method.append("}");
+    try {
+      CtClass rowMapperClass = ClassGenerator.makeClass(type, ROW_MAPPER_SUFFIX, RowMapper.class);
+      CtClass typeHandlersClass = rowMapperClass.getClassPool().get(TypeHandler.class.getName() + "[]");
+      rowMapperClass.addField(new CtField(typeHandlersClass, "typeHandlers", rowMapperClass));
+      CtConstructor constructor = new CtConstructor(new CtClass[] { typeHandlersClass }, rowMapperClass);
+      constructor.setBody("{ this.typeHandlers = $1; }");
+      rowMapperClass.addConstructor(constructor);
+      rowMapperClass.addMethod(CtNewMethod.make(method.toString(), rowMapperClass));
+      Class<?> generatedClass = ClassGenerator.toClass(rowMapperClass, type);
+      Object[] constructorArgs = { typeHandlers.toArray(new TypeHandler<?>[typeHandlers.size()]) };
+      return (RowMapper) generatedClass.getConstructor(TypeHandler[].class).newInstance(constructorArgs);
+    } catch (Exception e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Could not compile a row mapper for " + type + ", its rows are mapped as usual. Cause: " + e);
+      }
+      return null;
+    }
+  }
+
+  /*
+   * The public setter the reflector uses for the property, properties with a dot or index,
+   * generic setters and fields are left to the usual mapping.
+   */
+  private Method findSetter(String property) {
+    if (property == null || !reflector.hasSetter(property)) {
+      return null;
+    }
+    Class<?> setterType = reflector.getSetterType(property);
+    for (Method method : type.getMethods()) {
+      if (!method.isBridge()
+          && method.getParameterTypes().length == 1
+          && method.getParameterTypes()[0].equals(setterType)
+          && PropertyNamer.isSetter(method.getName())
+          && property.equals(PropertyNamer.methodToProperty(method.getName()))
+          && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+}
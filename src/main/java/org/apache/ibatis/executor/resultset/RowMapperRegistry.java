@@ -0,0 +1,90 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The row mappers compiled for a configuration, by result map and columns of the result set.
+ * <p>
+ * Each row mapper is a class of its own, so the registry stops compiling once it holds
+ * {@link #MAX_ROW_MAPPERS} of them and the remaining result maps are mapped as usual.
+ *
+ * @since 3.4.5
+ * @see org.apache.ibatis.session.Configuration#isCompiledRowMapping()
+ */
+public class RowMapperRegistry {
+
+  public static final int MAX_ROW_MAPPERS = 1024;
+
+  /**
+   * Registered for the result maps that cannot be compiled, which are mapped as usual.
+   */
+  static final RowMapper INTERPRETED = new RowMapper() {
+    @Override
+    public Object mapRow(ResultSet rs) {
+      throw new UnsupportedOperationException("The row mapping is not compiled");
+    }
+  };
+
+  private final ConcurrentMap<String, RowMapper> rowMappers = new ConcurrentHashMap<String, RowMapper>();
+
+  /**
+   * @return the row mapper registered for the key, {@link #INTERPRETED} or null if none was registered yet
+   */
+  RowMapper getRowMapper(String key) {
+    return rowMappers.get(key);
+  }
+
+  /**
+   * Registers a row mapper unless another one was registered for the key in the meantime.
+   * @param rowMapper the row mapper, null when the mapping cannot be compiled
+   * @return the row mapper registered for the key
+   */
+  RowMapper addRowMapper(String key, RowMapper rowMapper) {
+    RowMapper existing = rowMappers.putIfAbsent(key, rowMapper == null ? INTERPRETED : rowMapper);
+    return existing != null ? existing : rowMappers.get(key);
+  }
+
+  /**
+   * @return the registered row mappers by key, with a null value for the result maps that are mapped as usual
+   */
+  public Map<String, RowMapper> getRowMappers() {
+    Map<String, RowMapper> result = new HashMap<String, RowMapper>();
+    for (Map.Entry<String, RowMapper> entry : rowMappers.entrySet()) {
+      result.put(entry.getKey(), entry.getValue() == INTERPRETED ? null : entry.getValue());
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  public boolean isFull() {
+    return rowMappers.size() >= MAX_ROW_MAPPERS;
+  }
+
+  public int size() {
+    return rowMappers.size();
+  }
+
+  public void clear() {
+    rowMappers.clear();
+  }
+
+}
@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * The mapping of a column that is not mapped by the result map to a property of the same name.
+ */
+class UnMappedColumnAutoMapping {
+
+  final String column;
+  final int columnIndex;
+  final String property;
+  final TypeHandler<?> typeHandler;
+  final boolean primitive;
+
+  UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    this.column = column;
+    this.columnIndex = columnIndex;
+    this.property = property;
+    this.typeHandler = typeHandler;
+    this.primitive = primitive;
+  }
+
+}
@@ -19,6 +19,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import org.apache.ibatis.dialect.Dialect;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
@@ -27,6 +28,8 @@ import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -54,7 +57,6 @@ public abstract class BaseStatementHandler implements StatementHandler {
     this.configuration = mappedStatement.getConfiguration();
     this.executor = executor;
     this.mappedStatement = mappedStatement;
-    this.rowBounds = rowBounds;
 
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.objectFactory = configuration.getObjectFactory();
@@ -64,12 +66,40 @@ public abstract class BaseStatementHandler implements StatementHandler {
       boundSql = mappedStatement.getBoundSql(parameterObject);
     }
 
+    Dialect dialect = getPagingDialect(rowBounds);
+    String pagedSql = dialect == null ? null : dialect.getPagedSql(boundSql.getSql(), rowBounds.getOffset(), rowBounds.getLimit());
+    if (pagedSql != null) {
+      boundSql = boundSql.withSql(pagedSql);
+      if (dialect.supportsOffset() || rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET) {
+        rowBounds = RowBounds.DEFAULT;
+      } else {
+        rowBounds = new RowBounds(rowBounds.getOffset(), RowBounds.NO_ROW_LIMIT);
+      }
+    }
+
+    this.rowBounds = rowBounds;
     this.boundSql = boundSql;
 
     this.parameterHandler = configuration.newParameterHandler(mappedStatement, parameterObject, boundSql);
     this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, rowBounds, parameterHandler, resultHandler, boundSql);
   }
 
+  /*
+   * The dialect that pages the statement on the database, when its rows are its results
+   */
+  private Dialect getPagingDialect(RowBounds rowBounds) {
+    if (!configuration.isServerSidePaging()
+        || rowBounds == null
+        || (rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT)
+        || mappedStatement.getSqlCommandType() != SqlCommandType.SELECT
+        || mappedStatement.getStatementType() == StatementType.CALLABLE
+        || mappedStatement.hasNestedResultMaps()
+        || mappedStatement.getResultSets() != null) {
+      return null;
+    }
+    return configuration.getPagingDialect();
+  }
+
   @Override
   public BoundSql getBoundSql() {
     return boundSql;
@@ -119,6 +149,14 @@ public abstract class BaseStatementHandler implements StatementHandler {
       stmt.setFetchSize(fetchSize);
       return;
     }
+    if (configuration.isAdaptiveFetchSize()) {
+      Integer adaptiveFetchSize = configuration.getFetchSizeStatistics().getFetchSize(mappedStatement.getId(),
+          configuration.getAdaptiveFetchSizeMin(), configuration.getAdaptiveFetchSizeMax());
+      if (adaptiveFetchSize != null) {
+        stmt.setFetchSize(adaptiveFetchSize);
+        return;
+      }
+    }
     Integer defaultFetchSize = configuration.getDefaultFetchSize();
     if (defaultFetchSize != null) {
       stmt.setFetchSize(defaultFetchSize);
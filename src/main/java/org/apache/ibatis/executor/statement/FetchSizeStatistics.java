@@ -0,0 +1,125 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Row counts observed for each mapped statement, used to choose the fetch size of the statements
+ * that do not set one when adaptive fetch sizes are enabled.
+ * <p>
+ * The fetch size of a statement is its moving average row count plus one, so that the usual result
+ * is read in a single round trip, bounded by the configured minimum and maximum so that big results
+ * are still streamed.
+ *
+ * @since 3.4.5
+ * @see org.apache.ibatis.session.Configuration#isAdaptiveFetchSize()
+ */
+public class FetchSizeStatistics {
+
+  private final ConcurrentMap<String, StatementStatistics> statistics = new ConcurrentHashMap<String, StatementStatistics>();
+
+  public void addRowCount(String statementId, int rowCount) {
+    StatementStatistics statementStatistics = statistics.get(statementId);
+    if (statementStatistics == null) {
+      statementStatistics = new StatementStatistics();
+      StatementStatistics existing = statistics.putIfAbsent(statementId, statementStatistics);
+      if (existing != null) {
+        statementStatistics = existing;
+      }
+    }
+    statementStatistics.addRowCount(rowCount);
+  }
+
+  /*
+   * The fetch size to use for the statement
+   *
+   * @return null when no execution of the statement has been observed
+   */
+  public Integer getFetchSize(String statementId, int minFetchSize, int maxFetchSize) {
+    StatementStatistics statementStatistics = statistics.get(statementId);
+    return statementStatistics == null ? null : statementStatistics.chooseFetchSize(minFetchSize, maxFetchSize);
+  }
+
+  public StatementStatistics getStatistics(String statementId) {
+    return statistics.get(statementId);
+  }
+
+  public Map<String, StatementStatistics> getAllStatistics() {
+    return Collections.unmodifiableMap(new HashMap<String, StatementStatistics>(statistics));
+  }
+
+  public void clear() {
+    statistics.clear();
+  }
+
+  public static class StatementStatistics {
+
+    // weight of the last execution in the moving average
+    private static final double WEIGHT = 0.25;
+
+    private long executionCount;
+    private double averageRowCount;
+    private int maxRowCount;
+    private int fetchSize;
+
+    private synchronized void addRowCount(int rowCount) {
+      if (executionCount == 0) {
+        averageRowCount = rowCount;
+      } else {
+        averageRowCount += (rowCount - averageRowCount) * WEIGHT;
+      }
+      executionCount++;
+      maxRowCount = Math.max(maxRowCount, rowCount);
+    }
+
+    private synchronized int chooseFetchSize(int minFetchSize, int maxFetchSize) {
+      long size = (long) Math.ceil(averageRowCount) + 1;
+      fetchSize = (int) Math.max(minFetchSize, Math.min(maxFetchSize, size));
+      return fetchSize;
+    }
+
+    public synchronized long getExecutionCount() {
+      return executionCount;
+    }
+
+    public synchronized double getAverageRowCount() {
+      return averageRowCount;
+    }
+
+    public synchronized int getMaxRowCount() {
+      return maxRowCount;
+    }
+
+    /*
+     * The fetch size last chosen for the statement, 0 if none was chosen yet
+     */
+    public synchronized int getFetchSize() {
+      return fetchSize;
+    }
+
+    @Override
+    public synchronized String toString() {
+      return "StatementStatistics{executionCount=" + executionCount + ", averageRowCount=" + averageRowCount
+          + ", maxRowCount=" + maxRowCount + ", fetchSize=" + fetchSize + "}";
+    }
+  }
+
+}
@@ -49,6 +49,30 @@ public class BoundSql {
     this.metaParameters = configuration.newMetaObject(additionalParameters);
   }
 
+  private BoundSql(BoundSql boundSql, String sql, List<ParameterMapping> parameterMappings) {
+    this.sql = sql;
+    this.parameterMappings = parameterMappings;
+    this.parameterObject = boundSql.parameterObject;
+    this.additionalParameters = boundSql.additionalParameters;
+    this.metaParameters = boundSql.metaParameters;
+  }
+
+  /**
+   * Returns a BoundSql with another SQL but the same parameters, e.g. a select rewritten to page its rows.
+   * @since 3.4.5
+   */
+  public BoundSql withSql(String sql) {
+    return new BoundSql(this, sql, parameterMappings);
+  }
+
+  /**
+   * Returns a BoundSql with another SQL and parameter mappings that may also refer to the additional parameters of this one.
+   * @since 3.4.5
+   */
+  public BoundSql withSql(String sql, List<ParameterMapping> parameterMappings) {
+    return new BoundSql(this, sql, parameterMappings);
+  }
+
   public String getSql() {
     return sql;
   }
@@ -45,6 +45,8 @@ public class ResultMapping {
   private String resultSet;
   private String foreignColumn;
   private boolean lazy;
+  private String batchQueryId;
+  private String batchKeyProperty;
 
   ResultMapping() {
   }
@@ -131,6 +133,16 @@ public class ResultMapping {
       resultMapping.lazy = lazy;
       return this;
     }
+
+    public Builder batchQueryId(String batchQueryId) {
+      resultMapping.batchQueryId = batchQueryId;
+      return this;
+    }
+
+    public Builder batchKeyProperty(String batchKeyProperty) {
+      resultMapping.batchKeyProperty = batchKeyProperty;
+      return this;
+    }
     
     public ResultMapping build() {
       // lock down collections
@@ -167,6 +179,14 @@ public class ResultMapping {
           throw new IllegalStateException("There should be the same number of columns and foreignColumns in property " + resultMapping.property);
         }
       }
+      if (resultMapping.batchQueryId != null) {
+        if (resultMapping.nestedQueryId == null) {
+          throw new IllegalStateException("A batch select requires a nested select in property " + resultMapping.property);
+        }
+        if (resultMapping.batchKeyProperty == null) {
+          throw new IllegalStateException("A batch select requires a batch key in property " + resultMapping.property);
+        }
+      }
     }
     
     private void resolveTypeHandler() {
@@ -250,6 +270,14 @@ public class ResultMapping {
   public void setLazy(boolean lazy) {
     this.lazy = lazy;
   }
+
+  public String getBatchQueryId() {
+    return batchQueryId;
+  }
+
+  public String getBatchKeyProperty() {
+    return batchKeyProperty;
+  }
   
   @Override
   public boolean equals(Object o) {
@@ -298,6 +326,8 @@ public class ResultMapping {
     sb.append(", resultSet='").append(resultSet).append('\'');
     sb.append(", foreignColumn='").append(foreignColumn).append('\'');
     sb.append(", lazy=").append(lazy);
+    sb.append(", batchQueryId='").append(batchQueryId).append('\'');
+    sb.append(", batchKeyProperty='").append(batchKeyProperty).append('\'');
     sb.append('}');
     return sb.toString();
   }
@@ -0,0 +1,234 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds the clauses of the outer query of a select, outside of string literals, quoted identifiers,
+ * comments and parentheses.
+ *
+ * @since 3.4.5
+ */
+public final class SqlClauses {
+
+  private SqlClauses() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * Removes the trailing comments, whitespace and semicolons of a statement, so that clauses can be appended to it.
+   */
+  public static String trimSql(String sql) {
+    String outerQuery = getOuterQuery(sql);
+    int end = outerQuery.length();
+    while (end > 0 && (Character.isWhitespace(outerQuery.charAt(end - 1)) || outerQuery.charAt(end - 1) == ';')) {
+      end--;
+    }
+    int start = 0;
+    while (start < end && Character.isWhitespace(sql.charAt(start))) {
+      start++;
+    }
+    return sql.substring(start, end);
+  }
+
+  /**
+   * Whether the outer query already limits its rows with a LIMIT, OFFSET or FETCH clause.
+   */
+  public static boolean hasRowLimitingClause(String sql) {
+    String outerQuery = getOuterQuery(sql);
+    return indexOfKeyword(outerQuery, "limit", 0) != -1
+        || indexOfKeyword(outerQuery, "offset", 0) != -1
+        || indexOfKeyword(outerQuery, "fetch", 0) != -1;
+  }
+
+  /**
+   * Whether the outer query locks its rows, with FOR UPDATE, FOR SHARE or LOCK IN SHARE MODE,
+   * or ends with another FOR clause such as FOR READ ONLY.
+   */
+  public static boolean hasLockingClause(String sql) {
+    String outerQuery = getOuterQuery(sql);
+    return indexOfKeyword(outerQuery, "for", 0) != -1 || indexOfKeywords(outerQuery, 0, "lock", "in") != -1;
+  }
+
+  /**
+   * Removes the trailing ORDER BY of a select. It is kept when it is not the last clause of the outer query,
+   * as an ORDER BY followed by LIMIT, OFFSET or FETCH decides which rows are selected.
+   */
+  public static String removeOrderBy(String sql) {
+    sql = trimSql(sql);
+    String outerQuery = getOuterQuery(sql);
+    int orderBy = lastIndexOfOrderBy(outerQuery);
+    if (orderBy == -1 || endOfOrderBy(outerQuery, orderBy) < outerQuery.length()) {
+      return sql;
+    }
+    return sql.substring(0, orderBy).trim();
+  }
+
+  /**
+   * The expressions the outer query of a select is ordered by, without their ASC, DESC and NULLS clauses.
+   *
+   * @return the expressions, empty when the select has no ORDER BY
+   */
+  public static List<String> getOrderByExpressions(String sql) {
+    sql = trimSql(sql);
+    String outerQuery = getOuterQuery(sql);
+    int orderBy = lastIndexOfOrderBy(outerQuery);
+    if (orderBy == -1) {
+      return Collections.emptyList();
+    }
+    int start = indexOfKeyword(outerQuery, "by", orderBy + "order".length()) + "by".length();
+    int end = endOfOrderBy(outerQuery, orderBy);
+    List<String> expressions = new ArrayList<String>();
+    for (int comma = outerQuery.indexOf(',', start); comma != -1 && comma < end; comma = outerQuery.indexOf(',', start)) {
+      expressions.add(removeOrdering(sql.substring(start, comma).trim()));
+      start = comma + 1;
+    }
+    expressions.add(removeOrdering(sql.substring(start, end).trim()));
+    return expressions;
+  }
+
+  /* the last ORDER BY of the outer query, or -1 */
+  private static int lastIndexOfOrderBy(String outerQuery) {
+    int orderBy = -1;
+    for (int index = indexOfKeywords(outerQuery, 0, "order", "by"); index != -1; index = indexOfKeywords(outerQuery, index + 1, "order", "by")) {
+      orderBy = index;
+    }
+    return orderBy;
+  }
+
+  /* the LIMIT, OFFSET, FETCH or FOR clause that follows the ORDER BY, or the end of the select */
+  private static int endOfOrderBy(String outerQuery, int orderBy) {
+    int end = outerQuery.length();
+    for (String keyword : new String[] { "limit", "offset", "fetch", "for" }) {
+      int index = indexOfKeyword(outerQuery, keyword, orderBy);
+      if (index != -1 && index < end) {
+        end = index;
+      }
+    }
+    return end;
+  }
+
+  private static String removeOrdering(String expression) {
+    String lowerExpression = expression.toLowerCase(Locale.ENGLISH);
+    for (String ordering : new String[] { " nulls first", " nulls last", " asc", " desc" }) {
+      if (lowerExpression.endsWith(ordering)) {
+        lowerExpression = lowerExpression.substring(0, lowerExpression.length() - ordering.length()).trim();
+      }
+    }
+    return expression.substring(0, lowerExpression.length());
+  }
+
+  /**
+   * The statement in lower case, with the content of string literals, quoted identifiers and parentheses
+   * and the comments replaced by spaces. Quotes and outer parentheses are kept, as are the positions of
+   * the characters, so that a clause found in the outer query can be cut out of the statement.
+   */
+  static String getOuterQuery(String sql) {
+    char[] chars = new char[sql.length()];
+    int depth = 0;
+    int i = 0;
+    while (i < sql.length()) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"' || c == '`') {
+        int end = sql.indexOf(c, i + 1);
+        end = end == -1 ? sql.length() : end + 1;
+        for (int j = i; j < end; j++) {
+          chars[j] = depth == 0 && (j == i || j == end - 1) ? c : ' ';
+        }
+        i = end;
+      } else if (c == '-' && sql.startsWith("--", i)) {
+        int end = sql.indexOf('\n', i);
+        end = end == -1 ? sql.length() : end;
+        blank(chars, i, end);
+        i = end;
+      } else if (c == '/' && sql.startsWith("/*", i)) {
+        int end = sql.indexOf("*/", i + 2);
+        end = end == -1 ? sql.length() : end + 2;
+        blank(chars, i, end);
+        i = end;
+      } else {
+        if (c == ')') {
+          depth--;
+        }
+        chars[i] = depth > 0 ? ' ' : Character.toLowerCase(c);
+        if (c == '(') {
+          depth++;
+        }
+        i++;
+      }
+    }
+    return new String(chars);
+  }
+
+  private static void blank(char[] chars, int start, int end) {
+    for (int j = start; j < end; j++) {
+      chars[j] = ' ';
+    }
+  }
+
+  /* the index of the keyword in the outer query, or -1 */
+  static int indexOfKeyword(String outerQuery, String keyword, int fromIndex) {
+    int index = outerQuery.indexOf(keyword, fromIndex);
+    while (index != -1 && !isKeywordAt(outerQuery, index, keyword)) {
+      index = outerQuery.indexOf(keyword, index + 1);
+    }
+    return index;
+  }
+
+  /* the index of the keywords separated by whitespace, like ORDER BY, or -1 */
+  static int indexOfKeywords(String outerQuery, int fromIndex, String... keywords) {
+    int index = indexOfKeyword(outerQuery, keywords[0], fromIndex);
+    while (index != -1 && !hasKeywordsAt(outerQuery, index, keywords)) {
+      index = indexOfKeyword(outerQuery, keywords[0], index + 1);
+    }
+    return index;
+  }
+
+  private static boolean hasKeywordsAt(String outerQuery, int index, String... keywords) {
+    int i = index + keywords[0].length();
+    for (int k = 1; k < keywords.length; k++) {
+      int next = skipWhitespace(outerQuery, i);
+      if (next == i || !isKeywordAt(outerQuery, next, keywords[k])) {
+        return false;
+      }
+      i = next + keywords[k].length();
+    }
+    return true;
+  }
+
+  private static boolean isKeywordAt(String sql, int index, String keyword) {
+    int end = index + keyword.length();
+    return sql.startsWith(keyword, index)
+        && (index == 0 || !isIdentifierPart(sql.charAt(index - 1)))
+        && (end == sql.length() || !isIdentifierPart(sql.charAt(end)));
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '$';
+  }
+
+  static int skipWhitespace(String sql, int index) {
+    while (index < sql.length() && Character.isWhitespace(sql.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+}
@@ -23,6 +23,8 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SavepointExecutor;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
@@ -92,6 +94,11 @@ public class Plugin implements InvocationHandler {
 
   private static Class<?>[] getAllInterfaces(Class<?> type, Map<Class<?>, Set<Method>> signatureMap) {
     Set<Class<?>> interfaces = new HashSet<Class<?>>();
+    // savepoints are not part of Executor, an intercepted executor must still support them
+    if (signatureMap.containsKey(Executor.class) && Executor.class.isAssignableFrom(type)
+        && SavepointExecutor.class.isAssignableFrom(type)) {
+      interfaces.add(SavepointExecutor.class);
+    }
     while (type != null) {
       for (Class<?> c : type.getInterfaces()) {
         if (signatureMap.containsKey(c)) {
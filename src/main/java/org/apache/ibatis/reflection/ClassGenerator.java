@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+
+/**
+ * Generates with javassist the classes that call the public members of a target class directly,
+ * instead of through reflection.
+ * <p>
+ * Each generated class is defined by a class loader of its own whose parent is the loader of the target class.
+ * The loader of the application is not opened up, which recent JDKs do not allow, and the generated class is
+ * unloaded once the object that uses it is gone. The generated code may only use public members of the target.
+ *
+ * @since 3.4.5
+ */
+public final class ClassGenerator {
+
+  private static final AtomicInteger classCount = new AtomicInteger();
+
+  private ClassGenerator() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Whether generated classes can use the target class: a public top level or static nested class,
+   * not loaded by the bootstrap class loader.
+   */
+  public static boolean isAccessible(Class<?> target) {
+    int modifiers = target.getModifiers();
+    return Modifier.isPublic(modifiers)
+        && (target.getEnclosingClass() == null || Modifier.isStatic(modifiers))
+        && target.getClassLoader() != null;
+  }
+
+  /**
+   * Makes a class implementing the interface, named after the target class.
+   *
+   * @throws NotFoundException when the loader of the target class does not see the interface of this MyBatis
+   */
+  public static CtClass makeClass(Class<?> target, String suffix, Class<?> interfaceType) throws NotFoundException {
+    ClassLoader classLoader = target.getClassLoader();
+    try {
+      if (Class.forName(interfaceType.getName(), false, classLoader) != interfaceType) {
+        throw new NotFoundException(interfaceType.getName() + " is loaded twice");
+      }
+    } catch (ClassNotFoundException e) {
+      throw new NotFoundException(interfaceType.getName(), e);
+    }
+    ClassPool pool = new ClassPool(true);
+    pool.appendClassPath(new LoaderClassPath(classLoader));
+    pool.appendClassPath(new LoaderClassPath(interfaceType.getClassLoader()));
+    CtClass generatedClass = pool.makeClass(target.getName() + suffix + classCount.incrementAndGet());
+    generatedClass.addInterface(pool.get(interfaceType.getName()));
+    return generatedClass;
+  }
+
+  /**
+   * Defines the generated class in a class loader of its own, a child of the loader of the target class.
+   */
+  public static Class<?> toClass(CtClass generatedClass, Class<?> target) throws CannotCompileException, IOException {
+    try {
+      byte[] bytecode = generatedClass.toBytecode();
+      return new GeneratedClassLoader(target.getClassLoader()).defineClass(generatedClass.getName(), bytecode, target.getProtectionDomain());
+    } finally {
+      generatedClass.detach();
+    }
+  }
+
+  /**
+   * @return the source code of the type, as used in a declaration or a cast
+   */
+  public static String sourceName(Class<?> type) {
+    return type.isArray() ? sourceName(type.getComponentType()) + "[]" : type.getName();
+  }
+
+  /**
+   * @return the source code casting the value to the type, or unboxing it for a primitive type
+   */
+  public static String unwrap(Class<?> type, String value) {
+    if (!type.isPrimitive()) {
+      return "(" + sourceName(type) + ") " + value;
+    } else if (type == boolean.class) {
+      return "((java.lang.Boolean) " + value + ").booleanValue()";
+    } else if (type == char.class) {
+      return "((java.lang.Character) " + value + ").charValue()";
+    } else {
+      return "((java.lang.Number) " + value + ")." + type.getName() + "Value()";
+    }
+  }
+
+  private static class GeneratedClassLoader extends ClassLoader {
+
+    GeneratedClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> defineClass(String name, byte[] bytecode, ProtectionDomain protectionDomain) {
+      return defineClass(name, bytecode, 0, bytecode.length, protectionDomain);
+    }
+
+  }
+
+}
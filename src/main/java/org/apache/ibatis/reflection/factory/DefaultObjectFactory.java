@@ -19,6 +19,7 @@ import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -27,6 +28,8 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.ibatis.reflection.ReflectionException;
 
@@ -37,6 +40,13 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
 
   private static final long serialVersionUID = -8855120656740914948L;
 
+  // constructors called this many times through reflection are called by a generated instantiator instead
+  private static final int COMPILE_THRESHOLD = 16;
+
+  private static final Object[] NO_ARGS = new Object[0];
+
+  private transient volatile ConcurrentMap<Class<?>, ConcurrentMap<List<Class<?>>, Instantiator>> instantiators;
+
   @Override
   public <T> T create(Class<T> type) {
     return create(type, null, null);
@@ -55,21 +65,13 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
     // no props for default
   }
 
+  @SuppressWarnings("unchecked")
   <T> T instantiateClass(Class<T> type, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
     try {
-      Constructor<T> constructor;
       if (constructorArgTypes == null || constructorArgs == null) {
-        constructor = type.getDeclaredConstructor();
-        if (!constructor.isAccessible()) {
-          constructor.setAccessible(true);
-        }
-        return constructor.newInstance();
-      }
-      constructor = type.getDeclaredConstructor(constructorArgTypes.toArray(new Class[constructorArgTypes.size()]));
-      if (!constructor.isAccessible()) {
-        constructor.setAccessible(true);
+        return (T) getInstantiator(type, Collections.<Class<?>>emptyList()).newInstance(NO_ARGS);
       }
-      return constructor.newInstance(constructorArgs.toArray(new Object[constructorArgs.size()]));
+      return (T) getInstantiator(type, constructorArgTypes).newInstance(constructorArgs.toArray());
     } catch (Exception e) {
       StringBuilder argTypes = new StringBuilder();
       if (constructorArgTypes != null && !constructorArgTypes.isEmpty()) {
@@ -91,6 +93,77 @@ public class DefaultObjectFactory implements ObjectFactory, Serializable {
     }
   }
 
+  /**
+   * Resolves the constructor of a type once for its argument types. It is called through reflection at first and
+   * by a generated instantiator once it is called often, when it and its class are public.
+   *
+   * @since 3.4.5
+   */
+  public Instantiator getInstantiator(Class<?> type, List<Class<?>> constructorArgTypes) throws NoSuchMethodException {
+    ConcurrentMap<Class<?>, ConcurrentMap<List<Class<?>>, Instantiator>> instantiatorsByType = instantiators;
+    if (instantiatorsByType == null) {
+      // not serialized with the factory
+      instantiatorsByType = new ConcurrentHashMap<Class<?>, ConcurrentMap<List<Class<?>>, Instantiator>>();
+      instantiators = instantiatorsByType;
+    }
+    ConcurrentMap<List<Class<?>>, Instantiator> instantiatorsBySignature = instantiatorsByType.get(type);
+    if (instantiatorsBySignature == null) {
+      instantiatorsBySignature = new ConcurrentHashMap<List<Class<?>>, Instantiator>();
+      ConcurrentMap<List<Class<?>>, Instantiator> existing = instantiatorsByType.putIfAbsent(type, instantiatorsBySignature);
+      if (existing != null) {
+        instantiatorsBySignature = existing;
+      }
+    }
+    Instantiator instantiator = instantiatorsBySignature.get(constructorArgTypes);
+    if (instantiator == null) {
+      Constructor<?> constructor = type.getDeclaredConstructor(constructorArgTypes.toArray(new Class[constructorArgTypes.size()]));
+      if (!constructor.isAccessible()) {
+        constructor.setAccessible(true);
+      }
+      instantiator = new ReflectiveInstantiator(constructor);
+      // the list of the caller may change afterwards
+      Instantiator existing = instantiatorsBySignature.putIfAbsent(new ArrayList<Class<?>>(constructorArgTypes), instantiator);
+      if (existing != null) {
+        instantiator = existing;
+      }
+    } else if (instantiator instanceof ReflectiveInstantiator) {
+      ReflectiveInstantiator reflectiveInstantiator = (ReflectiveInstantiator) instantiator;
+      if (++reflectiveInstantiator.invocations == COMPILE_THRESHOLD && InstantiatorCompiler.canCompile(reflectiveInstantiator.constructor)) {
+        Instantiator compiledInstantiator = compileInstantiator(reflectiveInstantiator.constructor);
+        if (compiledInstantiator != null) {
+          instantiatorsBySignature.replace(constructorArgTypes, reflectiveInstantiator, compiledInstantiator);
+        }
+      }
+    }
+    return instantiator;
+  }
+
+  private Instantiator compileInstantiator(Constructor<?> constructor) {
+    try {
+      return InstantiatorCompiler.compile(constructor);
+    } catch (NoClassDefFoundError e) {
+      // javassist is an optional dependency
+      return null;
+    }
+  }
+
+  private static class ReflectiveInstantiator implements Instantiator {
+
+    private final Constructor<?> constructor;
+    // not exact when several threads call it, it only decides when to generate an instantiator
+    private int invocations;
+
+    ReflectiveInstantiator(Constructor<?> constructor) {
+      this.constructor = constructor;
+    }
+
+    @Override
+    public Object newInstance(Object[] args) throws Exception {
+      return constructor.newInstance(args);
+    }
+
+  }
+
   protected Class<?> resolveInterface(Class<?> type) {
     Class<?> classToCreate;
     if (type == List.class || type == Collection.class || type == Iterable.class) {
@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.factory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+import javassist.CtClass;
+import javassist.CtNewMethod;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.ClassGenerator;
+
+/**
+ * Generates with javassist an instantiator that calls a public constructor directly, unwrapping the arguments
+ * of primitive parameters, instead of through reflection.
+ */
+final class InstantiatorCompiler {
+
+  private static final Log log = LogFactory.getLog(InstantiatorCompiler.class);
+
+  private static final String INSTANTIATOR_SUFFIX = "$$Instantiator$$";
+
+  private InstantiatorCompiler() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static boolean canCompile(Constructor<?> constructor) {
+    Class<?> type = constructor.getDeclaringClass();
+    return Modifier.isPublic(constructor.getModifiers())
+        && !Modifier.isAbstract(type.getModifiers())
+        && ClassGenerator.isAccessible(type);
+  }
+
+  /**
+   * @return the instantiator, or null when it could not be generated
+   */
+  static Instantiator compile(Constructor<?> constructor) {
+    Class<?> type = constructor.getDeclaringClass();
+    Class<?>[] parameterTypes = constructor.getParameterTypes();
+    StringBuilder method = new StringBuilder();
+    method.append("public Object newInstance(Object[] args) {\n");
+    method.append("return new ").append(ClassGenerator.sourceName(type)).append('(');
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (i > 0) {
+        method.append(", ");
+      }
+      method.append(ClassGenerator.unwrap(parameterTypes[i], "args[" + i + "]"));
+    }
+    method.append(");\n}");
+    try {
+      CtClass instantiatorClass = ClassGenerator.makeClass(type, INSTANTIATOR_SUFFIX, Instantiator.class);
+      instantiatorClass.addMethod(CtNewMethod.make(method.toString(), instantiatorClass));
+      Class<?> generatedClass = ClassGenerator.toClass(instantiatorClass, type);
+      return (Instantiator) generatedClass.newInstance();
+    } catch (Exception e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Could not generate an instantiator for " + constructor + ", it is called through reflection. Cause: " + e);
+      }
+      return null;
+    }
+  }
+
+}
@@ -38,7 +38,10 @@ import org.apache.ibatis.cache.decorators.WeakCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
+import org.apache.ibatis.datasource.routing.ReplicaRoutingDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.dialect.DialectRegistry;
 import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
@@ -49,8 +52,13 @@ import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.AutoMappingRegistry;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.OrderByRegistry;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.RowMapper;
+import org.apache.ibatis.executor.resultset.RowMapperRegistry;
+import org.apache.ibatis.executor.statement.FetchSizeStatistics;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -118,6 +126,13 @@ public class Configuration {
   protected Set<String> lazyLoadTriggerMethods = new HashSet<String>(Arrays.asList(new String[] { "equals", "clone", "hashCode", "toString" }));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected int batchFetchSize = 100;
+  protected boolean adaptiveFetchSize;
+  protected int adaptiveFetchSizeMin = 10;
+  protected int adaptiveFetchSizeMax = 1000;
+  protected boolean serverSidePaging;
+  protected Dialect dialect;
+  protected boolean compiledRowMapping;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
@@ -141,6 +156,11 @@ public class Configuration {
 
   protected final MapperRegistry mapperRegistry = new MapperRegistry(this);
   protected final InterceptorChain interceptorChain = new InterceptorChain();
+  protected final FetchSizeStatistics fetchSizeStatistics = new FetchSizeStatistics();
+  protected final DialectRegistry dialectRegistry = new DialectRegistry();
+  protected final RowMapperRegistry rowMapperRegistry = new RowMapperRegistry();
+  protected final AutoMappingRegistry autoMappingRegistry = new AutoMappingRegistry();
+  protected final OrderByRegistry orderByRegistry = new OrderByRegistry();
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
@@ -178,6 +198,7 @@ public class Configuration {
     typeAliasRegistry.registerAlias("JNDI", JndiDataSourceFactory.class);
     typeAliasRegistry.registerAlias("POOLED", PooledDataSourceFactory.class);
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
+    typeAliasRegistry.registerAlias("ROUTING", ReplicaRoutingDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
     typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
@@ -241,6 +262,7 @@ public class Configuration {
 
   public void setCallSettersOnNulls(boolean callSettersOnNulls) {
     this.callSettersOnNulls = callSettersOnNulls;
+    rowMapperRegistry.clear();
   }
 
   public boolean isUseActualParamName() {
@@ -257,6 +279,7 @@ public class Configuration {
 
   public void setReturnInstanceForEmptyRow(boolean returnEmptyInstance) {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
+    rowMapperRegistry.clear();
   }
 
   public String getDatabaseId() {
@@ -297,6 +320,8 @@ public class Configuration {
 
   public void setMapUnderscoreToCamelCase(boolean mapUnderscoreToCamelCase) {
     this.mapUnderscoreToCamelCase = mapUnderscoreToCamelCase;
+    autoMappingRegistry.clear();
+    rowMapperRegistry.clear();
   }
 
   public void addLoadedResource(String resource) {
@@ -335,6 +360,7 @@ public class Configuration {
    */
   public void setAutoMappingUnknownColumnBehavior(AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior) {
     this.autoMappingUnknownColumnBehavior = autoMappingUnknownColumnBehavior;
+    autoMappingRegistry.clear();
   }
 
   public boolean isLazyLoadingEnabled() {
@@ -426,6 +452,157 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * @since 3.4.5
+   */
+  public int getBatchFetchSize() {
+    return batchFetchSize;
+  }
+
+  /**
+   * Sets the maximum number of keys passed to a batch select at once.
+   * @since 3.4.5
+   */
+  public void setBatchFetchSize(int batchFetchSize) {
+    this.batchFetchSize = batchFetchSize;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public boolean isAdaptiveFetchSize() {
+    return adaptiveFetchSize;
+  }
+
+  /**
+   * Enables choosing the fetch size of the statements that do not set one from the row counts
+   * of their previous executions.
+   * @since 3.4.5
+   */
+  public void setAdaptiveFetchSize(boolean adaptiveFetchSize) {
+    this.adaptiveFetchSize = adaptiveFetchSize;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public int getAdaptiveFetchSizeMin() {
+    return adaptiveFetchSizeMin;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public void setAdaptiveFetchSizeMin(int adaptiveFetchSizeMin) {
+    this.adaptiveFetchSizeMin = adaptiveFetchSizeMin;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public int getAdaptiveFetchSizeMax() {
+    return adaptiveFetchSizeMax;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public void setAdaptiveFetchSizeMax(int adaptiveFetchSizeMax) {
+    this.adaptiveFetchSizeMax = adaptiveFetchSizeMax;
+  }
+
+  /**
+   * The row counts observed for the statements, and the fetch sizes chosen from them.
+   * @since 3.4.5
+   */
+  public FetchSizeStatistics getFetchSizeStatistics() {
+    return fetchSizeStatistics;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public boolean isServerSidePaging() {
+    return serverSidePaging;
+  }
+
+  /**
+   * Enables paging the selects called with a RowBounds on the database, with the SQL of a {@link Dialect},
+   * instead of skipping the rows on the client.
+   * @since 3.4.5
+   */
+  public void setServerSidePaging(boolean serverSidePaging) {
+    this.serverSidePaging = serverSidePaging;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public Dialect getDialect() {
+    return dialect;
+  }
+
+  /**
+   * Sets the dialect used for server side paging instead of the one registered for the databaseId.
+   * @since 3.4.5
+   */
+  public void setDialect(Dialect dialect) {
+    this.dialect = dialect;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public DialectRegistry getDialectRegistry() {
+    return dialectRegistry;
+  }
+
+  /**
+   * The dialect used for server side paging: the one set, else the one registered for the databaseId.
+   * @return the dialect or null if the database has none, in which case the rows are skipped on the client
+   * @since 3.4.5
+   */
+  public Dialect getPagingDialect() {
+    return dialect != null ? dialect : dialectRegistry.getDialect(databaseId);
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public boolean isCompiledRowMapping() {
+    return compiledRowMapping;
+  }
+
+  /**
+   * Enables mapping the rows of simple result maps with generated {@link RowMapper}s,
+   * which call the type handlers and setters directly instead of through reflection.
+   * @since 3.4.5
+   */
+  public void setCompiledRowMapping(boolean compiledRowMapping) {
+    this.compiledRowMapping = compiledRowMapping;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public RowMapperRegistry getRowMapperRegistry() {
+    return rowMapperRegistry;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public AutoMappingRegistry getAutoMappingRegistry() {
+    return autoMappingRegistry;
+  }
+
+  /**
+   * @since 3.4.5
+   */
+  public OrderByRegistry getOrderByRegistry() {
+    return orderByRegistry;
+  }
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
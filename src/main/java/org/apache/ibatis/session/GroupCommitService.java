@@ -0,0 +1,238 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Coalesces the inserts, updates and deletes submitted by many threads into shared transactions (group commit).
+ * <p>
+ * Requests are queued and executed by a single background thread, which runs up to maxBatchSize of
+ * them in one BATCH session and commits once. A group is started by the first waiting request and
+ * closed when it is full or flushWindow milliseconds later, whichever comes first. Each caller gets a
+ * Future holding the update count of its statement, completed once the group is committed.
+ * <p>
+ * When a group fails, its requests are run again one by one, each in its own transaction, so that
+ * only the failing requests complete with an exception.
+ *
+ * @since 3.4.5
+ */
+public class GroupCommitService {
+
+  private static final Log log = LogFactory.getLog(GroupCommitService.class);
+  private static final AtomicInteger threadCount = new AtomicInteger();
+  private static final Request CLOSE = new Request(null, null);
+
+  private final SqlSessionFactory sqlSessionFactory;
+  private final int maxBatchSize;
+  private final long flushWindow;
+  private final BlockingQueue<Request> queue = new LinkedBlockingQueue<Request>();
+  private final Thread worker;
+  private volatile boolean closed;
+
+  /*
+   * @param sqlSessionFactory the factory the sessions are opened from
+   * @param maxBatchSize the maximum number of statements committed together
+   * @param flushWindow the maximum time, in milliseconds, a request waits for others to join its group
+   */
+  public GroupCommitService(SqlSessionFactory sqlSessionFactory, int maxBatchSize, long flushWindow) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be at least 1");
+    }
+    this.sqlSessionFactory = sqlSessionFactory;
+    this.maxBatchSize = maxBatchSize;
+    this.flushWindow = flushWindow;
+    this.worker = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        work();
+      }
+    }, "mybatis-group-commit-" + threadCount.incrementAndGet());
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  public Future<Integer> insert(String statement, Object parameter) {
+    return submit(statement, parameter);
+  }
+
+  public Future<Integer> update(String statement, Object parameter) {
+    return submit(statement, parameter);
+  }
+
+  public Future<Integer> delete(String statement, Object parameter) {
+    return submit(statement, parameter);
+  }
+
+  /*
+   * Stops accepting requests, then waits for the pending ones to be committed
+   */
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      queue.add(CLOSE);
+    }
+    try {
+      worker.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  private Future<Integer> submit(String statement, Object parameter) {
+    Request request = new Request(statement, parameter);
+    synchronized (this) {
+      if (closed) {
+        throw new SqlSessionException("Error:  Cannot submit " + statement + ".  The GroupCommitService is closed.");
+      }
+      queue.add(request);
+    }
+    return request;
+  }
+
+  private void work() {
+    List<Request> group = new ArrayList<Request>(maxBatchSize);
+    boolean stopping = false;
+    while (!stopping) {
+      try {
+        Request request = queue.take();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushWindow);
+        while (request != null) {
+          if (request == CLOSE) {
+            stopping = true;
+            break;
+          }
+          group.add(request);
+          if (group.size() == maxBatchSize) {
+            break;
+          }
+          long remaining = deadline - System.nanoTime();
+          request = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+        }
+      } catch (InterruptedException e) {
+        // not expected, the worker is stopped by the CLOSE request
+        stopping = closed;
+      }
+      if (!group.isEmpty()) {
+        execute(group);
+        group.clear();
+      }
+    }
+  }
+
+  private void execute(List<Request> group) {
+    try {
+      int[] updateCounts = executeBatch(group);
+      for (int i = 0; i < group.size(); i++) {
+        group.get(i).complete(updateCounts[i]);
+      }
+    } catch (Throwable t) {
+      if (group.size() == 1) {
+        group.get(0).fail(t);
+        return;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Group of " + group.size() + " statements failed, running them one by one.  Cause: " + t);
+      }
+      for (Request request : group) {
+        executeAlone(request);
+      }
+    }
+  }
+
+  private int[] executeBatch(List<Request> group) {
+    int[] updateCounts = new int[group.size()];
+    SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH, false);
+    try {
+      for (Request request : group) {
+        sqlSession.update(request.statement, request.parameter);
+      }
+      // statements are batched in submission order, one BatchResult per run of identical SQL
+      int i = 0;
+      for (BatchResult batchResult : sqlSession.flushStatements()) {
+        for (int updateCount : batchResult.getUpdateCounts()) {
+          updateCounts[i++] = updateCount;
+        }
+      }
+      sqlSession.commit(true);
+    } finally {
+      sqlSession.close();
+    }
+    return updateCounts;
+  }
+
+  private void executeAlone(Request request) {
+    try {
+      SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.SIMPLE, false);
+      try {
+        int updateCount = sqlSession.update(request.statement, request.parameter);
+        sqlSession.commit(true);
+        request.complete(updateCount);
+      } finally {
+        sqlSession.close();
+      }
+    } catch (Throwable t) {
+      request.fail(t);
+    }
+  }
+
+  private static final class Request extends FutureTask<Integer> {
+
+    private static final Callable<Integer> NOTHING = new Callable<Integer>() {
+      @Override
+      public Integer call() {
+        return null;
+      }
+    };
+
+    private final String statement;
+    private final Object parameter;
+
+    private Request(String statement, Object parameter) {
+      super(NOTHING);
+      this.statement = statement;
+      this.parameter = parameter;
+    }
+
+    private void complete(int updateCount) {
+      set(updateCount);
+    }
+
+    private void fail(Throwable t) {
+      setException(t);
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * Bounds of a keyset (seek) paged select: the page size and the ordered key the rows are sorted by.
+ * Each page starts after the key of the last row of the previous page instead of skipping an offset,
+ * so every page costs the same however deep it is.
+ *
+ * @since 3.4.5
+ */
+public class KeysetBounds extends RowBounds {
+
+  private final String[] keyColumns;
+  private final String[] keyProperties;
+
+  /**
+   * @param pageSize the maximum number of rows of a page
+   * @param keys the key columns, which are also the properties of the results holding them
+   */
+  public KeysetBounds(int pageSize, String... keys) {
+    this(pageSize, keys, keys);
+  }
+
+  public KeysetBounds(int pageSize, String[] keyColumns, String[] keyProperties) {
+    super(NO_ROW_OFFSET, pageSize);
+    if (pageSize <= 0 || pageSize == NO_ROW_LIMIT) {
+      throw new IllegalArgumentException("The page size of keyset bounds must be positive and limited, was " + pageSize + ".");
+    }
+    if (keyColumns.length == 0 || keyColumns.length != keyProperties.length) {
+      throw new IllegalArgumentException("Keyset bounds need at least one key column and one key property per key column.");
+    }
+    this.keyColumns = keyColumns.clone();
+    this.keyProperties = keyProperties.clone();
+  }
+
+  public int getPageSize() {
+    return getLimit();
+  }
+
+  public String[] getKeyColumns() {
+    return keyColumns.clone();
+  }
+
+  public String[] getKeyProperties() {
+    return keyProperties.clone();
+  }
+
+}
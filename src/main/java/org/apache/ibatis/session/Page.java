@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.util.List;
+
+/**
+ * One page of the results of a pageable select, together with the total number of rows the select matches.
+ *
+ * @since 3.4.5
+ */
+public class Page<E> {
+
+  private final List<E> items;
+  private final long total;
+  private final int offset;
+  private final int limit;
+
+  public Page(List<E> items, long total, int offset, int limit) {
+    this.items = items;
+    this.total = total;
+    this.offset = offset;
+    this.limit = limit;
+  }
+
+  public List<E> getItems() {
+    return items;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public boolean hasNext() {
+    return offset + items.size() < total;
+  }
+
+}
@@ -17,6 +17,7 @@ package org.apache.ibatis.session;
 
 import java.io.Closeable;
 import java.sql.Connection;
+import java.sql.Savepoint;
 import java.util.List;
 import java.util.Map;
 
@@ -76,6 +77,42 @@ public interface SqlSession extends Closeable {
    */
   <E> List<E> selectList(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * Retrieve a page of mapped objects within the specified row bounds, along with the total number
+   * of rows the statement matches. The statement must be pageable so that its count statement exists.
+   * @param <E> the returned list element type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return Page of mapped objects
+   * @since 3.4.5
+   */
+  <E> Page<E> selectPage(String statement, Object parameter, RowBounds rowBounds);
+
+  /**
+   * Retrieve the values of a single numeric column into a primitive array, without boxing each value.
+   * @param <A> the returned array type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param arrayType {@code long[].class}, {@code int[].class} or {@code double[].class}
+   * @return Array of the values
+   * @since 3.4.5
+   */
+  <A> A selectPrimitiveArray(String statement, Object parameter, Class<A> arrayType);
+
+  /**
+   * Retrieve the values of a single numeric column within the specified row bounds into a primitive array,
+   * without boxing each value.
+   * @param <A> the returned array type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @param arrayType {@code long[].class}, {@code int[].class} or {@code double[].class}
+   * @return Array of the values
+   * @since 3.4.5
+   */
+  <A> A selectPrimitiveArray(String statement, Object parameter, RowBounds rowBounds, Class<A> arrayType);
+
   /**
    * The selectMap is a special case in that it is designed to convert a list
    * of results into a Map based on one of the properties in the resulting
@@ -143,6 +180,18 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * A Cursor over the pages of a select, each page being queried after the key of the last row of the previous page
+   * instead of at an offset. The rows are ordered by the key of the {@code KeysetBounds}.
+   * @param <E> the returned page element type
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param keysetBounds The page size and the key to seek pages by
+   * @return Cursor of pages of mapped objects
+   * @since 3.4.5
+   */
+  <E> Cursor<List<E>> selectKeysetPages(String statement, Object parameter, KeysetBounds keysetBounds);
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
@@ -243,6 +292,32 @@ public interface SqlSession extends Closeable {
    */
   void rollback(boolean force);
 
+  /**
+   * Flushes batch statements and sets a savepoint in the current transaction.
+   * Statements executed after it can be rolled back with {@link SqlSession#rollback(Savepoint)}
+   * without discarding the rest of the transaction.
+   * The session must not be in auto-commit mode.
+   * @return the savepoint
+   * @since 3.4.5
+   */
+  Savepoint setSavepoint();
+
+  /**
+   * Discards pending batch statements and rolls back the work done after the savepoint,
+   * including the entries it added to the local and second level caches.
+   * The savepoint remains valid, the ones set after it are released.
+   * @param savepoint a savepoint returned by {@link SqlSession#setSavepoint()}
+   * @since 3.4.5
+   */
+  void rollback(Savepoint savepoint);
+
+  /**
+   * Releases the savepoint and the ones set after it, keeping the work done since.
+   * @param savepoint a savepoint returned by {@link SqlSession#setSavepoint()}
+   * @since 3.4.5
+   */
+  void releaseSavepoint(Savepoint savepoint);
+
   /**
    * Flushes batch statements.
    * @return BatchResult list of updated records
@@ -21,6 +21,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.Savepoint;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -196,6 +197,11 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.selectCursor(statement, parameter, rowBounds);
   }
 
+  @Override
+  public <E> Cursor<List<E>> selectKeysetPages(String statement, Object parameter, KeysetBounds keysetBounds) {
+    return sqlSessionProxy.<E> selectKeysetPages(statement, parameter, keysetBounds);
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return sqlSessionProxy.<E> selectList(statement);
@@ -211,6 +217,21 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.<E> selectList(statement, parameter, rowBounds);
   }
 
+  @Override
+  public <E> Page<E> selectPage(String statement, Object parameter, RowBounds rowBounds) {
+    return sqlSessionProxy.<E> selectPage(statement, parameter, rowBounds);
+  }
+
+  @Override
+  public <A> A selectPrimitiveArray(String statement, Object parameter, Class<A> arrayType) {
+    return sqlSessionProxy.selectPrimitiveArray(statement, parameter, arrayType);
+  }
+
+  @Override
+  public <A> A selectPrimitiveArray(String statement, Object parameter, RowBounds rowBounds, Class<A> arrayType) {
+    return sqlSessionProxy.selectPrimitiveArray(statement, parameter, rowBounds, arrayType);
+  }
+
   @Override
   public void select(String statement, ResultHandler handler) {
     sqlSessionProxy.select(statement, handler);
@@ -315,6 +336,33 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     sqlSession.rollback(force);
   }
 
+  @Override
+  public Savepoint setSavepoint() {
+    final SqlSession sqlSession = localSqlSession.get();
+    if (sqlSession == null) {
+      throw new SqlSessionException("Error:  Cannot set savepoint.  No managed session is started.");
+    }
+    return sqlSession.setSavepoint();
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) {
+    final SqlSession sqlSession = localSqlSession.get();
+    if (sqlSession == null) {
+      throw new SqlSessionException("Error:  Cannot rollback.  No managed session is started.");
+    }
+    sqlSession.rollback(savepoint);
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) {
+    final SqlSession sqlSession = localSqlSession.get();
+    if (sqlSession == null) {
+      throw new SqlSessionException("Error:  Cannot release savepoint.  No managed session is started.");
+    }
+    sqlSession.releaseSavepoint(savepoint);
+  }
+
   @Override
   public List<BatchResult> flushStatements() {
     final SqlSession sqlSession = localSqlSession.get();
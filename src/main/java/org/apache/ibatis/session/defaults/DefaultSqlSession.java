@@ -18,6 +18,7 @@ package org.apache.ibatis.session.defaults;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -25,16 +26,23 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.builder.CountSqlSource;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.KeysetCursor;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.SavepointExecutor;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.executor.result.PrimitiveArrayResultHandler;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.KeysetBounds;
+import org.apache.ibatis.session.Page;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
@@ -131,6 +139,20 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public <E> Cursor<List<E>> selectKeysetPages(String statement, Object parameter, KeysetBounds keysetBounds) {
+    try {
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      Cursor<List<E>> cursor = new KeysetCursor<E>(configuration, executor, ms, wrapCollection(parameter), keysetBounds);
+      registerCursor(cursor);
+      return cursor;
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return this.selectList(statement, null);
@@ -153,6 +175,50 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public <E> Page<E> selectPage(String statement, Object parameter, RowBounds rowBounds) {
+    try {
+      String countStatement = statement + CountSqlSource.COUNT_SUFFIX;
+      if (!configuration.hasStatement(countStatement)) {
+        throw new ExecutorException("Mapped statement '" + statement + "' is not pageable, there is no count statement '" + countStatement + "'.");
+      }
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      MappedStatement countMs = configuration.getMappedStatement(countStatement);
+      Object wrappedParameter = wrapCollection(parameter);
+      // run through the plugins, the executor derives the count query from the dynamic sql evaluated for the page
+      List<E> items = executor.query(ms, wrappedParameter, rowBounds, Executor.NO_RESULT_HANDLER);
+      List<Object> counts = executor.query(countMs, wrappedParameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      long total = counts.isEmpty() || counts.get(0) == null ? 0 : ((Number) counts.get(0)).longValue();
+      return new Page<E>(items, total, rowBounds.getOffset(), rowBounds.getLimit());
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  @Override
+  public <A> A selectPrimitiveArray(String statement, Object parameter, Class<A> arrayType) {
+    return selectPrimitiveArray(statement, parameter, RowBounds.DEFAULT, arrayType);
+  }
+
+  @Override
+  public <A> A selectPrimitiveArray(String statement, Object parameter, RowBounds rowBounds, Class<A> arrayType) {
+    try {
+      if (!PrimitiveArrayResultHandler.isSupported(arrayType)) {
+        throw new ExecutorException("Results can be selected into long[], int[] or double[] but not " + arrayType.getName() + ".");
+      }
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      PrimitiveArrayResultHandler handler = new PrimitiveArrayResultHandler(arrayType.getComponentType());
+      executor.query(ms, wrapCollection(parameter), rowBounds, handler);
+      return arrayType.cast(handler.getArray());
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
   @Override
   public void select(String statement, Object parameter, ResultHandler handler) {
     select(statement, parameter, RowBounds.DEFAULT, handler);
@@ -247,6 +313,46 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public Savepoint setSavepoint() {
+    try {
+      return savepointExecutor().setSavepoint();
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error setting savepoint.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  @Override
+  public void rollback(Savepoint savepoint) {
+    try {
+      savepointExecutor().rollback(savepoint);
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error rolling back to savepoint.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  @Override
+  public void releaseSavepoint(Savepoint savepoint) {
+    try {
+      savepointExecutor().releaseSavepoint(savepoint);
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error releasing savepoint.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
+  private SavepointExecutor savepointExecutor() {
+    if (!(executor instanceof SavepointExecutor)) {
+      throw new ExecutorException("Executor " + executor.getClass().getName() + " does not support savepoints.");
+    }
+    return (SavepointExecutor) executor;
+  }
+
   @Override
   public List<BatchResult> flushStatements() {
     try {
@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2017 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CountSqlSourceTest {
+
+  @Test
+  public void shouldWrapSelectAndRemoveTrailingOrderBy() {
+    assertEquals("SELECT COUNT(*) FROM (select * from item where id > ?) COUNT_",
+        CountSqlSource.getCountSql("select * from item where id > ?\n  ORDER\n BY id desc, name;"));
+  }
+
+  @Test
+  public void shouldKeepOrderByInSubqueriesAndLiterals() {
+    assertEquals("SELECT COUNT(*) FROM (select * from (select * from item order by id) t where name <> 'order by') COUNT_",
+        CountSqlSource.getCountSql("select * from (select * from item order by id) t where name <> 'order by'"));
+    assertEquals("SELECT COUNT(*) FROM (select id, sort_order by_name from item) COUNT_",
+        CountSqlSource.getCountSql("select id, sort_order by_name from item"));
+  }
+
+  @Test
+  public void shouldKeepOrderByThatLimitsTheCountedRows() {
+    assertEquals("SELECT COUNT(*) FROM (select * from item order by id limit 10) COUNT_",
+        CountSqlSource.getCountSql("select * from item order by id limit 10"));
+    assertEquals("SELECT COUNT(*) FROM (select * from item order by id fetch first 10 rows only) COUNT_",
+        CountSqlSource.getCountSql("select * from item order by id fetch first 10 rows only"));
+  }
+
+  @Test
+  public void shouldIgnoreTrailingComment() {
+    assertEquals("SELECT COUNT(*) FROM (select * from item) COUNT_",
+        CountSqlSource.getCountSql("select * from item order by id -- newest last"));
+  }
+
+}
@@ -31,6 +31,7 @@ import org.apache.ibatis.builder.mapper.CustomMapper;
 import org.apache.ibatis.builder.typehandler.CustomIntegerTypeHandler;
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.dialect.MySqlDialect;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.mappers.BlogMapper;
@@ -88,6 +89,13 @@ public class XmlConfigBuilderTest {
     assertThat(config.getDefaultExecutorType()).isEqualTo(ExecutorType.SIMPLE);
     assertNull(config.getDefaultStatementTimeout());
     assertNull(config.getDefaultFetchSize());
+    assertThat(config.getBatchFetchSize()).isEqualTo(100);
+    assertThat(config.isAdaptiveFetchSize()).isFalse();
+    assertThat(config.getAdaptiveFetchSizeMin()).isEqualTo(10);
+    assertThat(config.getAdaptiveFetchSizeMax()).isEqualTo(1000);
+    assertThat(config.isServerSidePaging()).isFalse();
+    assertNull(config.getDialect());
+    assertThat(config.isCompiledRowMapping()).isFalse();
     assertThat(config.isMapUnderscoreToCamelCase()).isFalse();
     assertThat(config.isSafeRowBoundsEnabled()).isFalse();
     assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.SESSION);
@@ -181,6 +189,13 @@ public class XmlConfigBuilderTest {
       assertThat(config.getDefaultExecutorType()).isEqualTo(ExecutorType.BATCH);
       assertThat(config.getDefaultStatementTimeout()).isEqualTo(10);
       assertThat(config.getDefaultFetchSize()).isEqualTo(100);
+      assertThat(config.getBatchFetchSize()).isEqualTo(50);
+      assertThat(config.isAdaptiveFetchSize()).isTrue();
+      assertThat(config.getAdaptiveFetchSizeMin()).isEqualTo(20);
+      assertThat(config.getAdaptiveFetchSizeMax()).isEqualTo(500);
+      assertThat(config.isServerSidePaging()).isTrue();
+      assertThat(config.getDialect()).isInstanceOf(MySqlDialect.class);
+      assertThat(config.isCompiledRowMapping()).isTrue();
       assertThat(config.isMapUnderscoreToCamelCase()).isTrue();
       assertThat(config.isSafeRowBoundsEnabled()).isTrue();
       assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.STATEMENT);
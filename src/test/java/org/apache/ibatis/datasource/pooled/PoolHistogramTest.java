@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PoolHistogramTest {
+
+  @Test
+  public void shouldReturnZeroWhenEmpty() {
+    PoolHistogram histogram = new PoolHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMean());
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  @Test
+  public void shouldReportExactSmallValues() {
+    PoolHistogram histogram = new PoolHistogram();
+    for (int i = 1; i <= 8; i++) {
+      histogram.record(i);
+    }
+    assertEquals(8, histogram.getCount());
+    assertEquals(4, histogram.getValueAtPercentile(50));
+    assertEquals(8, histogram.getValueAtPercentile(100));
+    assertEquals(8, histogram.getMax());
+  }
+
+  @Test
+  public void shouldReportPercentilesWithinBucketPrecision() {
+    PoolHistogram histogram = new PoolHistogram();
+    for (int i = 1; i <= 10000; i++) {
+      histogram.record(i);
+    }
+    long p50 = histogram.getValueAtPercentile(50);
+    long p99 = histogram.getValueAtPercentile(99);
+    assertTrue(p50 >= 5000 && p50 <= 5000 * 1.125);
+    assertTrue(p99 >= 9900 && p99 <= 10000);
+    assertEquals(5000, histogram.getMean());
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+  }
+
+}
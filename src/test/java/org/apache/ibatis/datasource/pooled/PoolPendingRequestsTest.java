@@ -0,0 +1,75 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.junit.Test;
+
+public class PoolPendingRequestsTest extends BaseDataTest {
+
+  @Test
+  public void shouldNotRejectWaitingRequestThatWaitsAgain() throws Exception {
+    final PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumPendingRequests(1);
+    PoolState state = ds.getPoolState();
+    Connection c = ds.getConnection();
+    final List<SQLException> failures = new ArrayList<SQLException>();
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        try {
+          ds.getConnection().close();
+        } catch (SQLException e) {
+          failures.add(e);
+        }
+      }
+    };
+    try {
+      waiter.start();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (state.getPendingRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      // a newer request starts waiting while the waiter is woken up without a connection to take
+      synchronized (state) {
+        state.pendingRequestCount++;
+        state.notifyAll();
+      }
+      while (state.getPendingRequestCount() < 2 && waiter.isAlive() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      synchronized (state) {
+        state.pendingRequestCount--;
+      }
+    } finally {
+      c.close();
+      waiter.join(5000);
+      ds.forceCloseAll();
+    }
+    assertTrue(failures.isEmpty());
+    assertEquals(0, state.getRejectedRequestCount());
+    assertEquals(1, state.getHadToWaitCount());
+  }
+
+}
@@ -0,0 +1,188 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ReplicaRoutingDataSourceTest {
+
+  private static DataSource primary;
+  private static DataSource replica;
+
+  public interface NodeMapper {
+    @Select("select name from node")
+    String whoAmI();
+
+    @Insert("insert into node (name) values (#{name})")
+    int insert(String name);
+
+    @Select("select count(*) from node")
+    int count();
+  }
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    primary = createNode("primary");
+    replica = createNode("replica");
+  }
+
+  private static DataSource createNode(String name) throws SQLException {
+    DataSource dataSource = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:routing_" + name, "sa", "");
+    Connection connection = dataSource.getConnection();
+    try {
+      Statement statement = connection.createStatement();
+      statement.execute("drop table node if exists");
+      statement.execute("create table node (name varchar(20))");
+      statement.execute("insert into node (name) values ('" + name + "')");
+      statement.close();
+    } finally {
+      connection.close();
+    }
+    return dataSource;
+  }
+
+  private static SqlSessionFactory createSqlSessionFactory(DataSource dataSource) {
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    configuration.addMapper(NodeMapper.class);
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  public void shouldSendAutoCommitSelectsToReplica() {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReplicaRoutingDataSource(primary, replica));
+    SqlSession sqlSession = sqlSessionFactory.openSession(true);
+    try {
+      assertEquals("replica", sqlSession.getMapper(NodeMapper.class).whoAmI());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldClearRoutingHintAfterStatementsOfAnyDataSource() {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(primary);
+    SqlSession sqlSession = sqlSessionFactory.openSession(true);
+    try {
+      assertEquals("primary", sqlSession.getMapper(NodeMapper.class).whoAmI());
+      assertFalse(RoutingHint.isRead());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldSendTransactionalSelectsAndWritesToPrimary() {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReplicaRoutingDataSource(primary, replica));
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      NodeMapper mapper = sqlSession.getMapper(NodeMapper.class);
+      assertEquals("primary", mapper.whoAmI());
+      mapper.insert("written");
+      assertEquals(2, mapper.count());
+      sqlSession.rollback(true);
+      assertEquals(1, mapper.count());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldSendAutoCommitWritesToPrimary() throws Exception {
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(new ReplicaRoutingDataSource(primary, replica));
+    SqlSession sqlSession = sqlSessionFactory.openSession(true);
+    try {
+      NodeMapper mapper = sqlSession.getMapper(NodeMapper.class);
+      mapper.insert("autocommitted");
+      assertEquals(1, mapper.count());
+    } finally {
+      sqlSession.close();
+    }
+    sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertEquals(2, sqlSession.getMapper(NodeMapper.class).count());
+    } finally {
+      sqlSession.close();
+    }
+    Connection connection = primary.getConnection();
+    try {
+      Statement statement = connection.createStatement();
+      statement.execute("delete from node where name = 'autocommitted'");
+      statement.close();
+    } finally {
+      connection.close();
+    }
+  }
+
+  @Test
+  public void shouldEjectFailingReplicaAndFallBackToPrimary() throws Exception {
+    DataSource broken = new UnpooledDataSource("org.hsqldb.jdbcDriver", "jdbc:unknown:replica", "sa", "");
+    ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, broken);
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(dataSource);
+    SqlSession sqlSession = sqlSessionFactory.openSession(true);
+    try {
+      assertEquals("primary", sqlSession.getMapper(NodeMapper.class).whoAmI());
+    } finally {
+      sqlSession.close();
+    }
+    assertEquals(0, dataSource.getHealthyReplicaCount());
+    dataSource.addReplica(replica);
+    dataSource.checkReplicas(1);
+    assertEquals(1, dataSource.getHealthyReplicaCount());
+  }
+
+  @Test
+  public void shouldConfigurePooledPrimaryAndReplicasFromProperties() {
+    Properties properties = new Properties();
+    properties.setProperty("primary.driver", "org.hsqldb.jdbcDriver");
+    properties.setProperty("primary.url", "jdbc:hsqldb:mem:routing_primary");
+    properties.setProperty("primary.username", "sa");
+    properties.setProperty("replica.1.driver", "org.hsqldb.jdbcDriver");
+    properties.setProperty("replica.1.url", "jdbc:hsqldb:mem:routing_replica");
+    properties.setProperty("replica.1.username", "sa");
+    properties.setProperty("replicaRetryInterval", "1000");
+    ReplicaRoutingDataSourceFactory factory = new ReplicaRoutingDataSourceFactory();
+    factory.setProperties(properties);
+    ReplicaRoutingDataSource dataSource = (ReplicaRoutingDataSource) factory.getDataSource();
+    assertEquals(1, dataSource.getReplicas().size());
+    assertEquals(1000, dataSource.getReplicaRetryInterval());
+    SqlSession sqlSession = createSqlSessionFactory(dataSource).openSession(true);
+    try {
+      assertEquals("replica", sqlSession.getMapper(NodeMapper.class).whoAmI());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
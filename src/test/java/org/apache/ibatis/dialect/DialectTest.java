@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import static org.junit.Assert.*;
+
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+
+public class DialectTest {
+
+  private static final String SQL = "select * from item order by id";
+
+  @Test
+  public void shouldAppendLimitAndOffset() {
+    Dialect dialect = new LimitOffsetDialect();
+    assertEquals(SQL + " LIMIT 10 OFFSET 20", dialect.getPagedSql(SQL, 20, 10));
+    assertEquals(SQL + " LIMIT 10", dialect.getPagedSql(SQL, 0, 10));
+    assertEquals(SQL + " OFFSET 20", dialect.getPagedSql(SQL, 20, RowBounds.NO_ROW_LIMIT));
+  }
+
+  @Test
+  public void shouldAppendOffsetAndFetch() {
+    Dialect dialect = new OffsetFetchDialect();
+    assertEquals(SQL + " OFFSET 20 ROWS FETCH NEXT 10 ROWS ONLY", dialect.getPagedSql(SQL, 20, 10));
+    assertEquals(SQL + " FETCH NEXT 10 ROWS ONLY", dialect.getPagedSql(SQL, 0, 10));
+    assertEquals(SQL + " OFFSET 20 ROWS", dialect.getPagedSql(SQL, 20, RowBounds.NO_ROW_LIMIT));
+  }
+
+  @Test
+  public void shouldAppendMySqlLimit() {
+    Dialect dialect = new MySqlDialect();
+    assertEquals(SQL + " LIMIT 20, 10", dialect.getPagedSql(SQL, 20, 10));
+    assertEquals(SQL + " LIMIT 10", dialect.getPagedSql(SQL, 0, 10));
+    assertEquals(SQL + " LIMIT 20, 18446744073709551615", dialect.getPagedSql(SQL, 20, RowBounds.NO_ROW_LIMIT));
+  }
+
+  @Test
+  public void shouldFilterOnOracleRownum() {
+    Dialect dialect = new OracleDialect();
+    assertFalse(dialect.supportsOffset());
+    assertEquals("SELECT * FROM ( " + SQL + " ) WHERE ROWNUM <= 30", dialect.getPagedSql(SQL, 20, 10));
+    assertEquals("SELECT * FROM ( " + SQL + " ) WHERE ROWNUM <= 10", dialect.getPagedSql(SQL, 0, 10));
+    assertNull(dialect.getPagedSql(SQL, 20, RowBounds.NO_ROW_LIMIT));
+    assertNull(dialect.getPagedSql(SQL + " for update", 0, 10));
+  }
+
+  @Test
+  public void shouldRemoveTrailingSemicolons() {
+    assertEquals(SQL + " LIMIT 10", new LimitOffsetDialect().getPagedSql("  " + SQL + " ; \n", 0, 10));
+  }
+
+  @Test
+  public void shouldRemoveTrailingComments() {
+    assertEquals(SQL + " LIMIT 10", new LimitOffsetDialect().getPagedSql(SQL + " -- by id", 0, 10));
+    assertEquals(SQL + " LIMIT 10", new LimitOffsetDialect().getPagedSql(SQL + " /* by id */;", 0, 10));
+  }
+
+  @Test
+  public void shouldNotPageSelectsThatLimitOrLockTheirRows() {
+    Dialect dialect = new LimitOffsetDialect();
+    assertNull(dialect.getPagedSql(SQL + " limit 5", 0, 10));
+    assertNull(dialect.getPagedSql(SQL + " FOR UPDATE", 0, 10));
+    assertNull(dialect.getPagedSql(SQL + " fetch first 5 rows only", 0, 10));
+    assertNull(new MySqlDialect().getPagedSql(SQL + " lock in share mode", 0, 10));
+    String nested = "select * from (select * from item limit 5) t where name <> 'for update'";
+    assertEquals(nested + " LIMIT 10", dialect.getPagedSql(nested, 0, 10));
+  }
+
+  @Test
+  public void shouldFindDialectsByDatabaseId() {
+    DialectRegistry registry = new DialectRegistry();
+    assertTrue(registry.getDialect("HSQL Database Engine") instanceof LimitOffsetDialect);
+    assertTrue(registry.getDialect("PostgreSQL") instanceof LimitOffsetDialect);
+    assertTrue(registry.getDialect("derby") instanceof OffsetFetchDialect);
+    assertTrue(registry.getDialect("MySQL") instanceof MySqlDialect);
+    assertTrue(registry.getDialect("Oracle") instanceof OracleDialect);
+    assertNull(registry.getDialect("unknown"));
+    assertNull(registry.getDialect(null));
+
+    Dialect dialect = new LimitOffsetDialect();
+    registry.register("Sybase", dialect);
+    assertSame(dialect, registry.getDialect("sybase"));
+  }
+
+}
@@ -0,0 +1,92 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.apache.ibatis.builder.CountSqlSource;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoundSqlResolverTest {
+
+  private Configuration configuration;
+  private CountingSqlSource sqlSource;
+  private MappedStatement pageMs;
+  private MappedStatement countMs;
+
+  @Before
+  public void setUp() {
+    configuration = new Configuration();
+    sqlSource = new CountingSqlSource(new StaticSqlSource(configuration, "select * from item order by id", new ArrayList<ParameterMapping>()));
+    pageMs = new MappedStatement.Builder(configuration, "getItems", sqlSource, SqlCommandType.SELECT).build();
+    countMs = new MappedStatement.Builder(configuration, "getItems" + CountSqlSource.COUNT_SUFFIX, new CountSqlSource(sqlSource), SqlCommandType.SELECT).build();
+  }
+
+  @Test
+  public void shouldDeriveCountFromTheSqlOfThePage() {
+    BoundSqlResolver resolver = new BoundSqlResolver();
+    Object parameter = new Object();
+    assertEquals("select * from item order by id", resolver.getBoundSql(pageMs, parameter).getSql());
+    assertEquals("SELECT COUNT(*) FROM (select * from item) COUNT_", resolver.getBoundSql(countMs, parameter).getSql());
+    assertEquals(1, sqlSource.evaluations);
+  }
+
+  @Test
+  public void shouldEvaluateCountForAnotherParameter() {
+    BoundSqlResolver resolver = new BoundSqlResolver();
+    resolver.getBoundSql(pageMs, new Object());
+    resolver.getBoundSql(countMs, new Object());
+    assertEquals(2, sqlSource.evaluations);
+  }
+
+  @Test
+  public void shouldDeriveCountOnlyOnce() {
+    BoundSqlResolver resolver = new BoundSqlResolver();
+    Object parameter = new Object();
+    resolver.getBoundSql(pageMs, parameter);
+    resolver.getBoundSql(countMs, parameter);
+    resolver.getBoundSql(countMs, parameter);
+    assertEquals(2, sqlSource.evaluations);
+  }
+
+  private static class CountingSqlSource implements SqlSource {
+
+    private final SqlSource sqlSource;
+    private int evaluations;
+
+    CountingSqlSource(SqlSource sqlSource) {
+      this.sqlSource = sqlSource;
+    }
+
+    @Override
+    public BoundSql getBoundSql(Object parameterObject) {
+      evaluations++;
+      return sqlSource.getBoundSql(parameterObject);
+    }
+
+  }
+
+}
@@ -0,0 +1,115 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResultSetWrapperTest {
+
+  @Mock
+  private ResultSet rs;
+  @Mock
+  private ResultSetMetaData rsmd;
+
+  private Configuration configuration;
+
+  @Before
+  public void setUp() throws Exception {
+    configuration = new Configuration();
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(4);
+    when(rsmd.getColumnLabel(1)).thenReturn("ID");
+    when(rsmd.getColumnLabel(2)).thenReturn("Name");
+    when(rsmd.getColumnLabel(3)).thenReturn("P_NAME");
+    when(rsmd.getColumnLabel(4)).thenReturn("name");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnType(3)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnType(4)).thenReturn(Types.CHAR);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getName());
+    when(rsmd.getColumnClassName(2)).thenReturn(String.class.getName());
+    when(rsmd.getColumnClassName(3)).thenReturn(String.class.getName());
+    when(rsmd.getColumnClassName(4)).thenReturn(String.class.getName());
+  }
+
+  @Test
+  public void shouldResolveColumnIndexesIgnoringCase() throws Exception {
+    final ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    assertEquals(1, rsw.getColumnIndex("id"));
+    assertEquals(3, rsw.getColumnIndex("p_name"));
+    // like the drivers, the first column with the label wins
+    assertEquals(2, rsw.getColumnIndex("NAME"));
+    assertEquals(2, rsw.getColumnIndex("name"));
+    assertEquals(JdbcType.VARCHAR, rsw.getJdbcType("name"));
+    assertEquals(-1, rsw.getColumnIndex("missing"));
+    assertEquals(null, rsw.getJdbcType("missing"));
+  }
+
+  @Test
+  public void shouldResolveColumnIndexesOfPropertyMappings() throws Exception {
+    final ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    final ResultMap resultMap = new ResultMap.Builder(configuration, "map", HashMap.class, new ArrayList<ResultMapping>() {
+      {
+        add(new ResultMapping.Builder(configuration, "id", "id", Integer.class).build());
+        add(new ResultMapping.Builder(configuration, "name", "name", String.class).build());
+        add(new ResultMapping.Builder(configuration, "missing", "missing", String.class).build());
+      }
+    }).build();
+    assertArrayEquals(new int[] { 1, 2, 0 }, rsw.getPropertyColumnIndexes(resultMap, null));
+    assertArrayEquals(new int[] { 0, 3, 0 }, rsw.getPropertyColumnIndexes(resultMap, "P_"));
+  }
+
+  @Test
+  public void shouldResolveColumnIndexesOfNotNullColumns() throws Exception {
+    final ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    final ResultMapping resultMapping = new ResultMapping.Builder(configuration, "person").nestedResultMapId("personResult")
+        .notNullColumns(new LinkedHashSet<String>(Arrays.asList("name", "missing"))).build();
+    assertArrayEquals(new int[] { 2, -1 }, rsw.getNotNullColumnIndexes(resultMapping, null));
+    assertArrayEquals(new int[] { 3, -1 }, rsw.getNotNullColumnIndexes(resultMapping, "P_"));
+  }
+
+  @Test
+  public void shouldFindColumnPrefixIgnoringCase() throws Exception {
+    final ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+    assertTrue(rsw.hasColumnPrefix("P_"));
+    assertTrue(rsw.hasColumnPrefix("p_"));
+    assertFalse(rsw.hasColumnPrefix("C_"));
+  }
+
+}
@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class RowKeyMapTest {
+
+  @Test
+  public void shouldFindObjectsByEqualKeys() {
+    RowKeyMap map = new RowKeyMap();
+    for (int i = 0; i < 1000; i++) {
+      map.put(key("map", 1, i), "row" + i);
+    }
+    assertEquals(1000, map.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("row" + i, map.get(key("map", 1, i)));
+    }
+    assertNull(map.get(key("map", 2, 0)));
+    assertNull(map.get(key("other", 1, 0)));
+
+    map.put(key("map", 1, 0), "replaced");
+    assertEquals(1000, map.size());
+    assertEquals("replaced", map.get(key("map", 1, 0)));
+
+    map.clear();
+    assertEquals(0, map.size());
+    assertNull(map.get(key("map", 1, 0)));
+  }
+
+  @Test
+  public void shouldCombineKeysOfNestedObjects() {
+    RowKey parent = key("parent", 1, 1);
+    RowKey combined = RowKey.combine(key("child", 1, new byte[] { 1, 2 }), parent);
+    assertEquals(combined, RowKey.combine(key("child", 1, new byte[] { 1, 2 }), key("parent", 1, 1)));
+    assertEquals(combined.hash(), RowKey.combine(key("child", 1, new byte[] { 1, 2 }), key("parent", 1, 1)).hash());
+    assertSame(RowKey.NULL_ROW_KEY, RowKey.combine(key("child"), parent));
+    assertSame(RowKey.NULL_ROW_KEY, RowKey.combine(parent, key("parent")));
+  }
+
+  private RowKey key(Object... values) {
+    return RowKey.of(Arrays.asList(values));
+  }
+
+}
@@ -141,4 +141,39 @@ public class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    public void specifyAdaptiveFetchSize() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSize();
+        doReturn(100).when(configuration).getDefaultFetchSize();
+        configuration.getFetchSizeStatistics().addRowCount("id", 40);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(41); // apply the observed row count
+    }
+
+    @Test
+    public void specifyAdaptiveFetchSizeWithoutObservedRowCount() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSize();
+        doReturn(100).when(configuration).getDefaultFetchSize();
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(100); // apply a default fetch size
+    }
+
+    @Test
+    public void specifyMappedStatementFetchSizeAndAdaptiveFetchSize() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSize();
+        configuration.getFetchSizeStatistics().addRowCount("id", 40);
+        mappedStatementBuilder.fetchSize(200);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatementBuilder.build(), null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(200); // apply a mapped statement fetch size
+    }
+
 }
@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.statement;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FetchSizeStatisticsTest {
+
+  @Test
+  public void shouldReturnNullForUnknownStatement() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    assertNull(statistics.getFetchSize("unknown", 10, 1000));
+    assertNull(statistics.getStatistics("unknown"));
+  }
+
+  @Test
+  public void shouldFollowMovingAverageOfRowCounts() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    statistics.addRowCount("id", 100);
+    assertEquals(Integer.valueOf(101), statistics.getFetchSize("id", 10, 1000));
+    statistics.addRowCount("id", 500);
+    assertEquals(Integer.valueOf(201), statistics.getFetchSize("id", 10, 1000));
+
+    FetchSizeStatistics.StatementStatistics statementStatistics = statistics.getStatistics("id");
+    assertEquals(2, statementStatistics.getExecutionCount());
+    assertEquals(200.0, statementStatistics.getAverageRowCount(), 0.001);
+    assertEquals(500, statementStatistics.getMaxRowCount());
+    assertEquals(201, statementStatistics.getFetchSize());
+  }
+
+  @Test
+  public void shouldKeepFetchSizeWithinBounds() {
+    FetchSizeStatistics statistics = new FetchSizeStatistics();
+    statistics.addRowCount("small", 0);
+    statistics.addRowCount("big", 1000000);
+    assertEquals(Integer.valueOf(10), statistics.getFetchSize("small", 10, 1000));
+    assertEquals(Integer.valueOf(1000), statistics.getFetchSize("big", 10, 1000));
+    assertEquals(2, statistics.getAllStatistics().size());
+    statistics.clear();
+    assertTrue(statistics.getAllStatistics().isEmpty());
+  }
+
+}
@@ -17,18 +17,25 @@ package org.apache.ibatis.jdbc;
 
 import static org.junit.Assert.*;
 
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
+import org.hsqldb.jdbc.JDBCPreparedStatement;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -91,6 +98,334 @@ public class PooledDataSourceTest extends BaseDataTest {
     c.close();
   }
 
+  @Test
+  public void shouldEvictBrokenIdleConnectionsInBackground() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolHousekeepingInterval(20);
+      Connection c = ds.getConnection();
+      Connection realConnection = PooledDataSource.unwrapConnection(c);
+      c.close();
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      realConnection.close();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (ds.getPoolState().getIdleConnectionCount() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(1, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      ds.setPoolHousekeepingInterval(0);
+    }
+  }
+
+  @Test
+  public void shouldKeepHealthyIdleConnectionsInBackground() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+      ds.setPoolHousekeepingInterval(20);
+      Connection c = ds.getConnection();
+      Connection realConnection = PooledDataSource.unwrapConnection(c);
+      c.close();
+      Thread.sleep(200);
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertFalse(realConnection.isClosed());
+    } finally {
+      ds.setPoolHousekeepingInterval(0);
+    }
+  }
+
+  @Test
+  public void shouldExposePoolMetricsThroughJmx() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolJmxName("jpetstore");
+      for (int i = 0; i < 3; i++) {
+        ds.getConnection().close();
+      }
+      assertEquals(3, ds.getPoolState().getRequestTimeHistogram().getCount());
+      assertEquals(3, ds.getPoolState().getCheckoutTimeHistogram().getCount());
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName("org.apache.ibatis.datasource.pooled:type=PooledDataSource,name=\"jpetstore\"");
+      assertEquals(3L, server.getAttribute(name, "RequestCount"));
+      assertEquals(1, server.getAttribute(name, "IdleConnectionCount"));
+      assertEquals(0, server.getAttribute(name, "PendingRequestCount"));
+      assertNotNull(server.getAttribute(name, "RequestTimeP99Micros"));
+      ds.setPoolJmxName(null);
+      assertFalse(server.isRegistered(name));
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldPrefillMinimumIdleConnections() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMinimumIdleConnections(2);
+      ds.warmUp();
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      ds.getConnection().close();
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldNotReopenConnectionsAfterForceCloseAll() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMinimumIdleConnections(2);
+      ds.setPoolHousekeepingInterval(20);
+      ds.warmUp();
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      ds.forceCloseAll();
+      Thread.sleep(200);
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      // the next checkout starts the housekeeper again
+      ds.getConnection().close();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (ds.getPoolState().getIdleConnectionCount() < 2 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.close();
+    }
+  }
+
+  @Test
+  public void shouldUnregisterPoolStateWhenClosed() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolJmxName("closed");
+    ds.getConnection().close();
+    ObjectName name = new ObjectName("org.apache.ibatis.datasource.pooled:type=PooledDataSource,name=\"closed\"");
+    assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    ds.close();
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+  }
+
+  @Test
+  public void shouldRetireConnectionsAfterMaximumLifetime() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMaximumLifetime(50);
+      Connection c = ds.getConnection();
+      Connection realConnection = PooledDataSource.unwrapConnection(c);
+      c.close();
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+      Thread.sleep(100);
+      c = ds.getConnection();
+      assertNotSame(realConnection, PooledDataSource.unwrapConnection(c));
+      assertTrue(realConnection.isClosed());
+      c.close();
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldCloseConnectionsIdleForLongerThanTimeout() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolMinimumIdleConnections(1);
+      ds.setPoolIdleTimeout(50);
+      ds.setPoolPingConnectionsNotUsedFor(60000);
+      ds.setPoolHousekeepingInterval(20);
+      List<Connection> connections = new ArrayList<Connection>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      for (Connection c : connections) {
+        c.close();
+      }
+      long deadline = System.currentTimeMillis() + 5000;
+      while (ds.getPoolState().getIdleConnectionCount() > 1 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.setPoolHousekeepingInterval(0);
+    }
+  }
+
+  @Test
+  public void shouldReportConnectionsHeldLongerThanLeakThreshold() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      ds.setPoolLeakDetectionThreshold(50);
+      ds.setPoolHousekeepingInterval(20);
+      Connection leaked = ds.getConnection();
+      ds.getConnection().close();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (ds.getPoolState().getLeakedConnectionCount() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Thread.sleep(100);
+      assertEquals(1, ds.getPoolState().getLeakedConnectionCount());
+      leaked.close();
+    } finally {
+      ds.setPoolHousekeepingInterval(0);
+    }
+  }
+
+  @Test
+  public void shouldFailWhenNoConnectionIsAvailableWithinConnectionTimeout() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolConnectionTimeout(100);
+    Connection c = ds.getConnection();
+    try {
+      long start = System.currentTimeMillis();
+      try {
+        ds.getConnection();
+        fail("Should have timed out");
+      } catch (SQLTransientConnectionException e) {
+        assertTrue(System.currentTimeMillis() - start < 5000);
+      }
+      assertEquals(1, ds.getPoolState().getTimedOutRequestCount());
+    } finally {
+      c.close();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldRejectRequestsWhenTooManyAreWaiting() throws Exception {
+    final PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumPendingRequests(1);
+    Connection c = ds.getConnection();
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        try {
+          ds.getConnection().close();
+        } catch (SQLException e) {
+          // ignore
+        }
+      }
+    };
+    try {
+      waiter.start();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (ds.getPoolState().getPendingRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      try {
+        ds.getConnection();
+        fail("Should have been rejected");
+      } catch (SQLTransientConnectionException e) {
+        assertEquals(1, ds.getPoolState().getRejectedRequestCount());
+      }
+    } finally {
+      c.close();
+      waiter.join(5000);
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldRejectCallsOnClosedConnectionWithoutReflectiveProxy() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    Connection c = ds.getConnection();
+    assertFalse(Proxy.isProxyClass(c.getClass()));
+    c.createStatement().close();
+    c.close();
+    try {
+      c.createStatement();
+      fail("Should have failed on a closed connection");
+    } catch (SQLException e) {
+      assertTrue(e.getMessage().contains("invalid"));
+    }
+    ds.forceCloseAll();
+  }
+
+  @Test
+  public void shouldReusePreparedStatementsAcrossCheckouts() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setPoolPreparedStatementCacheSize(5);
+      Connection c = ds.getConnection();
+      PreparedStatement first = c.prepareStatement("SELECT * FROM PRODUCT");
+      first.setMaxRows(1);
+      first.executeQuery().close();
+      PreparedStatement realStatement = first.unwrap(JDBCPreparedStatement.class);
+      first.close();
+      assertTrue(first.isClosed());
+      c.close();
+
+      c = ds.getConnection();
+      PreparedStatement second = c.prepareStatement("SELECT * FROM PRODUCT");
+      assertSame(realStatement, second.unwrap(JDBCPreparedStatement.class));
+      assertEquals(0, second.getMaxRows());
+      assertSame(c, second.getConnection());
+      PreparedStatement concurrent = c.prepareStatement("SELECT * FROM PRODUCT");
+      assertNotSame(realStatement, concurrent.unwrap(JDBCPreparedStatement.class));
+      concurrent.close();
+      second.close();
+      try {
+        second.executeQuery();
+        fail("Should have failed on a closed statement");
+      } catch (SQLException e) {
+        // expected
+      }
+      c.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldCloseOpenResultSetWhenCachedStatementIsClosed() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setPoolPreparedStatementCacheSize(5);
+      Connection c = ds.getConnection();
+      PreparedStatement st = c.prepareStatement("SELECT * FROM PRODUCT");
+      assertFalse(Proxy.isProxyClass(st.getClass()));
+      ResultSet rs = st.executeQuery();
+      st.close();
+      assertTrue(rs.isClosed());
+      c.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldRememberConnectionStateAcrossCheckouts() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      Connection c = ds.getConnection();
+      c.setAutoCommit(false);
+      c.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+      Connection realConnection = PooledDataSource.unwrapConnection(c);
+      c.close();
+
+      c = ds.getConnection();
+      assertSame(realConnection, PooledDataSource.unwrapConnection(c));
+      assertFalse(c.getAutoCommit());
+      assertEquals(Connection.TRANSACTION_SERIALIZABLE, c.getTransactionIsolation());
+      // changed behind the pool's back, so the remembered value is still returned
+      realConnection.setAutoCommit(true);
+      assertFalse(c.getAutoCommit());
+      c.setAutoCommit(true);
+      assertTrue(realConnection.getAutoCommit());
+      c.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   @Ignore("See the comments")
   @Test
   public void shouldReconnectWhenServerKilledLeakedConnection() throws Exception {
@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class SqlClausesTest {
+
+  @Test
+  public void shouldTrimCommentsAndSemicolons() {
+    assertEquals("select * from item", SqlClauses.trimSql("  select * from item ; -- all\n /* items */ ;"));
+    assertEquals("select * from item where name = '--'", SqlClauses.trimSql("select * from item where name = '--'"));
+  }
+
+  @Test
+  public void shouldFindClausesOfOuterQueryOnly() {
+    assertTrue(SqlClauses.hasRowLimitingClause("select * from item limit 10"));
+    assertFalse(SqlClauses.hasRowLimitingClause("select * from (select * from item limit 10) t"));
+    assertFalse(SqlClauses.hasRowLimitingClause("select \"limit\", 'offset' from item /* fetch */"));
+    assertTrue(SqlClauses.hasLockingClause("select * from item for update"));
+    assertTrue(SqlClauses.hasLockingClause("select * from item lock in share mode"));
+    assertFalse(SqlClauses.hasLockingClause("select * from item where name like 'for %'"));
+  }
+
+  @Test
+  public void shouldRemoveTrailingOrderBy() {
+    assertEquals("select * from item where id > ?", SqlClauses.removeOrderBy("select * from item where id > ?\n  ORDER\n BY id desc, name;"));
+    assertEquals("select * from item order by id limit 10", SqlClauses.removeOrderBy("select * from item order by id limit 10"));
+    assertEquals("select * from item", SqlClauses.removeOrderBy("select * from item order /* by name */ by id"));
+  }
+
+  @Test
+  public void shouldListOrderByExpressions() {
+    assertEquals(Arrays.asList("u.id", "coalesce(p.name, 'a, b')", "Name"),
+        SqlClauses.getOrderByExpressions("select * from (select * from t order by x) u order by u.id DESC, coalesce(p.name, 'a, b') asc nulls last,\n Name limit 5;"));
+    assertEquals(Collections.emptyList(), SqlClauses.getOrderByExpressions("select * from (select * from t order by x) u"));
+    assertEquals(Arrays.asList("id"), SqlClauses.getOrderByExpressions("select * from item order by id for update"));
+  }
+
+}
@@ -17,6 +17,12 @@ package org.apache.ibatis.plugin;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SavepointExecutor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.session.Configuration;
 import org.junit.Test;
 
 import java.util.HashMap;
@@ -39,6 +45,31 @@ public class PluginTest {
     assertFalse("Always".equals(map.toString()));
   }
 
+  @Test
+  public void shouldKeepSavepointSupportOfInterceptedExecutor() {
+    Object executor = new ExecutorPlugin().plugin(new SimpleExecutor(new Configuration(), null));
+    assertTrue(executor instanceof Executor);
+    assertTrue(executor instanceof SavepointExecutor);
+  }
+
+  @Intercepts({
+      @Signature(type = Executor.class, method = "clearLocalCache", args = {})})
+  public static class ExecutorPlugin implements Interceptor {
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+  }
+
   @Intercepts({
       @Signature(type = Map.class, method = "get", args = {Object.class})})
   public static class AlwaysMapPlugin implements Interceptor {
@@ -15,8 +15,11 @@
  */
 package org.apache.ibatis.reflection.factory;
 
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.apache.ibatis.reflection.ReflectionException;
 import org.junit.Assert;
@@ -52,4 +55,55 @@ public class DefaultObjectFactoryTest {
     }
   }
 
+  @Test
+  public void shouldSwitchToGeneratedInstantiator() throws Exception {
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    List<Class<?>> argTypes = Arrays.<Class<?>>asList(long.class, boolean.class);
+    Instantiator reflectiveInstantiator = defaultObjectFactory.getInstantiator(Value.class, argTypes);
+    for (int i = 0; i < 20; i++) {
+      Value value = defaultObjectFactory.create(Value.class, argTypes, Arrays.<Object>asList((long) i, true));
+      Assert.assertEquals(i, value.id);
+      Assert.assertTrue(value.flag);
+    }
+    Instantiator generatedInstantiator = defaultObjectFactory.getInstantiator(Value.class, argTypes);
+    Assert.assertNotSame(reflectiveInstantiator, generatedInstantiator);
+    Assert.assertTrue(generatedInstantiator.getClass().getName().startsWith(Value.class.getName() + "$$Instantiator$$"));
+    // the generated class is not defined in the loader of the application
+    Assert.assertNotSame(Value.class.getClassLoader(), generatedInstantiator.getClass().getClassLoader());
+    Assert.assertSame(Value.class.getClassLoader(), generatedInstantiator.getClass().getClassLoader().getParent());
+
+    try {
+      defaultObjectFactory.create(Value.class, argTypes, Arrays.<Object>asList(null, true));
+      Assert.fail("Should have thrown ReflectionException");
+    } catch (ReflectionException e) {
+      Assert.assertTrue(e.getMessage().contains("(long,boolean)"));
+    }
+  }
+
+  @Test
+  public void shouldKeepReflectiveInstantiatorWhenGenerationFails() throws Exception {
+    // the class loader of this class does not see the Instantiator interface
+    ClassLoader isolatedClassLoader = new URLClassLoader(new URL[] { Value.class.getProtectionDomain().getCodeSource().getLocation() }, null);
+    Class<?> isolatedValueClass = isolatedClassLoader.loadClass(Value.class.getName());
+    Assert.assertNotSame(Value.class, isolatedValueClass);
+    DefaultObjectFactory defaultObjectFactory = new DefaultObjectFactory();
+    List<Class<?>> argTypes = Arrays.<Class<?>>asList(long.class, boolean.class);
+    Instantiator reflectiveInstantiator = defaultObjectFactory.getInstantiator(isolatedValueClass, argTypes);
+    for (int i = 0; i < 20; i++) {
+      Object value = defaultObjectFactory.create(isolatedValueClass, argTypes, Arrays.<Object>asList((long) i, true));
+      Assert.assertSame(isolatedValueClass, value.getClass());
+    }
+    Assert.assertSame(reflectiveInstantiator, defaultObjectFactory.getInstantiator(isolatedValueClass, argTypes));
+  }
+
+  public static class Value {
+    final long id;
+    final boolean flag;
+
+    public Value(long id, boolean flag) {
+      this.id = id;
+      this.flag = flag;
+    }
+  }
+
 }
@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2009-2016 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.io.Resources;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class GroupCommitServiceTest extends BaseDataTest {
+
+  private static final String INSERT_AUTHOR = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.insertAuthor";
+  private static final String SELECT_AUTHOR = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthor";
+  private static SqlSessionFactory sqlMapper;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    createBlogDataSource();
+    final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
+    final Reader reader = Resources.getResourceAsReader(resource);
+    sqlMapper = new SqlSessionFactoryBuilder().build(reader);
+  }
+
+  private static Author author(int id) {
+    return new Author(id, "user" + id, "******", "user" + id + "@somewhere.com", "Bio " + id, null);
+  }
+
+  @Test
+  public void shouldCommitRequestsFromManyThreads() throws Exception {
+    final GroupCommitService service = new GroupCommitService(sqlMapper, 10, 50);
+    ExecutorService threads = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Future<Integer>>> submissions = new ArrayList<Future<Future<Integer>>>();
+      for (int i = 0; i < 40; i++) {
+        final int id = 1000 + i;
+        submissions.add(threads.submit(new Callable<Future<Integer>>() {
+          @Override
+          public Future<Integer> call() {
+            return service.insert(INSERT_AUTHOR, author(id));
+          }
+        }));
+      }
+      for (Future<Future<Integer>> submission : submissions) {
+        assertEquals(Integer.valueOf(1), submission.get().get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      threads.shutdown();
+      service.close();
+    }
+    SqlSession session = sqlMapper.openSession();
+    try {
+      for (int i = 0; i < 40; i++) {
+        Author author = session.selectOne(SELECT_AUTHOR, 1000 + i);
+        assertEquals("user" + (1000 + i), author.getUsername());
+      }
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldFailOnlyTheFailingRequestOfAGroup() throws Exception {
+    GroupCommitService service = new GroupCommitService(sqlMapper, 10, 200);
+    Future<Integer> first;
+    Future<Integer> duplicate;
+    Future<Integer> last;
+    try {
+      first = service.insert(INSERT_AUTHOR, author(2000));
+      duplicate = service.insert(INSERT_AUTHOR, author(101));
+      last = service.insert(INSERT_AUTHOR, author(2001));
+    } finally {
+      service.close();
+    }
+    assertEquals(Integer.valueOf(1), first.get());
+    assertEquals(Integer.valueOf(1), last.get());
+    try {
+      duplicate.get();
+      fail("Should have failed on a duplicate key");
+    } catch (ExecutionException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void shouldRejectRequestsAfterClose() {
+    GroupCommitService service = new GroupCommitService(sqlMapper, 10, 10);
+    service.close();
+    assertTrue(service.isClosed());
+    try {
+      service.insert(INSERT_AUTHOR, author(3000));
+      fail("Should have rejected the request");
+    } catch (SqlSessionException e) {
+      // expected
+    }
+  }
+
+}
@@ -18,10 +18,12 @@ package org.apache.ibatis.session;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.Reader;
+import java.sql.Savepoint;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -48,6 +50,7 @@ import org.apache.ibatis.domain.blog.mappers.AuthorMapperWithRowBounds;
 import org.apache.ibatis.domain.blog.mappers.BlogMapper;
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
+import org.apache.ibatis.executor.statement.FetchSizeStatistics;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
 import org.junit.Assert;
@@ -521,6 +524,90 @@ public class SqlSessionTest extends BaseDataTest {
     assertEquals(first, second);
   }
 
+  @Test
+  public void shouldRollbackToSavepointOnly() throws Exception {
+    SqlSession session = sqlMapper.openSession();
+    try {
+      Author kept = new Author(601, "kept", "******", "kept@somewhere.com", "Kept", null);
+      Author discarded = new Author(602, "discarded", "******", "discarded@somewhere.com", "Discarded", null);
+      session.insert("org.apache.ibatis.domain.blog.mappers.AuthorMapper.insertAuthor", kept);
+      Savepoint savepoint = session.setSavepoint();
+      session.insert("org.apache.ibatis.domain.blog.mappers.AuthorMapper.insertAuthor", discarded);
+      assertNotNull(session.selectOne("org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthor", 602));
+      session.rollback(savepoint);
+      assertNull(session.selectOne("org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthor", 602));
+      assertNotNull(session.selectOne("org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthor", 601));
+      session.releaseSavepoint(savepoint);
+    } finally {
+      session.rollback(true);
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldRestorePendingCacheEntriesOnRollbackToSavepoint() throws Exception {
+    List<Author> first;
+    SqlSession session = sqlMapper.openSession();
+    try {
+      first = session.selectList("org.apache.ibatis.builder.CachedAuthorMapper.selectAllAuthors");
+      Savepoint savepoint = session.setSavepoint();
+      Author author = session.selectOne("org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthor", 101);
+      session.update("org.apache.ibatis.builder.CachedAuthorMapper.updateAuthor", author);
+      session.rollback(savepoint);
+      session.commit();
+    } finally {
+      session.close();
+    }
+    session = sqlMapper.openSession();
+    try {
+      List<Author> second = session.selectList("org.apache.ibatis.builder.CachedAuthorMapper.selectAllAuthors");
+      assertSame(first, second);
+    } finally {
+      session.close();
+    }
+  }
+
+  @Test
+  public void shouldLearnFetchSizeFromRowCounts() throws Exception {
+    final String statementId = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAllAuthors";
+    Configuration configuration = sqlMapper.getConfiguration();
+    configuration.setAdaptiveFetchSize(true);
+    configuration.setAdaptiveFetchSizeMin(1);
+    SqlSession session = sqlMapper.openSession();
+    try {
+      session.selectList(statementId);
+      session.clearCache();
+      session.selectList(statementId);
+      FetchSizeStatistics.StatementStatistics statistics = configuration.getFetchSizeStatistics().getStatistics(statementId);
+      assertEquals(2, statistics.getExecutionCount());
+      assertEquals(2, statistics.getMaxRowCount());
+      assertEquals(3, statistics.getFetchSize());
+    } finally {
+      session.close();
+      configuration.setAdaptiveFetchSize(false);
+      configuration.setAdaptiveFetchSizeMin(10);
+      configuration.getFetchSizeStatistics().clear();
+    }
+  }
+
+  @Test
+  public void shouldCountSkippedRowsInFetchSizeStatistics() throws Exception {
+    final String statementId = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAllAuthors";
+    Configuration configuration = sqlMapper.getConfiguration();
+    configuration.setAdaptiveFetchSize(true);
+    SqlSession session = sqlMapper.openSession();
+    try {
+      List<Author> authors = session.selectList(statementId, null, new RowBounds(1, 1));
+      assertEquals(1, authors.size());
+      FetchSizeStatistics.StatementStatistics statistics = configuration.getFetchSizeStatistics().getStatistics(statementId);
+      assertEquals(2, statistics.getMaxRowCount());
+    } finally {
+      session.close();
+      configuration.setAdaptiveFetchSize(false);
+      configuration.getFetchSizeStatistics().clear();
+    }
+  }
+
   @Test
   public void shouldNotCacheAllAuthors() throws Exception {
     int first = -1;
@@ -19,6 +19,7 @@ import java.io.Reader;
 import java.sql.Connection;
 import java.util.List;
 
+import org.apache.ibatis.executor.resultset.AutoMappingRegistry;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.jdbc.ScriptRunner;
 import org.apache.ibatis.session.AutoMappingBehavior;
@@ -208,4 +209,37 @@ public class AutomappingTest {
       sqlSession.close();
     }
   }
+
+  @Test
+  public void shouldReuseAutoMappingsAcrossExecutions() {
+    sqlSessionFactory.getConfiguration().setAutoMappingBehavior(AutoMappingBehavior.PARTIAL);
+    AutoMappingRegistry autoMappingRegistry = sqlSessionFactory.getConfiguration().getAutoMappingRegistry();
+    autoMappingRegistry.clear();
+    for (int i = 0; i < 2; i++) {
+      SqlSession sqlSession = sqlSessionFactory.openSession();
+      try {
+        Mapper mapper = sqlSession.getMapper(Mapper.class);
+        User user = mapper.getUser(1);
+        Assert.assertEquals("User1", user.getName());
+      } finally {
+        sqlSession.close();
+      }
+    }
+    Assert.assertEquals(1, autoMappingRegistry.size());
+
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = mapper.getUserWithPhoneNumber(1);
+      Assert.assertEquals("User1", user.getName());
+      Assert.assertEquals(new Long(12345678901L), user.getPhone());
+    } finally {
+      sqlSession.close();
+    }
+    Assert.assertEquals(2, autoMappingRegistry.size());
+
+    // the properties found depend on the setting
+    sqlSessionFactory.getConfiguration().setMapUnderscoreToCamelCase(false);
+    Assert.assertEquals(0, autoMappingRegistry.size());
+  }
 }
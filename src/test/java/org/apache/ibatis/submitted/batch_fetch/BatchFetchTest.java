@@ -0,0 +1,166 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_fetch;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BatchFetchTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_fetch/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_fetch/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Before
+  public void resetCounter() {
+    StatementCounter.statements.clear();
+  }
+
+  @Test
+  public void shouldLoadNestedSelectsOfAllRowsInBatches() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).getOrders();
+      assertEquals(5, orders.size());
+
+      assertEquals("Alice", orders.get(0).getCustomer().getName());
+      assertEquals("Bob", orders.get(1).getCustomer().getName());
+      assertSame(orders.get(0).getCustomer(), orders.get(2).getCustomer());
+      assertEquals("Carol", orders.get(3).getCustomer().getName());
+      assertNull(orders.get(4).getCustomer());
+
+      assertEquals(2, orders.get(0).getLines().size());
+      assertEquals("Pen", orders.get(0).getLines().get(0).getProduct());
+      assertEquals("Ink", orders.get(0).getLines().get(1).getProduct());
+      assertEquals(1, orders.get(1).getLines().size());
+      assertTrue(orders.get(2).getLines().isEmpty());
+      assertEquals("Stapler", orders.get(3).getLines().get(0).getProduct());
+      assertTrue(orders.get(4).getLines().isEmpty());
+
+      // 1 query for the orders, 3 customer keys and 5 order keys in batches of 2
+      assertEquals(6, StatementCounter.statements.size());
+      for (String statement : StatementCounter.statements.subList(1, 6)) {
+        assertTrue(statement, statement.contains(" in ("));
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRunNestedSelectsOneByOneWithResultHandler() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      final int[] count = new int[1];
+      sqlSession.select("org.apache.ibatis.submitted.batch_fetch.Mapper.getOrders", new ResultHandler<Order>() {
+        @Override
+        public void handleResult(ResultContext<? extends Order> context) {
+          // the values are complete when handed to the handler
+          assertNotNull(context.getResultObject().getLines());
+          count[0]++;
+        }
+      });
+      assertEquals(5, count[0]);
+      for (String statement : StatementCounter.statements) {
+        assertFalse(statement, statement.contains(" in ("));
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldLoadLazyPropertiesOfSiblingsInBatches() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).getOrdersLazily();
+      assertEquals(1, StatementCounter.statements.size());
+
+      // loads the lines of orders 10 and 11
+      assertEquals(2, orders.get(0).getLines().size());
+      assertEquals(2, StatementCounter.statements.size());
+      assertEquals("Paper", orders.get(1).getLines().get(0).getProduct());
+      assertEquals(2, StatementCounter.statements.size());
+
+      // loads the lines of orders 14 and 12, then of order 13
+      assertTrue(orders.get(4).getLines().isEmpty());
+      assertTrue(orders.get(2).getLines().isEmpty());
+      assertEquals(3, StatementCounter.statements.size());
+      assertEquals("Stapler", orders.get(3).getLines().get(0).getProduct());
+      assertEquals(4, StatementCounter.statements.size());
+
+      // customers are batched separately, order 14 has none
+      assertEquals("Alice", orders.get(0).getCustomer().getName());
+      assertEquals("Bob", orders.get(1).getCustomer().getName());
+      assertEquals("Alice", orders.get(2).getCustomer().getName());
+      assertEquals("Carol", orders.get(3).getCustomer().getName());
+      assertNull(orders.get(4).getCustomer());
+      assertEquals(6, StatementCounter.statements.size());
+      for (String statement : StatementCounter.statements.subList(1, 6)) {
+        assertTrue(statement, statement.contains(" in ("));
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldNotOverwriteLazyPropertySetBeforeSiblingLoad() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Order> orders = sqlSession.getMapper(Mapper.class).getOrdersLazily();
+      List<OrderLine> lines = new ArrayList<OrderLine>();
+      orders.get(1).setLines(lines);
+
+      assertEquals(2, orders.get(0).getLines().size());
+      assertSame(lines, orders.get(1).getLines());
+      assertTrue(orders.get(2).getLines().isEmpty());
+      assertEquals(2, StatementCounter.statements.size());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
@@ -0,0 +1,50 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table order_line if exists;
+drop table orders if exists;
+drop table customer if exists;
+
+create table customer (
+  id int,
+  name varchar(100)
+);
+
+create table orders (
+  id int,
+  customer_id int
+);
+
+create table order_line (
+  id int,
+  order_id int,
+  product varchar(100)
+);
+
+insert into customer (id, name) values (1, 'Alice');
+insert into customer (id, name) values (2, 'Bob');
+insert into customer (id, name) values (3, 'Carol');
+
+insert into orders (id, customer_id) values (10, 1);
+insert into orders (id, customer_id) values (11, 2);
+insert into orders (id, customer_id) values (12, 1);
+insert into orders (id, customer_id) values (13, 3);
+insert into orders (id, customer_id) values (14, null);
+
+insert into order_line (id, order_id, product) values (100, 10, 'Pen');
+insert into order_line (id, order_id, product) values (101, 10, 'Ink');
+insert into order_line (id, order_id, product) values (102, 11, 'Paper');
+insert into order_line (id, order_id, product) values (103, 13, 'Stapler');
@@ -0,0 +1,181 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapping;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.executor.resultset.RowMapper;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompiledRowMappingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mapping/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mapping/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Before
+  public void clearRowMappers() {
+    sqlSessionFactory.getConfiguration().getRowMapperRegistry().clear();
+  }
+
+  @Test
+  public void shouldMapPropertiesAndAutoMappedColumnsWithCompiledRowMapper() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Person> persons = sqlSession.getMapper(Mapper.class).getPersons();
+      assertEquals(3, persons.size());
+      Person alice = persons.get(0);
+      assertEquals(Integer.valueOf(1), alice.getId());
+      assertEquals("Alice", alice.getFullName());
+      assertEquals(30, alice.getAge());
+      assertTrue(alice.isActive());
+      assertEquals(9.5, alice.getScore(), 0);
+      assertEquals(Status.ACTIVE, alice.getStatus());
+      assertEquals("Al", alice.getNickname());
+      Person bob = persons.get(1);
+      assertEquals(Status.RETIRED, bob.getStatus());
+      assertFalse(bob.isActive());
+      assertEquals("none", bob.getNickname());
+      Person unnamed = persons.get(2);
+      assertEquals(Integer.valueOf(3), unnamed.getId());
+      assertNull(unnamed.getFullName());
+      assertEquals(0, unnamed.getAge());
+      assertNull(unnamed.getStatus());
+
+      assertCompiled(Mapper.class.getName() + ".personResult", true);
+      sqlSession.getMapper(Mapper.class).getPersons();
+      assertEquals(1, sqlSessionFactory.getConfiguration().getRowMapperRegistry().size());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCompileRowMapperOfNestedClass() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Person.Summary> summaries = sqlSession.getMapper(Mapper.class).getSummaries();
+      assertEquals(3, summaries.size());
+      assertEquals(Integer.valueOf(2), summaries.get(1).getId());
+      assertEquals("Bob", summaries.get(1).getName());
+      assertCompiled(Mapper.class.getName() + ".summaryResult", true);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldReturnNullForEmptyRow() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Person.Summary> summaries = sqlSession.getMapper(Mapper.class).getEmptySummaries();
+      assertEquals(1, summaries.size());
+      assertNull(summaries.get(0));
+      assertCompiled(Mapper.class.getName() + ".summaryResult", true);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCallSettersOnNullsWhenEnabled() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setCallSettersOnNulls(true);
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Person> persons = sqlSession.getMapper(Mapper.class).getPersons();
+      assertNull(persons.get(1).getNickname());
+      assertEquals(0, persons.get(2).getAge());
+      assertCompiled(Mapper.class.getName() + ".personResult", true);
+    } finally {
+      sqlSession.close();
+      configuration.setCallSettersOnNulls(false);
+    }
+  }
+
+  @Test
+  public void shouldRecompileRowMapperWhenSettingsChange() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertEquals("none", sqlSession.getMapper(Mapper.class).getPersons().get(1).getNickname());
+    } finally {
+      sqlSession.close();
+    }
+    configuration.setCallSettersOnNulls(true);
+    sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertNull(sqlSession.getMapper(Mapper.class).getPersons().get(1).getNickname());
+    } finally {
+      sqlSession.close();
+      configuration.setCallSettersOnNulls(false);
+    }
+  }
+
+  @Test
+  public void shouldFallBackToInterpretedMappingForConstructorMappings() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<ImmutablePerson> persons = sqlSession.getMapper(Mapper.class).getImmutablePersons();
+      assertEquals(3, persons.size());
+      assertEquals(2, persons.get(1).getId());
+      assertEquals("Bob", persons.get(1).getName());
+      assertCompiled(Mapper.class.getName() + ".immutablePersonResult", false);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private void assertCompiled(String resultMapId, boolean compiled) {
+    Map<String, RowMapper> rowMappers = sqlSessionFactory.getConfiguration().getRowMapperRegistry().getRowMappers();
+    boolean found = false;
+    for (Map.Entry<String, RowMapper> entry : rowMappers.entrySet()) {
+      if (entry.getKey().startsWith(resultMapId + ":")) {
+        found = true;
+        assertEquals(compiled, entry.getValue() != null);
+      }
+    }
+    assertTrue(found);
+  }
+
+}
@@ -20,6 +20,7 @@ import java.util.List;
 public interface CountryMapper {
 
   int insertList(List<Country> countries);
+  int insertMixedList(List<Object> countries);
   int insertUndefineKeyProperty(Country country);
 
 }
@@ -20,7 +20,9 @@ import static org.junit.Assert.*;
 import java.io.Reader;
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
@@ -79,6 +81,29 @@ public class Jdbc3KeyGeneratorTest {
     }
   }
 
+  @Test
+  public void shouldInsertListOfMixedTypesAndRetrieveIds() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      CountryMapper mapper = sqlSession.getMapper(CountryMapper.class);
+      Map<String, Object> france = new HashMap<String, Object>();
+      france.put("countryname", "France");
+      france.put("countrycode", "FR");
+      List<Object> countries = new ArrayList<Object>();
+      countries.add(new Country("China", "CN"));
+      countries.add(france);
+      countries.add(new Country("United States of America", "US"));
+      mapper.insertMixedList(countries);
+      Integer chinaId = ((Country) countries.get(0)).getId();
+      assertNotNull(chinaId);
+      assertEquals(chinaId + 1, ((Number) france.get("id")).intValue());
+      assertEquals(Integer.valueOf(chinaId + 2), ((Country) countries.get(2)).getId());
+    } finally {
+      sqlSession.rollback();
+      sqlSession.close();
+    }
+  }
+
   @Test
   public void shouldErrorUndefineProperty()  {
     SqlSession sqlSession = sqlSessionFactory.openSession();
@@ -0,0 +1,35 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table event if exists;
+
+create table event (
+  id int,
+  category varchar(20),
+  name varchar(20)
+);
+
+insert into event (id, category, name) values (1, 'b', 'one');
+insert into event (id, category, name) values (2, 'a', 'two');
+insert into event (id, category, name) values (3, 'b', 'three');
+insert into event (id, category, name) values (4, 'a', 'four');
+insert into event (id, category, name) values (5, 'b', 'five');
+insert into event (id, category, name) values (6, 'a', 'six');
+insert into event (id, category, name) values (7, 'b', 'seven');
+insert into event (id, category, name) values (8, 'a', 'eight');
+insert into event (id, category, name) values (9, 'b', 'nine');
+insert into event (id, category, name) values (10, 'a', 'ten');
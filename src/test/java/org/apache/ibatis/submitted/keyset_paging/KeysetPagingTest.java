@@ -0,0 +1,228 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.keyset_paging;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.plugin.QueryRecorder;
+import org.apache.ibatis.plugin.SqlRecorder;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.KeysetBounds;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class KeysetPagingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/keyset_paging/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/keyset_paging/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Before
+  public void clearSqls() {
+    SqlRecorder.sqls.clear();
+    QueryRecorder.statementIds.clear();
+  }
+
+  @Test
+  public void shouldIteratePagesBySingleKey() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Cursor<List<Event>> pages = sqlSession.getMapper(Mapper.class).getEvents(null, new KeysetBounds(4, "id"));
+      List<List<Integer>> ids = getIds(pages);
+      assertEquals(3, ids.size());
+      assertEquals(list(1, 2, 3, 4), ids.get(0));
+      assertEquals(list(5, 6, 7, 8), ids.get(1));
+      assertEquals(list(9, 10), ids.get(2));
+      assertTrue(pages.isConsumed());
+      assertEquals(2, pages.getCurrentIndex());
+
+      assertEquals(3, SqlRecorder.sqls.size());
+      assertEquals("SELECT * FROM (select id, category, name from event) KEYSET_ ORDER BY id LIMIT 4", SqlRecorder.sqls.get(0));
+      assertEquals("SELECT * FROM (select id, category, name from event) KEYSET_ WHERE id > ? ORDER BY id LIMIT 4", SqlRecorder.sqls.get(1));
+
+      // executor plugins see each page as a query of the statement
+      String statementId = Mapper.class.getName() + ".getEvents";
+      assertEquals(Arrays.asList(statementId, statementId, statementId), QueryRecorder.statementIds);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldIteratePagesByCompositeKey() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Cursor<List<Event>> pages = sqlSession.getMapper(Mapper.class).getAllEvents(new KeysetBounds(3, "category", "id"));
+      List<List<Integer>> ids = getIds(pages);
+      assertEquals(4, ids.size());
+      assertEquals(list(2, 4, 6), ids.get(0));
+      assertEquals(list(8, 10, 1), ids.get(1));
+      assertEquals(list(3, 5, 7), ids.get(2));
+      assertEquals(list(9), ids.get(3));
+      assertEquals("SELECT * FROM (select id, category, name from event) KEYSET_"
+          + " WHERE category >= ? AND (category > ? OR category = ? AND id > ?) ORDER BY category, id LIMIT 3", SqlRecorder.sqls.get(1));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyStatementParametersToEveryPage() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<List<Integer>> ids = getIds(sqlSession.getMapper(Mapper.class).getEvents("a", new KeysetBounds(5, "id")));
+      assertEquals(1, ids.size());
+      assertEquals(list(2, 4, 6, 8, 10), ids.get(0));
+      assertEquals(2, SqlRecorder.sqls.size());
+      assertEquals("SELECT * FROM (select id, category, name from event WHERE category = ?) KEYSET_ WHERE id > ? ORDER BY id LIMIT 5",
+          SqlRecorder.sqls.get(1));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldStopFetchingPagesWhenClosed() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Cursor<List<Event>> pages = sqlSession.selectKeysetPages(Mapper.class.getName() + ".getEvents", null, new KeysetBounds(2, "id"));
+      Iterator<List<Event>> iterator = pages.iterator();
+      assertEquals(2, iterator.next().size());
+      assertTrue(pages.isOpen());
+      pages.close();
+      assertFalse(iterator.hasNext());
+      assertFalse(pages.isConsumed());
+      assertEquals(1, SqlRecorder.sqls.size());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldKeepLocalCacheOfSession() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      String statement = Mapper.class.getName() + ".getEventsWithCategory";
+      List<Event> events = sqlSession.selectList(statement);
+      getIds(sqlSession.getMapper(Mapper.class).getAllEvents(new KeysetBounds(4, "id")));
+      assertSame(events, sqlSession.selectList(statement));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRequireDialect() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    Dialect dialect = configuration.getDialect();
+    configuration.setDialect(null);
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getAllEvents(new KeysetBounds(4, "id"));
+      fail("Should have failed without a dialect");
+    } catch (PersistenceException e) {
+      assertTrue(e.getMessage().contains("no dialect"));
+    } finally {
+      sqlSession.close();
+      configuration.setDialect(dialect);
+    }
+  }
+
+  @Test
+  public void shouldRejectPagesTheDialectCannotLimit() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      // ORDER BY offset reads as an offset clause, to which the dialect cannot append a limit
+      KeysetBounds bounds = new KeysetBounds(4, new String[] { "offset" }, new String[] { "id" });
+      Cursor<List<Event>> pages = sqlSession.selectKeysetPages(Mapper.class.getName() + ".getEvents", null, bounds);
+      pages.iterator().next();
+      fail("Should have failed without a limit on the pages");
+    } catch (PersistenceException e) {
+      assertTrue(e.getMessage().contains("cannot limit its pages to 4 rows"));
+      assertTrue(SqlRecorder.sqls.isEmpty());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnlimitedPageSize() {
+    new KeysetBounds(RowBounds.NO_ROW_LIMIT, "id");
+  }
+
+  @Test(expected = PersistenceException.class)
+  public void shouldRejectStatementWithNestedResultMaps() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.selectKeysetPages(Mapper.class.getName() + ".getEventsWithCategory", null, new KeysetBounds(2, "id"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private List<List<Integer>> getIds(Cursor<List<Event>> pages) throws Exception {
+    List<List<Integer>> ids = new ArrayList<List<Integer>>();
+    for (List<Event> page : pages) {
+      List<Integer> pageIds = new ArrayList<Integer>();
+      for (Event event : page) {
+        pageIds.add(event.getId());
+      }
+      ids.add(pageIds);
+    }
+    pages.close();
+    return ids;
+  }
+
+  private List<Integer> list(Integer... ids) {
+    List<Integer> list = new ArrayList<Integer>();
+    for (Integer id : ids) {
+      list.add(id);
+    }
+    return list;
+  }
+
+}
@@ -0,0 +1,39 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+drop table pets if exists;
+drop table owners if exists;
+
+create table owners (
+  id int,
+  name varchar(20)
+);
+
+create table pets (
+  id int,
+  owner_id int,
+  name varchar(20)
+);
+
+insert into owners (id, name) values (1, 'Alice');
+insert into owners (id, name) values (2, 'Bob');
+insert into owners (id, name) values (3, 'Carol');
+
+insert into pets (id, owner_id, name) values (10, 1, 'Rex');
+insert into pets (id, owner_id, name) values (11, 2, 'Ace');
+insert into pets (id, owner_id, name) values (12, 1, 'Mia');
+insert into pets (id, owner_id, name) values (13, 2, 'Zed');
+insert into pets (id, owner_id, name) values (14, 1, 'Bo');
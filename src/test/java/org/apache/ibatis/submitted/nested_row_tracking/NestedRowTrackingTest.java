@@ -0,0 +1,124 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_row_tracking;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.executor.resultset.OrderByRegistry;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class NestedRowTrackingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_row_tracking/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_row_tracking/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldGroupRowsOrderedByIdColumns() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Owner> owners = sqlSession.getMapper(Mapper.class).getOwnersOrderedById();
+      assertEquals(3, owners.size());
+      assertOwner(owners.get(0), 3, "Carol");
+      assertOwner(owners.get(1), 2, "Bob", 11, 13);
+      assertOwner(owners.get(2), 1, "Alice", 10, 12, 14);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldGroupRowsOfInterleavedOwners() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Owner> owners = sqlSession.getMapper(Mapper.class).getOwnersOrderedByPetName();
+      assertEquals(3, owners.size());
+      // Carol has no pet, her row comes first
+      assertOwner(owners.get(0), 3, "Carol");
+      assertOwner(owners.get(1), 2, "Bob", 11, 13);
+      assertOwner(owners.get(2), 1, "Alice", 14, 12, 10);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldNotReleaseOwnersWhenIdIsNotTheFirstOrderByColumn() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Owner> owners = sqlSession.getMapper(Mapper.class).getOwnersOrderedByPetId();
+      assertEquals(3, owners.size());
+      assertOwner(owners.get(0), 3, "Carol");
+      assertOwner(owners.get(1), 1, "Alice", 10, 12, 14);
+      assertOwner(owners.get(2), 2, "Bob", 11, 13);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldParseOrderByOnceAcrossExecutions() {
+    OrderByRegistry orderByRegistry = sqlSessionFactory.getConfiguration().getOrderByRegistry();
+    orderByRegistry.clear();
+    for (int i = 0; i < 2; i++) {
+      SqlSession sqlSession = sqlSessionFactory.openSession();
+      try {
+        List<Owner> owners = sqlSession.getMapper(Mapper.class).getOwnersOrderedById();
+        assertOwner(owners.get(2), 1, "Alice", 10, 12, 14);
+      } finally {
+        sqlSession.close();
+      }
+    }
+    assertEquals(1, orderByRegistry.size());
+  }
+
+  private void assertOwner(Owner owner, int id, String name, Integer... petIds) {
+    assertEquals(Integer.valueOf(id), owner.getId());
+    assertEquals(name, owner.getName());
+    List<Integer> ids = new ArrayList<Integer>();
+    for (Pet pet : owner.getPets()) {
+      ids.add(pet.getId());
+    }
+    assertEquals(Arrays.asList(petIds), ids);
+  }
+
+}
@@ -0,0 +1,32 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table item if exists;
+
+create table item (
+  id int,
+  name varchar(20),
+  category varchar(20)
+);
+
+insert into item (id, name, category) values (1, 'apple', 'fruit');
+insert into item (id, name, category) values (2, 'carrot', 'vegetable');
+insert into item (id, name, category) values (3, 'banana', 'fruit');
+insert into item (id, name, category) values (4, 'leek', 'vegetable');
+insert into item (id, name, category) values (5, 'cherry', 'fruit');
+insert into item (id, name, category) values (6, 'onion', 'vegetable');
+insert into item (id, name, category) values (7, 'grape', 'fruit');
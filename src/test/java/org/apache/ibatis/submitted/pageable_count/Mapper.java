@@ -0,0 +1,36 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.pageable_count;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.Page;
+import org.apache.ibatis.session.RowBounds;
+
+public interface Mapper {
+
+  Page<Item> getItems(@Param("category") String category, RowBounds rowBounds);
+
+  @Select("select id, name, category from item where category = #{category} order by name desc")
+  Page<Item> getItemsByNameDescending(@Param("category") String category, RowBounds rowBounds);
+
+  List<Item> getAllItems();
+
+  void insertItem(Item item);
+
+}
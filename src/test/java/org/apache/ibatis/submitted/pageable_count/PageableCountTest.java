@@ -0,0 +1,172 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.pageable_count;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.Arrays;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.plugin.QueryRecorder;
+import org.apache.ibatis.plugin.SqlRecorder;
+import org.apache.ibatis.session.Page;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PageableCountTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/pageable_count/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+  }
+
+  @Before
+  public void createDatabase() throws Exception {
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/pageable_count/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+    sqlSessionFactory.getConfiguration().getCache(Mapper.class.getName()).clear();
+    SqlRecorder.sqls.clear();
+    QueryRecorder.statementIds.clear();
+  }
+
+  @Test
+  public void shouldSelectPageWithTotalCount() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Page<Item> page = sqlSession.getMapper(Mapper.class).getItems(null, new RowBounds(2, 3));
+      assertEquals(7, page.getTotal());
+      assertEquals(2, page.getOffset());
+      assertEquals(3, page.getLimit());
+      assertEquals(3, page.getItems().size());
+      assertEquals(Integer.valueOf(3), page.getItems().get(0).getId());
+      assertEquals(Integer.valueOf(5), page.getItems().get(2).getId());
+      assertTrue(page.hasNext());
+      assertEquals("select id, name, category from item order by id", SqlRecorder.sqls.get(0));
+      assertEquals("SELECT COUNT(*) FROM (select id, name, category from item) COUNT_", SqlRecorder.sqls.get(1));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCountWithTheSameDynamicSqlAsThePage() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Page<Item> page = sqlSession.getMapper(Mapper.class).getItems("vegetable", new RowBounds(2, 5));
+      assertEquals(3, page.getTotal());
+      assertEquals(1, page.getItems().size());
+      assertEquals(Integer.valueOf(6), page.getItems().get(0).getId());
+      assertFalse(page.hasNext());
+      assertEquals("select id, name, category from item WHERE category = ? order by id", SqlRecorder.sqls.get(0));
+      assertEquals("SELECT COUNT(*) FROM (select id, name, category from item WHERE category = ?) COUNT_", SqlRecorder.sqls.get(1));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldDeriveCountForAnnotatedSelectReturningPage() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Page<Item> page = sqlSession.getMapper(Mapper.class).getItemsByNameDescending("fruit", new RowBounds(0, 2));
+      assertEquals(4, page.getTotal());
+      assertEquals(2, page.getItems().size());
+      assertEquals("grape", page.getItems().get(0).getName());
+      assertEquals("cherry", page.getItems().get(1).getName());
+      Long count = sqlSession.selectOne(Mapper.class.getName() + ".getItemsByNameDescending!count", "fruit");
+      assertEquals(Long.valueOf(4), count);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldCacheCountInNamespaceCache() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getItems("fruit", new RowBounds(0, 2));
+    } finally {
+      sqlSession.close();
+    }
+    assertEquals(2, SqlRecorder.sqls.size());
+
+    sqlSession = sqlSessionFactory.openSession();
+    try {
+      Page<Item> page = sqlSession.getMapper(Mapper.class).getItems("fruit", new RowBounds(0, 2));
+      assertEquals(4, page.getTotal());
+      assertEquals(2, SqlRecorder.sqls.size());
+
+      Item item = new Item();
+      item.setId(8);
+      item.setName("lemon");
+      item.setCategory("fruit");
+      sqlSession.getMapper(Mapper.class).insertItem(item);
+      sqlSession.commit();
+    } finally {
+      sqlSession.close();
+    }
+
+    sqlSession = sqlSessionFactory.openSession();
+    try {
+      Page<Item> page = sqlSession.getMapper(Mapper.class).getItems("fruit", new RowBounds(0, 2));
+      assertEquals(5, page.getTotal());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRunPageAndCountThroughExecutorPlugins() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getItems("fruit", new RowBounds(0, 2));
+      assertEquals(Arrays.asList(Mapper.class.getName() + ".getItems", Mapper.class.getName() + ".getItems!count"),
+          QueryRecorder.statementIds);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test(expected = PersistenceException.class)
+  public void shouldRejectStatementThatIsNotPageable() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.selectPage(Mapper.class.getName() + ".getAllItems", null, new RowBounds(0, 2));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
@@ -28,3 +28,7 @@ create table udata (
 insert into users (id, name) values(1, 'User1');
 insert into udata (user_id, num) values(1, 100);
 insert into udata (user_id, num) values(1, 300);
+insert into udata (user_id, num) values(2, 300);
+insert into udata (user_id, num) values(2, 100);
+insert into udata (user_id, num) values(2, 200);
+insert into udata (user_id, num) values(3, null);
@@ -15,8 +15,18 @@
  */
 package org.apache.ibatis.submitted.primitive_array;
 
+import org.apache.ibatis.session.RowBounds;
+
 public interface Mapper {
 
   User getUser(Integer id);
 
+  int[] getNums(Integer userId);
+
+  long[] getNumsAsLong(Integer userId);
+
+  double[] getNumsAsDouble(Integer userId);
+
+  int[] getNums(Integer userId, RowBounds rowBounds);
+
 }
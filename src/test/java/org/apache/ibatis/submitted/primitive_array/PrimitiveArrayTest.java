@@ -17,9 +17,14 @@ package org.apache.ibatis.submitted.primitive_array;
 
 import java.io.Reader;
 import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
 
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
@@ -64,4 +69,68 @@ public class PrimitiveArrayTest {
     }
   }
 
+  @Test
+  public void shouldReturnPrimitiveArraysFromMapper() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Assert.assertArrayEquals(new int[] { 100, 200, 300 }, mapper.getNums(2));
+      Assert.assertArrayEquals(new long[] { 100L, 200L, 300L }, mapper.getNumsAsLong(2));
+      Assert.assertArrayEquals(new double[] { 100d, 200d, 300d }, mapper.getNumsAsDouble(2), 0d);
+      Assert.assertEquals(0, mapper.getNums(4).length);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBoundsToPrimitiveArrays() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Assert.assertArrayEquals(new int[] { 200, 300 }, mapper.getNums(2, new RowBounds(1, 5)));
+      long[] nums = sqlSession.selectPrimitiveArray("getNumsAsLong", 2, new RowBounds(0, 2), long[].class);
+      Assert.assertArrayEquals(new long[] { 100L, 200L }, nums);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldKeepLocalCacheOfPrimitiveArrayStatement() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Assert.assertArrayEquals(new int[] { 100, 200, 300 }, sqlSession.getMapper(Mapper.class).getNums(2));
+      List<Integer> nums = sqlSession.selectList(Mapper.class.getName() + ".getNums", 2);
+      Assert.assertEquals(Arrays.asList(100, 200, 300), nums);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldUseSecondLevelCacheForPrimitiveArrays() {
+    Cache cache = sqlSessionFactory.getConfiguration().getCache(CachedMapper.class.getName());
+    cache.clear();
+    for (int i = 0; i < 2; i++) {
+      SqlSession sqlSession = sqlSessionFactory.openSession();
+      try {
+        Assert.assertArrayEquals(new int[] { 100, 200, 300 }, sqlSession.getMapper(CachedMapper.class).getNums(2));
+      } finally {
+        sqlSession.close();
+      }
+      Assert.assertEquals(1, cache.getSize());
+    }
+  }
+
+  @Test(expected = PersistenceException.class)
+  public void shouldFailOnNullValue() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      sqlSession.getMapper(Mapper.class).getNums(3);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
 }
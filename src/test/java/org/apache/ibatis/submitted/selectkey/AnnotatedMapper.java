@@ -22,6 +22,7 @@ import org.apache.ibatis.annotations.InsertProvider;
 import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.SelectKey;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.executor.keygen.SequenceKeyGenerator;
 
 public interface AnnotatedMapper {
 
@@ -51,6 +52,12 @@ public interface AnnotatedMapper {
     @SelectKey(statement="call next value for TestSequence", keyProperty="nameId", before=true, resultType=int.class)
     int insertTable3(Name name);
 
+    @Insert("insert into table3 (id, name) values(#{nameId}, #{name})")
+    @SelectKey(statement="call next value for BlockSequence", keyProperty="nameId", before=true, resultType=int.class, allocationSize=5, optimizer=SequenceKeyGenerator.Optimizer.HILO)
+    int insertTable3WithHiLoSequence(Name name);
+
+    int insertTable3WithPooledSequenceXml(Name name);
+
     @InsertProvider(type=SqlProvider.class,method="insertTable3_2")
     @SelectKey(statement="call next value for TestSequence", keyProperty="nameId", before=true, resultType=int.class)
     int insertTable3_2(Name name);
@@ -15,6 +15,8 @@
 --
 
 drop sequence if exists TestSequence;
+drop sequence if exists BlockSequence;
+drop sequence if exists PooledSequence;
 drop table if exists table1;
 drop table if exists table2;
 drop table if exists table3;
@@ -32,6 +34,10 @@ name_fred varchar(25) generated always as (name || '_fred')
 
 create sequence TestSequence as integer start with 33;
 
+create sequence BlockSequence as integer start with 1;
+
+create sequence PooledSequence as integer start with 100 increment by 10;
+
 create table table3 (
 id int not null,
 name varchar(20)
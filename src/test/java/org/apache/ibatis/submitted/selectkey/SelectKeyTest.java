@@ -31,6 +31,8 @@ import org.junit.Test;
 import java.io.Reader;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -427,6 +429,53 @@ public class SelectKeyTest {
       }
   }
 
+  @Test
+  public void testAnnotatedInsertTable3WithHiLoSequence() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      AnnotatedMapper mapper = sqlSession.getMapper(AnnotatedMapper.class);
+      for (int i = 1; i <= 7; i++) {
+        Name name = new Name();
+        name.setName("barney" + i);
+        assertEquals(1, mapper.insertTable3WithHiLoSequence(name));
+        assertEquals(i, name.getNameId());
+      }
+      // blocks 1 and 2 were reserved
+      assertEquals(3, nextValue(sqlSession, "BlockSequence"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void testInsertTable3WithPooledSequenceXml() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      AnnotatedMapper mapper = sqlSession.getMapper(AnnotatedMapper.class);
+      for (int i = 0; i < 12; i++) {
+        Name name = new Name();
+        name.setName("barney" + i);
+        assertEquals(1, mapper.insertTable3WithPooledSequenceXml(name));
+        assertEquals(100 + i, name.getNameId());
+      }
+      // blocks 100 and 110 were reserved
+      assertEquals(120, nextValue(sqlSession, "PooledSequence"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private int nextValue(SqlSession sqlSession, String sequence) throws Exception {
+    Statement statement = sqlSession.getConnection().createStatement();
+    try {
+      ResultSet rs = statement.executeQuery("call next value for " + sequence);
+      rs.next();
+      return rs.getInt(1);
+    } finally {
+      statement.close();
+    }
+  }
+
   @Test(expected = PersistenceException.class)
   public void testSeleckKeyWithWrongKeyProperty() {
     SqlSession sqlSession = sqlSessionFactory.openSession();
@@ -0,0 +1,28 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+create table item (
+  id int,
+  name varchar(20)
+);
+
+insert into item (id, name) values (1, 'one');
+insert into item (id, name) values (2, 'two');
+insert into item (id, name) values (3, 'three');
+insert into item (id, name) values (4, 'four');
+insert into item (id, name) values (5, 'five');
+insert into item (id, name) values (6, 'six');
+insert into item (id, name) values (7, 'seven');
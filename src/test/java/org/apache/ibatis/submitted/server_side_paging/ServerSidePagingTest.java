@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2015 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.server_side_paging;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.List;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.plugin.SqlRecorder;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ServerSidePagingTest {
+
+  private static SqlSessionFactory hsqldbSessionFactory;
+  private static SqlSessionFactory derbySessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    hsqldbSessionFactory = createSessionFactory("hsqldb");
+    derbySessionFactory = createSessionFactory("derby");
+  }
+
+  private static SqlSessionFactory createSessionFactory(String environment) throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/server_side_paging/mybatis-config.xml");
+    SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader, environment);
+    reader.close();
+
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/server_side_paging/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    session.close();
+    return sqlSessionFactory;
+  }
+
+  @Before
+  public void clearSqls() {
+    SqlRecorder.sqls.clear();
+  }
+
+  @Test
+  public void shouldPageWithLimitAndOffsetOnHsqldb() {
+    SqlSession sqlSession = hsqldbSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItems(new RowBounds(2, 3));
+      assertEquals(3, items.size());
+      assertEquals(Integer.valueOf(3), items.get(0).getId());
+      assertEquals(Integer.valueOf(5), items.get(2).getId());
+      assertEquals("select id, name from item order by id LIMIT 3 OFFSET 2", SqlRecorder.sqls.get(0));
+
+      items = sqlSession.getMapper(Mapper.class).getItems(new RowBounds(5, RowBounds.NO_ROW_LIMIT));
+      assertEquals(2, items.size());
+      assertEquals(Integer.valueOf(6), items.get(0).getId());
+      assertEquals("select id, name from item order by id OFFSET 5", SqlRecorder.sqls.get(1));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldPageWithOffsetAndFetchOnDerby() {
+    SqlSession sqlSession = derbySessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItems(new RowBounds(2, 3));
+      assertEquals(3, items.size());
+      assertEquals(Integer.valueOf(3), items.get(0).getId());
+      assertEquals(Integer.valueOf(5), items.get(2).getId());
+      assertEquals("select id, name from item order by id OFFSET 2 ROWS FETCH NEXT 3 ROWS ONLY", SqlRecorder.sqls.get(0));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldNotRewriteWithoutRowBounds() {
+    SqlSession sqlSession = hsqldbSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItems(RowBounds.DEFAULT);
+      assertEquals(7, items.size());
+      assertEquals("select id, name from item order by id", SqlRecorder.sqls.get(0));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRemoveTrailingCommentBeforePaging() {
+    SqlSession sqlSession = hsqldbSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItemsWithComment(new RowBounds(2, 3));
+      assertEquals(3, items.size());
+      assertEquals(Integer.valueOf(3), items.get(0).getId());
+      assertEquals("select id, name from item order by id LIMIT 3 OFFSET 2", SqlRecorder.sqls.get(0));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldSkipRowsOnClientWhenSelectIsAlreadyLimited() {
+    SqlSession sqlSession = hsqldbSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getFirstItems(new RowBounds(1, 2));
+      assertEquals(2, items.size());
+      assertEquals(Integer.valueOf(2), items.get(0).getId());
+      assertEquals(Integer.valueOf(3), items.get(1).getId());
+      assertEquals("select id, name from item order by id limit 5", SqlRecorder.sqls.get(0));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldSkipRowsOnClientWithNestedResultMaps() {
+    SqlSession sqlSession = hsqldbSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.getMapper(Mapper.class).getItemsWithDetails(new RowBounds(2, 3));
+      assertEquals(3, items.size());
+      assertEquals(Integer.valueOf(3), items.get(0).getId());
+      assertEquals("three", items.get(0).getDetails().get("name"));
+      assertEquals("select id, name from item order by id", SqlRecorder.sqls.get(0));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}